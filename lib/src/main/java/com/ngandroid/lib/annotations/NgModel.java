@@ -30,6 +30,6 @@ import java.lang.annotation.Target;
  * that will made dynamically accessible by the compiler. It must also have a default constructor.
  */
 @Target(ElementType.FIELD)
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 public @interface NgModel {
 }
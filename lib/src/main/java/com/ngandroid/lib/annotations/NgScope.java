@@ -27,7 +27,7 @@ import java.lang.annotation.Target;
  * methods can be triggered upon view events.
  */
 @Target(ElementType.TYPE)
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 public @interface NgScope {
     String name();
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.benchmarks;
+
+import com.github.davityle.ngprocessor.NgProcessor;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+
+/**
+ * A processing environment without a compiler behind it, enough for the parts of the processor that
+ * only look at layouts. Messages are dropped, the filer refuses to create anything and the element
+ * and type utilities throw if they are used.
+ */
+class BenchmarkEnvironment implements ProcessingEnvironment, NgProcessor.EnvironmentResolver {
+
+    private final Map<String, String> options;
+
+    BenchmarkEnvironment(Map<String, String> options) {
+        this.options = options;
+    }
+
+    @Override
+    public Map<String, String> getOptions() {
+        return options;
+    }
+
+    @Override
+    public Messager getMessager() {
+        return MESSAGER;
+    }
+
+    @Override
+    public Filer getFiler() {
+        return FILER;
+    }
+
+    @Override
+    public Elements getElementUtils() {
+        return ELEMENTS;
+    }
+
+    @Override
+    public Types getTypeUtils() {
+        return TYPES;
+    }
+
+    @Override
+    public SourceVersion getSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public Locale getLocale() {
+        return Locale.getDefault();
+    }
+
+    @Override
+    public ProcessingEnvironment getProcessingEnvironment() {
+        return this;
+    }
+
+    @Override
+    public RoundEnvironment getRoundEnv() {
+        return ROUND_ENVIRONMENT;
+    }
+
+    private static final Elements ELEMENTS = unsupported(Elements.class);
+    private static final Types TYPES = unsupported(Types.class);
+    private static final RoundEnvironment ROUND_ENVIRONMENT = unsupported(RoundEnvironment.class);
+
+    private static <T> T unsupported(final Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                throw new UnsupportedOperationException(type.getSimpleName() + " isn't available while benchmarking");
+            }
+        }));
+    }
+
+    private static final Messager MESSAGER = new Messager() {
+        @Override
+        public void printMessage(Diagnostic.Kind kind, CharSequence msg) {
+        }
+
+        @Override
+        public void printMessage(Diagnostic.Kind kind, CharSequence msg, Element e) {
+        }
+
+        @Override
+        public void printMessage(Diagnostic.Kind kind, CharSequence msg, Element e, AnnotationMirror a) {
+        }
+
+        @Override
+        public void printMessage(Diagnostic.Kind kind, CharSequence msg, Element e, AnnotationMirror a, AnnotationValue v) {
+        }
+    };
+
+    private static final Filer FILER = new Filer() {
+        @Override
+        public JavaFileObject createSourceFile(CharSequence name, Element... originatingElements) throws IOException {
+            throw new IOException("no filer while benchmarking");
+        }
+
+        @Override
+        public JavaFileObject createClassFile(CharSequence name, Element... originatingElements) throws IOException {
+            throw new IOException("no filer while benchmarking");
+        }
+
+        @Override
+        public FileObject createResource(JavaFileManager.Location location, CharSequence pkg, CharSequence relativeName, Element... originatingElements) throws IOException {
+            throw new IOException("no filer while benchmarking");
+        }
+
+        @Override
+        public FileObject getResource(JavaFileManager.Location location, CharSequence pkg, CharSequence relativeName) throws IOException {
+            throw new IOException("no filer while benchmarking");
+        }
+    };
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.benchmarks;
+
+import com.github.davityle.ngprocessor.attrcompiler.GetExpressionVisitor;
+import com.github.davityle.ngprocessor.attrcompiler.ObserveExpressionVisitor;
+import com.github.davityle.ngprocessor.attrcompiler.SetExpressionVisitor;
+import com.github.davityle.ngprocessor.attrcompiler.node.Node;
+import com.github.davityle.ngprocessor.attrcompiler.parse.ParseException;
+import com.github.davityle.ngprocessor.attrcompiler.parse.Parser;
+import com.github.davityle.ngprocessor.attrcompiler.parse.Tokenizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokenizing, parsing and generating code for every expression in {@link SyntheticProject#EXPRESSIONS},
+ * each invocation handles the whole set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class ExpressionBenchmark {
+
+    private static final String GETTER_PREFIX = "Scope0$$NgScope.this.scope.";
+    private static final String XML_VALUE_PREFIX = SyntheticProject.PACKAGE + ".";
+
+    /**
+     * the inputs of TokenizerTest that tokenize without errors
+     */
+    private static final List<String> TOKENIZER_CORPUS = Arrays.asList(
+        "234.453",
+        "testName.testField",
+        "functionName(model.parameter)",
+        "functionName('string value here')",
+        "functionName('string value here', 12345, model.xyz)",
+        "functionName(model.parameter , secondmodel.secondParameter  )",
+        " modelName.boolValue?functionName(m.parameter , q.secondParameter  ) : modelName.stringValue",
+        " modelName.joe + modelName.frank == 2",
+        " modelName.joe != 'orange'",
+        "'this is a test string with \"quotes\" in it'",
+        "'\\''",
+        "(3 + 2) - 10/5",
+        "(3 + (2)) - 10/5"
+    );
+
+    private final List<String> expressions = SyntheticProject.EXPRESSIONS;
+    private final List<String> settable = SyntheticProject.SETTABLE_EXPRESSIONS;
+    private Node[] nodes;
+    private Node[] settableNodes;
+
+    @Setup
+    public void setUp() throws ParseException {
+        nodes = parse(expressions);
+        settableNodes = parse(settable);
+    }
+
+    @Benchmark
+    public void tokenize(Blackhole blackhole) throws ParseException {
+        for (String expression : expressions) {
+            blackhole.consume(new Tokenizer(expression).tokenize());
+        }
+    }
+
+    @Benchmark
+    public void tokenizeTestCorpus(Blackhole blackhole) throws ParseException {
+        for (String expression : TOKENIZER_CORPUS) {
+            blackhole.consume(new Tokenizer(expression).tokenize());
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) throws ParseException {
+        for (String expression : expressions) {
+            blackhole.consume(Parser.parse(expression));
+        }
+    }
+
+    @Benchmark
+    public void getExpression(Blackhole blackhole) {
+        for (Node node : nodes) {
+            blackhole.consume(GetExpressionVisitor.generateGetExpression(node, GETTER_PREFIX, XML_VALUE_PREFIX));
+        }
+    }
+
+    @Benchmark
+    public void observeExpression(Blackhole blackhole) {
+        for (Node node : nodes) {
+            blackhole.consume(ObserveExpressionVisitor.generateObserveExpression(node, "NgText", "Scope0."));
+        }
+    }
+
+    @Benchmark
+    public void setExpression(Blackhole blackhole) {
+        for (Node node : settableNodes) {
+            blackhole.consume(SetExpressionVisitor.generateSetExpression(node, "b"));
+        }
+    }
+
+    private static Node[] parse(List<String> expressions) throws ParseException {
+        Node[] nodes = new Node[expressions.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = Parser.parse(expressions.get(i));
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.benchmarks;
+
+import com.github.davityle.ngprocessor.NgProcessor;
+import com.github.davityle.ngprocessor.attrcompiler.parse.ParseException;
+import com.github.davityle.ngprocessor.attrcompiler.sources.Source;
+import com.github.davityle.ngprocessor.deps.DaggerDependencyComponent;
+import com.github.davityle.ngprocessor.deps.LayoutModule;
+import com.github.davityle.ngprocessor.finders.DefaultLayoutDirProvider;
+import com.github.davityle.ngprocessor.model.Layout;
+import com.github.davityle.ngprocessor.util.Option;
+import com.github.davityle.ngprocessor.xml.XmlScope;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The heap the processor keeps for its binding model with each value of the ngExpressionModel option,
+ * which JMH doesn't measure. For every representation a set of distinct expressions is compiled and
+ * the scopes of a {@link SyntheticProject} are extracted, and the growth of the heap after a full
+ * collection is reported while both are still reachable.
+ *
+ * Arguments are the number of expressions (4000 by default, below the size at which the expression
+ * cache starts over), the number of layouts (200) and optionally a file to write the results to as json.
+ */
+public class HeapFootprint {
+
+    private static final String[] EXPRESSION_MODELS = {"tree", "compact"};
+    private static final int VIEWS_PER_LAYOUT = 24;
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    public static void main(String[] args) throws Exception {
+        int expressions = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+        int layouts = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        File report = args.length > 2 ? new File(args[2]) : null;
+
+        File root = Files.createTempDirectory("ng-heap-footprint").toFile();
+        try {
+            SyntheticProject.Files project = new SyntheticProject(layouts, VIEWS_PER_LAYOUT).writeTo(root);
+            StringBuilder json = new StringBuilder("{\n  \"expressions\": ").append(expressions)
+                .append(",\n  \"layouts\": ").append(layouts)
+                .append(",\n  \"viewsPerLayout\": ").append(VIEWS_PER_LAYOUT);
+
+            // load and initialize everything once so that it isn't counted against the first representation
+            for (String model : EXPRESSION_MODELS) {
+                getXmlScopes(model, project.getLayoutDir());
+            }
+            for (String model : EXPRESSION_MODELS) {
+                long start = usedHeap();
+                List<Source> sources = compile(model, expressions);
+                long compiled = usedHeap();
+                Map<Layout, Collection<XmlScope>> scopes = getXmlScopes(model, project.getLayoutDir());
+                long parsed = usedHeap();
+
+                System.out.printf("%-8s %d expressions %d bytes (%d per expression), %d layouts %d bytes (%d per layout)%n",
+                    model, sources.size(), compiled - start, (compiled - start) / sources.size(),
+                    scopes.size(), parsed - compiled, (parsed - compiled) / Math.max(1, scopes.size()));
+                json.append(",\n  \"").append(model).append("\": {\"expressionBytes\": ").append(compiled - start)
+                    .append(", \"layoutBytes\": ").append(parsed - compiled).append('}');
+            }
+            json.append("\n}\n");
+            if (report != null) {
+                write(report, json.toString());
+            }
+        } finally {
+            SyntheticProject.delete(root);
+        }
+    }
+
+    /**
+     * compiles copies of {@link SyntheticProject#EXPRESSIONS} over differently named models, no code
+     * is generated so there is no {@link com.github.davityle.ngprocessor.attrcompiler.Visitors}
+     */
+    private static List<Source> compile(String model, int count) throws ParseException {
+        boolean compact = "compact".equals(model);
+        List<Source> sources = new ArrayList<>(count);
+        for (int copy = 0; sources.size() < count; copy++) {
+            for (int i = 0; i < SyntheticProject.EXPRESSIONS.size() && sources.size() < count; i++) {
+                String expression = SyntheticProject.EXPRESSIONS.get(i)
+                    .replace("form.", "form" + copy + '.')
+                    .replace("item.", "item" + copy + '.');
+                sources.add(new Source(expression, null, compact));
+            }
+        }
+        return sources;
+    }
+
+    private static Map<Layout, Collection<XmlScope>> getXmlScopes(String model, final File layoutDir) {
+        Map<String, String> options = new HashMap<>();
+        options.put("ngDaemonCache", "false");
+        options.put("ngLayoutIndex", "false");
+        options.put("ngExpressionModel", model);
+        return DaggerDependencyComponent.builder()
+            .layoutModule(new LayoutModule(new DefaultLayoutDirProvider() {
+                @Override
+                public Option<String> getDefaultLayoutDir() {
+                    return Option.of(layoutDir.getAbsolutePath());
+                }
+            }))
+            .environmentModule(new NgProcessor.EnvironmentModule(new BenchmarkEnvironment(options)))
+            .build()
+            .createXmlUtils()
+            .getXmlScopes();
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        // a single request doesn't always collect everything
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+
+    private static void write(File file, String content) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs())
+            throw new IOException("Unable to create " + parent);
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(content);
+        }
+    }
+}
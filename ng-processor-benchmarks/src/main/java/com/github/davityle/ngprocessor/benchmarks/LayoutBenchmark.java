@@ -0,0 +1,106 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.benchmarks;
+
+import com.github.davityle.ngprocessor.NgProcessor;
+import com.github.davityle.ngprocessor.deps.DaggerDependencyComponent;
+import com.github.davityle.ngprocessor.deps.LayoutModule;
+import com.github.davityle.ngprocessor.finders.DefaultLayoutDirProvider;
+import com.github.davityle.ngprocessor.model.Layout;
+import com.github.davityle.ngprocessor.util.Option;
+import com.github.davityle.ngprocessor.xml.XmlScope;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extracting the scopes of every layout of a {@link SyntheticProject} with {@code XmlUtils}, the same
+ * way a processing round does it but without a compiler. The layout index is off so every layout is
+ * parsed on every invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class LayoutBenchmark {
+
+    @Param({"50"})
+    public int layouts;
+
+    @Param({"24"})
+    public int viewsPerLayout;
+
+    @Param({"stream", "dom"})
+    public String parser;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private File root;
+    private DaggerDependencyComponent.Builder builder;
+    private NgProcessor.EnvironmentModule environmentModule;
+
+    @Setup
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("ng-layout-benchmark").toFile();
+        final SyntheticProject.Files project = new SyntheticProject(layouts, viewsPerLayout).writeTo(root);
+
+        Map<String, String> options = new HashMap<>();
+        options.put("ngDaemonCache", "false");
+        options.put("ngLayoutIndex", "false");
+        options.put("ngLayoutParser", parser);
+        options.put("ngLayoutParseThreads", String.valueOf(threads));
+
+        environmentModule = new NgProcessor.EnvironmentModule(new BenchmarkEnvironment(options));
+        builder = DaggerDependencyComponent.builder().layoutModule(new LayoutModule(new DefaultLayoutDirProvider() {
+            @Override
+            public Option<String> getDefaultLayoutDir() {
+                return Option.of(project.getLayoutDir().getAbsolutePath());
+            }
+        }));
+    }
+
+    @TearDown
+    public void tearDown() {
+        SyntheticProject.delete(root);
+    }
+
+    @Benchmark
+    public Map<Layout, Collection<XmlScope>> getXmlScopes() {
+        return builder.environmentModule(environmentModule).build().createXmlUtils().getXmlScopes();
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.benchmarks;
+
+import com.github.davityle.ngprocessor.NgProcessor;
+import com.github.davityle.ngprocessor.util.Option;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * A whole processing round over a {@link SyntheticProject}, run through javac with -proc:only. Model,
+ * scope and layout sources need the compiler's elements, so this is where {@code SourceCreator}
+ * rendering is measured, next to everything else a round does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(2)
+public class ProcessorBenchmark {
+
+    @Param({"50"})
+    public int scopes;
+
+    @Param({"24"})
+    public int viewsPerLayout;
+
+    @Param({"velocity", "direct"})
+    public String emitter;
+
+    @Param({"1", "4"})
+    public int renderThreads;
+
+    private File root;
+    private File output;
+    private SyntheticProject.Files project;
+    private JavaCompiler compiler;
+    private StandardJavaFileManager fileManager;
+
+    @Setup
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("ng-processor-benchmark").toFile();
+        output = new File(root, "generated");
+        if (!output.mkdirs())
+            throw new IOException("Unable to create " + output);
+        project = new SyntheticProject(scopes, viewsPerLayout).writeTo(root);
+        compiler = ToolProvider.getSystemJavaCompiler();
+        fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        fileManager.close();
+        SyntheticProject.delete(root);
+    }
+
+    @Benchmark
+    public Boolean process() {
+        List<String> options = Arrays.asList(
+            "-proc:only",
+            "-implicit:none",
+            "-classpath", System.getProperty("java.class.path"),
+            "-s", output.getAbsolutePath(),
+            "-AandroidManifestFile=" + project.getManifest().getAbsolutePath(),
+            "-AngDaemonCache=false",
+            "-AngLayoutIndex=false",
+            "-AngSourceEmitter=" + emitter,
+            "-AngRenderThreads=" + renderThreads
+        );
+        Iterable<? extends JavaFileObject> sources = fileManager.getJavaFileObjectsFromFiles(project.getSources());
+        JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, new DiagnosticCollector<JavaFileObject>(), options, null, sources);
+        task.setProcessors(Collections.singletonList(new NgProcessor(Option.of(project.getLayoutDir().getAbsolutePath()))));
+        return task.call();
+    }
+}
@@ -0,0 +1,458 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.benchmarks;
+
+import com.github.davityle.ngprocessor.NgProcessor;
+import com.github.davityle.ngprocessor.util.Option;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+/**
+ * How a whole compilation with the processor grows with the size of the project. A
+ * {@link SyntheticProject} of every size is compiled with -proc:only like {@link ProcessorBenchmark}
+ * does, and the processing time, the peak heap and the bytes of generated sources are recorded. The
+ * processing time is the sum of the phases in the processor's timings report, in cpu time when the
+ * JVM measures it, so the rest of the compilation and the other threads of the machine don't add to
+ * it. The generated sources are only counted, javac is given empty files in their place, as parsing
+ * them would take more heap than the processor itself from a few thousand scopes on.
+ *
+ * Absolute numbers depend on the machine, so what is compared is the exponent of each measure between
+ * consecutive sizes: 1 when it grows linearly, 2 when it grows with the square of the size. The run
+ * fails when an exponent is more than the tolerance above the one in the baseline for the same pair
+ * of sizes. Pairs the baseline doesn't have are only reported.
+ *
+ * Arguments are the baseline file, the file to write the results to as json, and the sizes, each the
+ * number of scopes and of layouts (up to 10000). System properties set the rest of the project and
+ * the run:
+ * <ul>
+ *     <li>scaling.layoutsPerScope, 1 by default</li>
+ *     <li>scaling.viewsPerLayout, 8 by default</li>
+ *     <li>scaling.bindingsPerView, 3 by default</li>
+ *     <li>scaling.runs, the least number of compilations per size of which the median time is kept, 3 by default,
+ *     small sizes are compiled until 10 seconds of processing were sampled</li>
+ *     <li>scaling.tolerance, 0.25 by default</li>
+ *     <li>scaling.updateBaseline, writes the exponents of this run to the baseline instead of comparing them</li>
+ * </ul>
+ */
+public class ScalingBenchmark {
+
+    private static final int MAX_SIZE = 10000;
+    private static final int WARM_UP_RUNS = 10;
+    private static final int MAX_RUNS = 50;
+    private static final long MIN_SAMPLED_NANOS = 10000000000L;
+    private static final String[] MEASURES = {"time", "heap", "bytes"};
+    private static final Pattern BASELINE_ENTRY = Pattern.compile("\"(\\d+-\\d+)\"\\s*:\\s*\\{([^}]*)\\}");
+    private static final Pattern BASELINE_VALUE = Pattern.compile("\"(\\w+)\"\\s*:\\s*(-?[0-9.]+)");
+    private static final Pattern PHASE = Pattern.compile("\"\\w+\"\\s*:\\s*\\{\"count\"\\s*:\\s*\\d+,\\s*\"wallNanos\"\\s*:\\s*(-?\\d+),\\s*\"cpuNanos\"\\s*:\\s*(-?\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4)
+            throw new IllegalArgumentException("Usage: ScalingBenchmark <baseline> <results> <size> <size>...");
+        File baselineFile = new File(args[0]);
+        File report = new File(args[1]);
+        List<Integer> sizes = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            int size = Integer.parseInt(args[i]);
+            if (size < 1 || size > MAX_SIZE)
+                throw new IllegalArgumentException("Sizes must be between 1 and " + MAX_SIZE + ", not " + size);
+            sizes.add(size);
+        }
+        Collections.sort(sizes);
+
+        int layoutsPerScope = Integer.getInteger("scaling.layoutsPerScope", 1);
+        int viewsPerLayout = Integer.getInteger("scaling.viewsPerLayout", 8);
+        int bindingsPerView = Integer.getInteger("scaling.bindingsPerView", 3);
+        int runs = Math.max(1, Integer.getInteger("scaling.runs", 3));
+        double tolerance = Double.parseDouble(System.getProperty("scaling.tolerance", "0.25"));
+        boolean updateBaseline = Boolean.getBoolean("scaling.updateBaseline");
+
+        // classes, javac and the templates are loaded and the processor is compiled by the jit in a few
+        // compilations that aren't recorded, otherwise the smallest sizes are measured half interpreted
+        int warmUp = Math.min(100, sizes.get(0));
+        measure(new SyntheticProject(warmUp, warmUp * layoutsPerScope, viewsPerLayout, bindingsPerView), WARM_UP_RUNS);
+
+        List<Sample> samples = new ArrayList<>();
+        for (int size : sizes) {
+            Sample sample = measure(new SyntheticProject(size, size * layoutsPerScope, viewsPerLayout, bindingsPerView), runs);
+            sample.size = size;
+            samples.add(sample);
+            System.out.printf("%6d scopes %6d layouts %8d ms %8d heap bytes %10d generated bytes%n",
+                size, size * layoutsPerScope, sample.nanos / 1000000, sample.heap, sample.bytes);
+        }
+
+        Map<String, double[]> exponents = new LinkedHashMap<>();
+        for (int i = 1; i < samples.size(); i++) {
+            Sample smaller = samples.get(i - 1), larger = samples.get(i);
+            if (smaller.size == larger.size)
+                continue;
+            exponents.put(smaller.size + "-" + larger.size, new double[]{
+                exponent(smaller.size, larger.size, smaller.nanos, larger.nanos),
+                exponent(smaller.size, larger.size, smaller.heap, larger.heap),
+                exponent(smaller.size, larger.size, smaller.bytes, larger.bytes)
+            });
+        }
+
+        write(report, toJson(samples, exponents, layoutsPerScope, viewsPerLayout, bindingsPerView));
+        if (updateBaseline) {
+            // the pairs of sizes this run didn't have are kept
+            Map<String, double[]> updated = new LinkedHashMap<>();
+            for (Map.Entry<String, Map<String, Double>> pair : readBaseline(baselineFile).entrySet()) {
+                double[] values = new double[MEASURES.length];
+                for (int m = 0; m < MEASURES.length; m++) {
+                    Double value = pair.getValue().get(MEASURES[m]);
+                    values[m] = value == null ? 0 : value;
+                }
+                updated.put(pair.getKey(), values);
+            }
+            updated.putAll(exponents);
+            write(baselineFile, toBaseline(updated));
+            System.out.println("Wrote baseline " + baselineFile);
+            return;
+        }
+
+        Map<String, Map<String, Double>> baseline = readBaseline(baselineFile);
+        List<String> failures = new ArrayList<>();
+        for (Map.Entry<String, double[]> pair : exponents.entrySet()) {
+            Map<String, Double> expected = baseline.get(pair.getKey());
+            for (int m = 0; m < MEASURES.length; m++) {
+                double actual = pair.getValue()[m];
+                Double allowed = expected == null ? null : expected.get(MEASURES[m]);
+                System.out.printf("%-12s %-6s exponent %.2f (baseline %s)%n", pair.getKey(), MEASURES[m], actual,
+                    allowed == null ? "none" : String.format("%.2f", allowed));
+                if (allowed != null && actual > allowed + tolerance) {
+                    failures.add(String.format("%s grows with exponent %.2f between %s scopes, the baseline is %.2f", MEASURES[m], actual, pair.getKey(), allowed));
+                }
+            }
+        }
+        if (!failures.isEmpty()) {
+            for (String failure : failures) {
+                System.err.println(failure);
+            }
+            System.exit(1);
+        }
+    }
+
+    /**
+     * compiles the project at least the given number of times and until {@link #MIN_SAMPLED_NANOS} of
+     * processing were sampled, so the small projects are measured about as well as the large ones
+     *
+     * @return the median processing time of the compilations, with the largest peak heap of any of them
+     */
+    private static Sample measure(SyntheticProject synthetic, int runs) throws IOException, InterruptedException {
+        List<Long> nanos = new ArrayList<>();
+        long maxHeap = 0, bytes = 0, sampled = 0;
+        for (int run = 0; run < runs || (sampled < MIN_SAMPLED_NANOS && run < MAX_RUNS); run++) {
+            File root = Files.createTempDirectory("ng-scaling-benchmark").toFile();
+            try {
+                File output = new File(root, "generated");
+                if (!output.mkdirs())
+                    throw new IOException("Unable to create " + output);
+                SyntheticProject.Files project = synthetic.writeTo(root);
+                File timings = new File(root, "timings.json");
+
+                collect();
+                long before = usedHeap();
+                resetPeaks();
+                bytes = compile(project, output, timings);
+                maxHeap = Math.max(maxHeap, peakHeap() - before);
+                if (bytes < 0)
+                    throw new IllegalStateException("The synthetic project didn't compile");
+
+                long processing = processingNanos(timings);
+                nanos.add(processing);
+                sampled += processing;
+            } finally {
+                SyntheticProject.delete(root);
+            }
+        }
+        Collections.sort(nanos);
+        return new Sample(nanos.get(nanos.size() / 2), maxHeap, bytes);
+    }
+
+    /**
+     * @return the bytes of the generated sources, or -1 if the project didn't compile
+     */
+    private static long compile(SyntheticProject.Files project, File output, File timings) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8);
+             CountingFileManager fileManager = new CountingFileManager(standardFileManager)) {
+            // layouts are parsed on the processing thread, the only one whose cpu time the phases have
+            List<String> options = Arrays.asList(
+                "-proc:only",
+                "-implicit:none",
+                "-classpath", System.getProperty("java.class.path"),
+                "-s", output.getAbsolutePath(),
+                "-AandroidManifestFile=" + project.getManifest().getAbsolutePath(),
+                "-AngDaemonCache=false",
+                "-AngLayoutIndex=false",
+                "-AngLayoutParseThreads=1",
+                "-AngTimingsReport=" + timings.getAbsolutePath()
+            );
+            Iterable<? extends JavaFileObject> sources = standardFileManager.getJavaFileObjectsFromFiles(project.getSources());
+            DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null, sources);
+            task.setProcessors(Collections.singletonList(new NgProcessor(Option.of(project.getLayoutDir().getAbsolutePath()))));
+            task.call();
+
+            // the generated sources can't be resolved without android and the library on the classpath,
+            // only errors from the processor itself or in the synthetic sources count
+            boolean success = true;
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                if (diagnostic.getKind() == Diagnostic.Kind.ERROR && !isGenerated(diagnostic.getSource(), output)) {
+                    System.err.println(diagnostic);
+                    success = false;
+                }
+            }
+            return success ? fileManager.bytes : -1;
+        }
+    }
+
+    /**
+     * the time spent in the phases of the timings report, cpu time unless it wasn't measured
+     */
+    private static long processingNanos(File timings) throws IOException {
+        String content = read(timings);
+        int start = content.indexOf("\"phases\"");
+        int end = start < 0 ? -1 : content.indexOf("\n  }", start);
+        if (start < 0 || end < 0)
+            throw new IllegalStateException("The timings report " + timings + " has no phases");
+
+        long wall = 0, cpu = 0;
+        boolean cpuMeasured = true;
+        Matcher phase = PHASE.matcher(content.substring(start, end));
+        while (phase.find()) {
+            wall += Long.parseLong(phase.group(1));
+            long phaseCpu = Long.parseLong(phase.group(2));
+            cpuMeasured &= phaseCpu >= 0;
+            cpu += phaseCpu;
+        }
+        return cpuMeasured ? cpu : wall;
+    }
+
+    private static boolean isGenerated(JavaFileObject source, File output) {
+        return source != null && "file".equals(source.toUri().getScheme())
+            && new File(source.toUri()).getAbsolutePath().startsWith(output.getAbsolutePath());
+    }
+
+    /**
+     * the exponent of the growth of a measure, 1 for linear growth
+     */
+    private static double exponent(int smallerSize, int largerSize, long smaller, long larger) {
+        if (smaller <= 0 || larger <= 0)
+            return 0;
+        return Math.log((double) larger / smaller) / Math.log((double) largerSize / smallerSize);
+    }
+
+    private static void collect() throws InterruptedException {
+        // a single request doesn't always collect everything
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+    }
+
+    private static long usedHeap() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                used += pool.getUsage().getUsed();
+            }
+        }
+        return used;
+    }
+
+    private static void resetPeaks() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * the sum of the peaks of the heap pools, which can be more than the heap ever held at once
+     */
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static String toJson(List<Sample> samples, Map<String, double[]> exponents, int layoutsPerScope, int viewsPerLayout, int bindingsPerView) {
+        StringBuilder json = new StringBuilder("{\n  \"layoutsPerScope\": ").append(layoutsPerScope)
+            .append(",\n  \"viewsPerLayout\": ").append(viewsPerLayout)
+            .append(",\n  \"bindingsPerView\": ").append(bindingsPerView)
+            .append(",\n  \"sizes\": [");
+        String separator = "\n";
+        for (Sample sample : samples) {
+            json.append(separator).append("    {\"scopes\": ").append(sample.size)
+                .append(", \"processingNanos\": ").append(sample.nanos)
+                .append(", \"heapBytes\": ").append(sample.heap)
+                .append(", \"generatedBytes\": ").append(sample.bytes).append('}');
+            separator = ",\n";
+        }
+        return json.append("\n  ],\n  \"exponents\": ").append(toExponents(exponents, "  ")).append("\n}\n").toString();
+    }
+
+    private static String toBaseline(Map<String, double[]> exponents) {
+        return toExponents(exponents, "") + "\n";
+    }
+
+    private static String toExponents(Map<String, double[]> exponents, String indent) {
+        StringBuilder json = new StringBuilder("{");
+        String separator = "\n";
+        for (Map.Entry<String, double[]> pair : exponents.entrySet()) {
+            json.append(separator).append(indent).append("  \"").append(pair.getKey()).append("\": {");
+            for (int m = 0; m < MEASURES.length; m++) {
+                json.append(m == 0 ? "" : ", ").append('"').append(MEASURES[m]).append("\": ")
+                    .append(String.format("%.3f", pair.getValue()[m]));
+            }
+            json.append('}');
+            separator = ",\n";
+        }
+        return json.append('\n').append(indent).append('}').toString();
+    }
+
+    private static Map<String, Map<String, Double>> readBaseline(File file) throws IOException {
+        Map<String, Map<String, Double>> baseline = new LinkedHashMap<>();
+        if (!file.isFile()) {
+            System.out.println("There is no baseline at " + file + ", nothing is compared");
+            return baseline;
+        }
+        Matcher entry = BASELINE_ENTRY.matcher(read(file));
+        while (entry.find()) {
+            Map<String, Double> values = new LinkedHashMap<>();
+            Matcher value = BASELINE_VALUE.matcher(entry.group(2));
+            while (value.find()) {
+                values.put(value.group(1), Double.valueOf(value.group(2)));
+            }
+            baseline.put(entry.group(1), values);
+        }
+        return baseline;
+    }
+
+    private static String read(File file) throws IOException {
+        StringBuilder content = new StringBuilder();
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            char[] buffer = new char[4096];
+            for (int read; (read = reader.read(buffer)) != -1; ) {
+                content.append(buffer, 0, read);
+            }
+        }
+        return content.toString();
+    }
+
+    private static void write(File file, String content) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs())
+            throw new IOException("Unable to create " + parent);
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(content);
+        }
+    }
+
+    /**
+     * counts the bytes of the generated sources and leaves javac an empty file for each
+     */
+    private static class CountingFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+        private long bytes;
+
+        private CountingFileManager(StandardJavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) throws IOException {
+            if (location != StandardLocation.SOURCE_OUTPUT)
+                return super.getJavaFileForOutput(location, className, kind, sibling);
+            return new SimpleJavaFileObject(URI.create("generated:///" + className.replace('.', '/') + kind.extension), kind) {
+                @Override
+                public OutputStream openOutputStream() {
+                    return new OutputStream() {
+                        @Override
+                        public void write(int b) {
+                            bytes++;
+                        }
+
+                        @Override
+                        public void write(byte[] b, int off, int len) {
+                            bytes += len;
+                        }
+                    };
+                }
+
+                @Override
+                public Writer openWriter() {
+                    return new OutputStreamWriter(openOutputStream(), StandardCharsets.UTF_8);
+                }
+
+                @Override
+                public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                    return "";
+                }
+            };
+        }
+    }
+
+    private static class Sample {
+        private final long nanos, heap, bytes;
+        private int size;
+
+        private Sample(long nanos, long heap, long bytes) {
+            this.nanos = nanos;
+            this.heap = heap;
+            this.bytes = bytes;
+        }
+    }
+}
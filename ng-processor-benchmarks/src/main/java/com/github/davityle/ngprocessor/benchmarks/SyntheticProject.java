@@ -0,0 +1,295 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Writes a synthetic NgAndroid project to disk: an android manifest, the NgAndroid annotations, a
+ * number of scopes each with two models, layouts that are bound to the scopes in turn, and a share of
+ * layouts without bindings like a real app has. The project only depends on its parameters so every
+ * run measures the same input.
+ */
+public class SyntheticProject {
+
+    public static final String PACKAGE = "com.example.synthetic";
+    public static final String NAMESPACE = "http://schemas.android.com/apk/res-auto";
+
+    /**
+     * expressions in the shapes the demo app and the tests use, from plain model fields to nested
+     * calls, ternaries and view references
+     */
+    public static final List<String> EXPRESSIONS = Collections.unmodifiableList(Arrays.asList(
+        "form.title",
+        "item.count",
+        "!item.visible",
+        "onSubmit(form.title)",
+        "onSelect(item.count, @id/viewA)",
+        "onClick($view)",
+        "form.title.length() < 3 || !item.enabled",
+        "item.enabled ? form.title : 'none'",
+        "item.count * 2 + 1 > item.amount",
+        "format(form.title, item.count) + ' of ' + form.text",
+        "item.enabled && (item.count > 10 || form.title.length() == 0)",
+        "describe(item.enabled ? form.title : form.text, item.amount / 100)"
+    ));
+
+    /**
+     * the expressions of {@link #EXPRESSIONS} that can be assigned to
+     */
+    public static final List<String> SETTABLE_EXPRESSIONS = Collections.unmodifiableList(Arrays.asList(
+        "form.title",
+        "form.text",
+        "item.count",
+        "item.enabled",
+        "item.amount"
+    ));
+
+    private static final String[] BOUND_VIEWS = {
+        "        <EditText\n            android:id=\"@+id/view%1$s\"\n            ng:ngModel=\"form.title\" />\n",
+        "        <TextView\n            android:id=\"@+id/view%1$s\"\n            ng:ngText=\"item.count\" />\n",
+        "        <Button\n            android:id=\"@+id/view%1$s\"\n            ng:ngClick=\"onSubmit(form.title)\"\n            ng:ngDisabled=\"form.title.length() &lt; 3 || !item.enabled\" />\n",
+        "        <View\n            android:id=\"@+id/view%1$s\"\n            ng:ngGone=\"!item.visible\" />\n",
+        "        <TextView\n            android:id=\"@+id/view%1$s\"\n            ng:ngText=\"item.enabled ? form.title : 'none'\"\n            ng:ngLongClick=\"onSelect(item.count, @id/view%1$s)\" />\n",
+        "        <CheckBox\n            android:id=\"@+id/view%1$s\"\n            ng:ngModel=\"item.enabled\" />\n",
+        "        <EditText\n            android:id=\"@+id/view%1$s\"\n            ng:ngModel=\"item.amount\"\n            ng:ngInvisible=\"!item.visible &amp;&amp; item.count &gt; 10\" />\n",
+        "        <TextView\n            android:id=\"@+id/view%1$s\"\n            ng:ngText=\"format(form.title, item.count)\" />\n",
+    };
+
+    /**
+     * the attributes a view gets when the number of bindings per view is set, in the order they are added
+     */
+    private static final String[] BINDINGS = {
+        "ng:ngModel=\"form.text\"",
+        "ng:ngText=\"form.title\"",
+        "ng:ngDisabled=\"!item.enabled\"",
+        "ng:ngGone=\"!item.visible\"",
+        "ng:ngInvisible=\"item.count &gt; 10\"",
+        "ng:ngFocus=\"item.enabled\"",
+        "ng:ngClick=\"onSubmit(form.title)\"",
+        "ng:ngLongClick=\"onSelect(item.count, @id/view%1$s)\"",
+    };
+
+    public static final int MAX_BINDINGS_PER_VIEW = BINDINGS.length;
+
+    private final int scopes;
+    private final int layouts;
+    private final int viewsPerLayout;
+    private final int bindingsPerView;
+
+    /**
+     * @param scopes the number of scopes, each gets its own layout
+     * @param viewsPerLayout the number of bound views in every layout, a third as many unbound views are added
+     */
+    public SyntheticProject(int scopes, int viewsPerLayout) {
+        this(scopes, scopes, viewsPerLayout, 0);
+    }
+
+    /**
+     * @param scopes the number of scopes
+     * @param layouts the number of bound layouts, layout i is bound to scope i modulo the number of scopes
+     * @param viewsPerLayout the number of bound views in every layout, a third as many unbound views are added
+     * @param bindingsPerView the number of attributes on every bound view, up to {@link #MAX_BINDINGS_PER_VIEW},
+     *                        or 0 for a mix of the views the demo app has
+     */
+    public SyntheticProject(int scopes, int layouts, int viewsPerLayout, int bindingsPerView) {
+        if (scopes < 1 || layouts < 0 || bindingsPerView < 0 || bindingsPerView > MAX_BINDINGS_PER_VIEW)
+            throw new IllegalArgumentException("Unable to generate " + scopes + " scopes, " + layouts + " layouts and " + bindingsPerView + " bindings per view");
+        this.scopes = scopes;
+        this.layouts = layouts;
+        this.viewsPerLayout = viewsPerLayout;
+        this.bindingsPerView = bindingsPerView;
+    }
+
+    /**
+     * writes the project under root, which is expected to be empty
+     */
+    public Files writeTo(File root) throws IOException {
+        File java = new File(root, "java");
+        File layoutDir = new File(root, "res" + File.separator + "layout");
+        File manifest = new File(root, "AndroidManifest.xml");
+        List<File> sources = new ArrayList<>();
+
+        write(manifest, "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n"
+            + "<manifest xmlns:android=\"http://schemas.android.com/apk/res/android\"\n"
+            + "    package=\"" + PACKAGE + "\">\n"
+            + "    <application />\n"
+            + "</manifest>\n");
+
+        sources.add(write(new File(java, "com/ngandroid/lib/annotations/NgScope.java"), ""
+            + "package com.ngandroid.lib.annotations;\n\n"
+            + "@java.lang.annotation.Target(java.lang.annotation.ElementType.TYPE)\n"
+            + "public @interface NgScope {\n    String name();\n}\n"));
+        sources.add(write(new File(java, "com/ngandroid/lib/annotations/NgModel.java"), ""
+            + "package com.ngandroid.lib.annotations;\n\n"
+            + "@java.lang.annotation.Target(java.lang.annotation.ElementType.FIELD)\n"
+            + "public @interface NgModel {\n}\n"));
+
+        String packagePath = PACKAGE.replace('.', '/');
+        for (int i = 0; i < scopes; i++) {
+            sources.add(write(new File(java, packagePath + "/scope/Scope" + i + ".java"), scope(i)));
+            sources.add(write(new File(java, packagePath + "/model/Form" + i + ".java"), model("Form" + i,
+                "String title", "String text")));
+            sources.add(write(new File(java, packagePath + "/model/Item" + i + ".java"), model("Item" + i,
+                "int count", "boolean enabled", "boolean visible", "double amount")));
+        }
+        for (int i = 0; i < layouts; i++) {
+            write(new File(layoutDir, "scope_" + i + ".xml"), layout(i));
+            if (i % 3 == 0) {
+                write(new File(layoutDir, "plain_" + i + ".xml"), plainLayout());
+            }
+        }
+        return new Files(manifest, layoutDir, sources);
+    }
+
+    private String scope(int index) {
+        return "package " + PACKAGE + ".scope;\n\n"
+            + "import com.ngandroid.lib.annotations.NgModel;\n"
+            + "import com.ngandroid.lib.annotations.NgScope;\n"
+            + "import " + PACKAGE + ".model.Form" + index + ";\n"
+            + "import " + PACKAGE + ".model.Item" + index + ";\n\n"
+            + "@NgScope(name=\"Scope" + index + "\")\n"
+            + "public class Scope" + index + " {\n\n"
+            + "    @NgModel\n    Form" + index + " form;\n\n"
+            + "    @NgModel\n    Item" + index + " item;\n\n"
+            + "    void onSubmit(String title) {}\n\n"
+            + "    void onSelect(int position, int viewId) {}\n\n"
+            + "    String format(String title, int count) {\n        return title + count;\n    }\n"
+            + "}\n";
+    }
+
+    private String model(String name, String... fields) {
+        StringBuilder source = new StringBuilder()
+            .append("package ").append(PACKAGE).append(".model;\n\n")
+            .append("public class ").append(name).append(" {\n");
+        for (String field : fields) {
+            source.append("    private ").append(field).append(";\n");
+        }
+        for (String field : fields) {
+            String type = field.substring(0, field.indexOf(' '));
+            String fieldName = field.substring(field.indexOf(' ') + 1);
+            String property = Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+            source.append("\n    public ").append(type).append(" get").append(property).append("() {\n")
+                .append("        return ").append(fieldName).append(";\n    }\n")
+                .append("\n    public void set").append(property).append('(').append(field).append(") {\n")
+                .append("        this.").append(fieldName).append(" = ").append(fieldName).append(";\n    }\n");
+        }
+        return source.append("}\n").toString();
+    }
+
+    private String layout(int index) {
+        StringBuilder layout = new StringBuilder()
+            .append("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n")
+            .append("<LinearLayout xmlns:android=\"http://schemas.android.com/apk/res/android\"\n")
+            .append("    xmlns:ng=\"").append(NAMESPACE).append("\"\n")
+            .append("    android:orientation=\"vertical\"\n")
+            .append("    ng:ngScope=\"Scope").append(index % scopes).append("\">\n\n")
+            .append("    <LinearLayout\n        android:orientation=\"horizontal\">\n\n");
+        for (int view = 0; view < viewsPerLayout; view++) {
+            layout.append(bindingsPerView == 0 ? String.format(BOUND_VIEWS[view % BOUND_VIEWS.length], viewId(view)) : boundView(view)).append('\n');
+            if (view % 3 == 2) {
+                layout.append("        <ImageView\n            android:src=\"@drawable/divider\" />\n\n");
+            }
+        }
+        return layout.append("    </LinearLayout>\n</LinearLayout>\n").toString();
+    }
+
+    private String boundView(int view) {
+        StringBuilder element = new StringBuilder("        <EditText\n            android:id=\"@+id/view%1$s\"");
+        for (int binding = 0; binding < bindingsPerView; binding++) {
+            element.append("\n            ").append(BINDINGS[binding]);
+        }
+        return String.format(element.append(" />\n").toString(), viewId(view));
+    }
+
+    /**
+     * view ids are letters only, the expression tokenizer doesn't take digits in an id reference
+     */
+    private static String viewId(int view) {
+        StringBuilder id = new StringBuilder();
+        do {
+            id.insert(0, (char) ('A' + view % 26));
+            view = view / 26 - 1;
+        } while (view >= 0);
+        return id.toString();
+    }
+
+    private String plainLayout() {
+        return "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n"
+            + "<FrameLayout xmlns:android=\"http://schemas.android.com/apk/res/android\"\n"
+            + "    android:layout_width=\"match_parent\"\n"
+            + "    android:layout_height=\"wrap_content\">\n\n"
+            + "    <TextView\n        android:id=\"@+id/title\"\n        android:text=\"@string/app_name\" />\n\n"
+            + "</FrameLayout>\n";
+    }
+
+    private static File write(File file, String content) throws IOException {
+        File parent = file.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs())
+            throw new IOException("Unable to create " + parent);
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(content);
+        }
+        return file;
+    }
+
+    /**
+     * deletes a directory written by {@link #writeTo(File)} or used as the output of a benchmark
+     */
+    public static void delete(File file) {
+        File[] kids = file.listFiles();
+        if (kids != null) {
+            for (File kid : kids) {
+                delete(kid);
+            }
+        }
+        file.delete();
+    }
+
+    public static class Files {
+        private final File manifest;
+        private final File layoutDir;
+        private final List<File> sources;
+
+        private Files(File manifest, File layoutDir, List<File> sources) {
+            this.manifest = manifest;
+            this.layoutDir = layoutDir;
+            this.sources = sources;
+        }
+
+        public File getManifest() {
+            return manifest;
+        }
+
+        public File getLayoutDir() {
+            return layoutDir;
+        }
+
+        public List<File> getSources() {
+            return sources;
+        }
+    }
+}
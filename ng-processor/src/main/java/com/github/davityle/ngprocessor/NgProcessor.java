@@ -20,6 +20,7 @@ import com.github.davityle.ngprocessor.deps.DaggerDependencyComponent;
 import com.github.davityle.ngprocessor.deps.DependencyComponent;
 import com.github.davityle.ngprocessor.deps.LayoutModule;
 import com.github.davityle.ngprocessor.finders.DefaultLayoutDirProvider;
+import com.github.davityle.ngprocessor.finders.OptionsHelper;
 import com.github.davityle.ngprocessor.map.LayoutScopeMapper;
 import com.github.davityle.ngprocessor.model.Layout;
 import com.github.davityle.ngprocessor.model.Scope;
@@ -33,13 +34,17 @@ import com.github.davityle.ngprocessor.util.ElementUtils;
 import com.github.davityle.ngprocessor.util.ManifestPackageUtils;
 import com.github.davityle.ngprocessor.util.MessageUtils;
 import com.github.davityle.ngprocessor.util.Option;
+import com.github.davityle.ngprocessor.util.ProcessorTimings;
 import com.github.davityle.ngprocessor.util.ScopeUtils;
 import com.github.davityle.ngprocessor.util.Tuple;
 import com.github.davityle.ngprocessor.xml.XmlScope;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -67,7 +72,11 @@ public class NgProcessor extends AbstractProcessor {
 
     private final DaggerDependencyComponent.Builder dependencyComponentBuilder;
     private final Option<EnvironmentResolver> envModule;
+    private final Set<Layout> generatedLayouts = new HashSet<>();
+    private final Set<String> generatedModels = new HashSet<>();
     private DependencyComponent dependencyComponent;
+    private Option<String> manifestPackageName;
+    private Map<Layout, Collection<XmlScope>> xmlScopes;
     private ProcessingEnvironment env;
     private RoundEnvironment roundEnv;
 
@@ -93,8 +102,21 @@ public class NgProcessor extends AbstractProcessor {
     public synchronized void init(ProcessingEnvironment env) {
         super.init(env);
         this.env = env;
+        this.dependencyComponent = null;
+        this.manifestPackageName = null;
+        this.xmlScopes = null;
+        this.generatedLayouts.clear();
+        this.generatedModels.clear();
     }
 
+    /**
+     * The dependency graph, the manifest package and the scopes of the layouts are created by the
+     * first round that has our annotations and kept for the rest of the compilation. Later rounds
+     * only see the elements generated since, so they add their scopes and models without looking at
+     * the manifest or the layouts again, and layouts are only ever generated once. Everything else the
+     * graph holds is for a single round, so the element caches, the timings and the error count are
+     * cleared at the start of each later one.
+     */
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
         this.roundEnv = roundEnv;
@@ -102,34 +124,72 @@ public class NgProcessor extends AbstractProcessor {
             return false;
 
         try {
-            this.dependencyComponent = dependencyComponentBuilder
-                    .environmentModule(new EnvironmentModule(envModule.getOrElse(new ResolverImpl())))
-                    .build();
+            if (dependencyComponent == null) {
+                this.dependencyComponent = dependencyComponentBuilder
+                        .environmentModule(new EnvironmentModule(envModule.getOrElse(new ResolverImpl())))
+                        .build();
+            } else {
+                dependencyComponent.createMessageUtils().clearErrors();
+                dependencyComponent.elementUtils().clear();
+                dependencyComponent.visitors().clear();
+                dependencyComponent.timings().clear();
+            }
             final MessageUtils messageUtils = dependencyComponent.createMessageUtils();
 
             messageUtils.note(Option.<Element>absent(), ":NgAndroid:processing");
 
-            Option<String> manifestPackageName = getPackageNameFromAndroidManifest();
+            final ProcessorTimings timings = dependencyComponent.timings();
+
+            ProcessorTimings.Sample start;
+            if (manifestPackageName == null) {
+                start = timings.start();
+                manifestPackageName = getPackageNameFromAndroidManifest();
+                timings.phase("manifest", start);
 
-            if (manifestPackageName.isAbsent()) {
-                messageUtils.error(Option.<Element>absent(), ":NgAndroid:Unable to find android manifest.");
+                if (manifestPackageName.isAbsent()) {
+                    messageUtils.error(Option.<Element>absent(), ":NgAndroid:Unable to find android manifest.");
+                    return false;
+                }
+            } else if (manifestPackageName.isAbsent()) {
                 return false;
             }
 
+            start = timings.start();
             Set<Scope> scopes = getScopeSet(annotations);
-            Map<Layout, Collection<XmlScope>> xmlScopes = getXmlScopes();
+            timings.phase("scopes", start);
+
+            if (xmlScopes == null) {
+                start = timings.start();
+                xmlScopes = getXmlScopes();
+                timings.phase("layouts", start);
+            }
 
             if (messageUtils.hasErrors())
                 return false;
 
-            Map<Layout, Collection<Scope>> layoutsWScopes = mapLayoutsToScopes(scopes, xmlScopes);
+            start = timings.start();
+            Map<Layout, Collection<Scope>> layoutsWScopes = getUngeneratedLayouts(mapLayoutsToScopes(scopes, xmlScopes));
+            timings.phase("mapping", start);
+
+            if (messageUtils.hasErrors())
+                return false;
+
+            start = timings.start();
             Collection<LayoutSourceLink> layoutSourceLinks = getLayoutSourceLinks(layoutsWScopes, manifestPackageName.get());
 
             Collection<ScopeSourceLink> scopeSourceLinks = getScopeSourceLinks(scopes, manifestPackageName.get());
-            List<NgModelSourceLink> modelSourceLinks = getModelSourceLinks(getModels(annotations));
+            List<NgModelSourceLink> modelSourceLinks = getUngeneratedModels(getModelSourceLinks(getModels(annotations)));
+            timings.phase("links", start);
 
+            start = timings.start();
             createSourceFiles(modelSourceLinks, layoutSourceLinks, scopeSourceLinks);
+            generatedLayouts.addAll(layoutsWScopes.keySet());
+            for (NgModelSourceLink modelSourceLink : modelSourceLinks) {
+                generatedModels.add(modelSourceLink.getSourceFileName());
+            }
+            timings.phase("sources", start);
 
+            timings.report();
             messageUtils.note(Option.<Element>absent(), ":NgAndroid:finished");
             return true;
         } catch (Throwable t) {
@@ -140,6 +200,44 @@ public class NgProcessor extends AbstractProcessor {
         }
     }
 
+    /**
+     * drops the layouts an earlier round already generated, a layout can't be generated again so a
+     * scope that appears after its layout was generated is an error
+     */
+    private Map<Layout, Collection<Scope>> getUngeneratedLayouts(Map<Layout, Collection<Scope>> layoutsWScopes) {
+        if (generatedLayouts.isEmpty())
+            return layoutsWScopes;
+
+        MessageUtils messageUtils = dependencyComponent.createMessageUtils();
+        Map<Layout, Collection<Scope>> ungenerated = new LinkedHashMap<>();
+        for (Map.Entry<Layout, Collection<Scope>> layout : layoutsWScopes.entrySet()) {
+            if (!generatedLayouts.contains(layout.getKey())) {
+                ungenerated.put(layout.getKey(), layout.getValue());
+                continue;
+            }
+            for (Scope scope : layout.getValue()) {
+                messageUtils.error(Option.of(scope.getJavaElement()), "Unable to bind Scope '%s' to layout '%s' because the layout was generated in an earlier round", scope.getName(), layout.getKey().getFileName());
+            }
+        }
+        return ungenerated;
+    }
+
+    /**
+     * a model used by a scope of a later round keeps the source an earlier round generated for it
+     */
+    private List<NgModelSourceLink> getUngeneratedModels(List<NgModelSourceLink> modelSourceLinks) {
+        if (generatedModels.isEmpty())
+            return modelSourceLinks;
+
+        List<NgModelSourceLink> ungenerated = new ArrayList<>();
+        for (NgModelSourceLink modelSourceLink : modelSourceLinks) {
+            if (!generatedModels.contains(modelSourceLink.getSourceFileName())) {
+                ungenerated.add(modelSourceLink);
+            }
+        }
+        return ungenerated;
+    }
+
     private Map<Layout, Collection<Scope>> mapLayoutsToScopes(Set<Scope> scopes, Map<Layout, Collection<XmlScope>> xmlScopes){
         LayoutScopeMapper layoutScopeMapper = new LayoutScopeMapper(scopes, xmlScopes);
         dependencyComponent.inject(layoutScopeMapper);
@@ -196,6 +294,11 @@ public class NgProcessor extends AbstractProcessor {
     }
 
 
+    @Override
+    public Set<String> getSupportedOptions() {
+        return OptionsHelper.getSupportedOptions();
+    }
+
     @Override
     public SourceVersion getSupportedSourceVersion() {
         return SourceVersion.latestSupported();
@@ -0,0 +1,297 @@
+package com.github.davityle.ngprocessor.attrcompiler;
+
+import com.github.davityle.ngprocessor.attrcompiler.node.AVisitor;
+import com.github.davityle.ngprocessor.attrcompiler.node.BinaryOperator;
+import com.github.davityle.ngprocessor.attrcompiler.node.Expression;
+import com.github.davityle.ngprocessor.attrcompiler.node.FunctionCall;
+import com.github.davityle.ngprocessor.attrcompiler.node.Node;
+import com.github.davityle.ngprocessor.attrcompiler.node.NumberConstant;
+import com.github.davityle.ngprocessor.attrcompiler.node.ObjectField;
+import com.github.davityle.ngprocessor.attrcompiler.node.StringLiteral;
+import com.github.davityle.ngprocessor.attrcompiler.node.TernaryOperator;
+import com.github.davityle.ngprocessor.attrcompiler.node.UnaryOperator;
+import com.github.davityle.ngprocessor.attrcompiler.node.XmlValue;
+import com.github.davityle.ngprocessor.attrcompiler.parse.TokenType;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Evaluates the operators whose operands are all constants, the same way javac would, so that the
+ * generated code uses their result instead of computing it every time a binding is invoked. Anything
+ * that javac wouldn't treat as a constant (string equality, division by zero, results that can't be
+ * written as a literal) is left alone.
+ *
+ * An expression that doesn't reference the scope, a view or a function is static, it has the same
+ * value every time so it doesn't need to be observed.
+ */
+public class ConstantFoldVisitor extends AVisitor {
+
+    private final Map<Node, Object> folded = new IdentityHashMap<>();
+    private boolean isStatic = true;
+    private Object value;
+
+    ConstantFoldVisitor() {
+    }
+
+    public static ConstantFoldVisitor fold(Node node) {
+        ConstantFoldVisitor visitor = new ConstantFoldVisitor();
+        node.accept(visitor);
+        return visitor;
+    }
+
+    /**
+     * @return the value of an operator whose operands are all constants, or null if it isn't one
+     */
+    public Object getValue(Node node) {
+        return folded.isEmpty() ? null : folded.get(node);
+    }
+
+    public boolean isStatic() {
+        return isStatic;
+    }
+
+    /**
+     * @return the java literal of a folded value
+     */
+    public static String toSource(Object value) {
+        if (value instanceof String) {
+            return quote((String) value);
+        }
+        if (value instanceof Double) {
+            double d = (Double) value;
+            return Double.doubleToRawLongBits(d) < 0 ? "(" + d + ")" : Double.toString(d);
+        }
+        if (value instanceof Integer) {
+            int i = (Integer) value;
+            return i < 0 ? "(" + i + ")" : Integer.toString(i);
+        }
+        return value.toString();
+    }
+
+    @Override
+    public void visit(Node node) {
+        // identifiers, functions and special identifiers all depend on something outside of the expression
+        isStatic = false;
+        value = null;
+    }
+
+    @Override
+    public void visit(NumberConstant node) {
+        String script = node.getToken().getScript();
+        try {
+            value = node.getToken().getTokenType() == TokenType.INT_CONSTANT ? (Object) Integer.parseInt(script) : (Object) Double.parseDouble(script);
+        } catch (NumberFormatException e) {
+            value = null;
+        }
+    }
+
+    @Override
+    public void visit(StringLiteral node) {
+        value = unquote(node.toJavaString());
+    }
+
+    @Override
+    public void visit(XmlValue node) {
+        // a resource id, static but only known once the resources are compiled
+        value = null;
+    }
+
+    @Override
+    public void visit(ObjectField node) {
+        node.getLHS().accept(this);
+        visit((Node) node);
+    }
+
+    @Override
+    public void visit(FunctionCall node) {
+        node.getLHS().accept(this);
+        for (Expression parameter : node.getParameters()) {
+            parameter.accept(this);
+        }
+        visit((Node) node);
+    }
+
+    @Override
+    public void visit(BinaryOperator node) {
+        node.getLHS().accept(this);
+        Object lhs = value;
+        node.getRHS().accept(this);
+        Object rhs = value;
+        value = lhs == null || rhs == null ? null : binary(node.getToken().getScript(), lhs, rhs);
+        record(node);
+    }
+
+    @Override
+    public void visit(UnaryOperator node) {
+        node.getRHS().accept(this);
+        Object rhs = value;
+        value = null;
+        if ("!".equals(node.getToken().getScript())) {
+            if (rhs instanceof Boolean)
+                value = !(Boolean) rhs;
+        } else if (rhs instanceof Integer) {
+            value = -(Integer) rhs;
+        } else if (rhs instanceof Double) {
+            value = -(Double) rhs;
+        }
+        record(node);
+    }
+
+    @Override
+    public void visit(TernaryOperator node) {
+        node.getCondition().accept(this);
+        Object condition = value;
+        node.getIfTrue().accept(this);
+        Object ifTrue = value;
+        node.getIfFalse().accept(this);
+        Object ifFalse = value;
+
+        value = null;
+        if (condition instanceof Boolean && ifTrue != null && ifFalse != null) {
+            if (isNumber(ifTrue) && isNumber(ifFalse)) {
+                // both branches are promoted to the wider type
+                Object result = (Boolean) condition ? ifTrue : ifFalse;
+                value = ifTrue instanceof Double || ifFalse instanceof Double ? (Object) ((Number) result).doubleValue() : result;
+            } else if (ifTrue.getClass() == ifFalse.getClass()) {
+                value = (Boolean) condition ? ifTrue : ifFalse;
+            }
+        }
+        record(node);
+    }
+
+    private void record(Node node) {
+        if (value instanceof Double && (((Double) value).isNaN() || ((Double) value).isInfinite())) {
+            // there is no literal for these
+            value = null;
+        }
+        if (value != null) {
+            folded.put(node, value);
+        }
+    }
+
+    private static Object binary(String operator, Object lhs, Object rhs) {
+        if ("+".equals(operator) && (lhs instanceof String || rhs instanceof String)) {
+            return String.valueOf(lhs) + rhs;
+        }
+        if (lhs instanceof Boolean && rhs instanceof Boolean) {
+            boolean l = (Boolean) lhs, r = (Boolean) rhs;
+            switch (operator) {
+                case "&&": return l && r;
+                case "||": return l || r;
+                case "==": return l == r;
+                case "!=": return l != r;
+                default: return null;
+            }
+        }
+        if (!isNumber(lhs) || !isNumber(rhs)) {
+            return null;
+        }
+        if (lhs instanceof Double || rhs instanceof Double) {
+            double l = ((Number) lhs).doubleValue(), r = ((Number) rhs).doubleValue();
+            switch (operator) {
+                case "*": return l * r;
+                case "/": return l / r;
+                case "+": return l + r;
+                case "-": return l - r;
+                case "==": return l == r;
+                case "!=": return l != r;
+                case "<": return l < r;
+                case ">": return l > r;
+                case "<=": return l <= r;
+                case ">=": return l >= r;
+                default: return null;
+            }
+        }
+        int l = (Integer) lhs, r = (Integer) rhs;
+        switch (operator) {
+            case "*": return l * r;
+            case "/": return r == 0 ? null : (Object) (l / r);
+            case "+": return l + r;
+            case "-": return l - r;
+            case "==": return l == r;
+            case "!=": return l != r;
+            case "<": return l < r;
+            case ">": return l > r;
+            case "<=": return l <= r;
+            case ">=": return l >= r;
+            default: return null;
+        }
+    }
+
+    private static boolean isNumber(Object value) {
+        return value instanceof Integer || value instanceof Double;
+    }
+
+    /**
+     * @return the value of a java string literal, or null if it has an escape that isn't valid java
+     */
+    private static String unquote(String literal) {
+        StringBuilder result = new StringBuilder(literal.length());
+        for (int i = 1; i < literal.length() - 1; i++) {
+            char c = literal.charAt(i);
+            if (c != '\\') {
+                result.append(c);
+                continue;
+            }
+            if (++i >= literal.length() - 1)
+                return null;
+            c = literal.charAt(i);
+            switch (c) {
+                case 'b': result.append('\b'); break;
+                case 't': result.append('\t'); break;
+                case 'n': result.append('\n'); break;
+                case 'f': result.append('\f'); break;
+                case 'r': result.append('\r'); break;
+                case '"': case '\'': case '\\': result.append(c); break;
+                case 'u': {
+                    while (i < literal.length() - 1 && literal.charAt(i) == 'u')
+                        i++;
+                    if (i + 4 > literal.length() - 1)
+                        return null;
+                    try {
+                        result.append((char) Integer.parseInt(literal.substring(i, i + 4), 16));
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                    i += 3;
+                    break;
+                }
+                default: {
+                    if (c < '0' || c > '7')
+                        return null;
+                    int end = i + (c <= '3' ? 3 : 2);
+                    int octal = 0;
+                    for (; i < end && i < literal.length() - 1 && literal.charAt(i) >= '0' && literal.charAt(i) <= '7'; i++) {
+                        octal = octal * 8 + literal.charAt(i) - '0';
+                    }
+                    i--;
+                    result.append((char) octal);
+                }
+            }
+        }
+        return result.toString();
+    }
+
+    private static String quote(String value) {
+        StringBuilder result = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': result.append("\\\""); break;
+                case '\\': result.append("\\\\"); break;
+                case '\n': result.append("\\n"); break;
+                case '\r': result.append("\\r"); break;
+                case '\t': result.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        // unicode escapes are translated before the literal is read so they can't be used for line breaks
+                        result.append(String.format("\\%03o", (int) c));
+                    } else {
+                        result.append(c);
+                    }
+            }
+        }
+        return result.append('"').toString();
+    }
+}
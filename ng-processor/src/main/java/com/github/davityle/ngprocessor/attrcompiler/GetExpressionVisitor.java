@@ -16,24 +16,49 @@ import com.github.davityle.ngprocessor.attrcompiler.node.XmlValue;
 import com.github.davityle.ngprocessor.source.SourceField;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.function.Consumer;
 
 public class GetExpressionVisitor extends AVisitor {
     private StringBuilder result;
     private final String prependage, xmlValuePrependage;
+    private final ConstantFoldVisitor constants;
+    private final Map<String, String> paths;
 
-    GetExpressionVisitor(String prependage, String xmlValuePrependage) {
+    GetExpressionVisitor(String prependage, String xmlValuePrependage, ConstantFoldVisitor constants, Map<String, String> paths) {
         this.xmlValuePrependage = xmlValuePrependage;
         this.result = new StringBuilder();
         this.prependage = prependage;
+        this.constants = constants;
+        this.paths = paths;
     }
 
     public static String generateGetExpression(Node node, String value, String xmlValuePrependage) {
-        GetExpressionVisitor visitor = new GetExpressionVisitor(value, xmlValuePrependage);
+        return generateGetExpression(node, null, null, value, xmlValuePrependage);
+    }
+
+    public static String generateGetExpression(Node node, ConstantFoldVisitor constants, String value, String xmlValuePrependage) {
+        return generateGetExpression(node, constants, null, value, xmlValuePrependage);
+    }
+
+    /**
+     * @param constants the folded operators of the expression, written as their value, or null to write the expression as is
+     * @param paths the source to read model paths with instead of their getters, keyed as in {@link ModelPathVisitor}, or null
+     */
+    public static String generateGetExpression(Node node, ConstantFoldVisitor constants, Map<String, String> paths, String value, String xmlValuePrependage) {
+        GetExpressionVisitor visitor = new GetExpressionVisitor(value, xmlValuePrependage, constants, paths);
         node.accept(visitor);
         return visitor.result.toString();
     }
 
+    private boolean appendConstant(Node node) {
+        Object value = constants == null ? null : constants.getValue(node);
+        if (value == null)
+            return false;
+        result.append(ConstantFoldVisitor.toSource(value));
+        return true;
+    }
+
     @Override
     public void visit(Node node) {
         result.append(node.getToken().getScript());
@@ -46,6 +71,8 @@ public class GetExpressionVisitor extends AVisitor {
 
     @Override
     public void visit(BinaryOperator node) {
+        if (appendConstant(node))
+            return;
         result.append('(');
         node.getLHS().accept(this);
         result.append(node.getToken().getScript());
@@ -55,6 +82,13 @@ public class GetExpressionVisitor extends AVisitor {
 
     @Override
     public void visit(ObjectField node) {
+        if (paths != null) {
+            String path = paths.get(ModelPathVisitor.getKey(node));
+            if (path != null) {
+                result.append(path);
+                return;
+            }
+        }
         node.getLHS().accept(this);
         result.append('.');
         result.append("get");
@@ -100,6 +134,8 @@ public class GetExpressionVisitor extends AVisitor {
 
     @Override
     public void visit(TernaryOperator node) {
+        if (appendConstant(node))
+            return;
         result.append('(');
         node.getCondition().accept(this);
         result.append(')');
@@ -115,6 +151,8 @@ public class GetExpressionVisitor extends AVisitor {
 
     @Override
     public void visit(UnaryOperator node) {
+        if (appendConstant(node))
+            return;
         result.append(node.getToken().getScript());
         node.getRHS().accept(this);
     }
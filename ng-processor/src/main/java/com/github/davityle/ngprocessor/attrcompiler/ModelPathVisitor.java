@@ -0,0 +1,86 @@
+package com.github.davityle.ngprocessor.attrcompiler;
+
+import com.github.davityle.ngprocessor.attrcompiler.node.AVisitor;
+import com.github.davityle.ngprocessor.attrcompiler.node.BinaryOperator;
+import com.github.davityle.ngprocessor.attrcompiler.node.Expression;
+import com.github.davityle.ngprocessor.attrcompiler.node.FunctionCall;
+import com.github.davityle.ngprocessor.attrcompiler.node.FunctionName;
+import com.github.davityle.ngprocessor.attrcompiler.node.Identifier;
+import com.github.davityle.ngprocessor.attrcompiler.node.Node;
+import com.github.davityle.ngprocessor.attrcompiler.node.ObjectField;
+import com.github.davityle.ngprocessor.attrcompiler.node.TernaryOperator;
+import com.github.davityle.ngprocessor.attrcompiler.node.UnaryOperator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Finds the model fields an expression reads, the {@code model.field} paths that bindings of a
+ * layout can share. Paths are keyed by their text, the first node of each is kept.
+ */
+public class ModelPathVisitor extends AVisitor {
+
+    private final Map<String, Node> paths = new LinkedHashMap<>();
+
+    ModelPathVisitor() {
+    }
+
+    public static Map<String, Node> getPaths(Node node) {
+        ModelPathVisitor visitor = new ModelPathVisitor();
+        node.accept(visitor);
+        return visitor.paths;
+    }
+
+    /**
+     * @return the key of a path, or null if the field isn't read directly from a model of the scope
+     */
+    public static String getKey(ObjectField node) {
+        if (!(node.getLHS() instanceof Identifier))
+            return null;
+        return node.getLHS().getToken().getScript() + '.' + node.getToken().getScript();
+    }
+
+    @Override
+    public void visit(Node node) {}
+
+    @Override
+    public void visit(ObjectField node) {
+        String key = getKey(node);
+        if (key == null) {
+            node.getLHS().accept(this);
+        } else if (!paths.containsKey(key)) {
+            paths.put(key, node);
+        }
+    }
+
+    @Override
+    public void visit(FunctionName node) {
+        node.getLHS().accept(this);
+    }
+
+    @Override
+    public void visit(FunctionCall node) {
+        node.getLHS().accept(this);
+        for (Expression parameter : node.getParameters()) {
+            parameter.accept(this);
+        }
+    }
+
+    @Override
+    public void visit(BinaryOperator node) {
+        node.getLHS().accept(this);
+        node.getRHS().accept(this);
+    }
+
+    @Override
+    public void visit(UnaryOperator node) {
+        node.getRHS().accept(this);
+    }
+
+    @Override
+    public void visit(TernaryOperator node) {
+        node.getCondition().accept(this);
+        node.getIfTrue().accept(this);
+        node.getIfFalse().accept(this);
+    }
+}
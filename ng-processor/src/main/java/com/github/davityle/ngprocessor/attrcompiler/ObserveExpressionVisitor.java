@@ -11,20 +11,36 @@ import com.github.davityle.ngprocessor.attrcompiler.node.ObjectField;
 import com.github.davityle.ngprocessor.attrcompiler.node.TernaryOperator;
 import com.github.davityle.ngprocessor.attrcompiler.node.UnaryOperator;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Finds the models an expression reads and the fields of each that it observes. The observer source
+ * registers an observer with every one of them, one statement per model read.
+ */
 public class ObserveExpressionVisitor extends AVisitor {
 
-    private final String value, prependage;
-    private final StringBuilder result = new StringBuilder();
+    private final List<Observation> observations = new ArrayList<>();
 
-    ObserveExpressionVisitor(String value, String prependage) {
-        this.value = value;
-        this.prependage = prependage;
+    ObserveExpressionVisitor() {
     }
 
-    public static String generateObserveExpression(Node target, String value, String prependage) {
-        ObserveExpressionVisitor visitor = new ObserveExpressionVisitor(value, prependage);
+    public static List<Observation> getObservations(Node target) {
+        ObserveExpressionVisitor visitor = new ObserveExpressionVisitor();
         target.accept(visitor);
-        return visitor.result.toString();
+        return visitor.observations.isEmpty() ? Collections.<Observation>emptyList() : Collections.unmodifiableList(visitor.observations);
+    }
+
+    public static String generateObserveExpression(Node target, String value, String prependage) {
+        StringBuilder result = new StringBuilder();
+        for (Observation observation : getObservations(target)) {
+            if (result.length() > 0) {
+                result.append(";\n");
+            }
+            result.append(observation.getSource(value, prependage));
+        }
+        return result.toString();
     }
 
     @Override
@@ -32,24 +48,15 @@ public class ObserveExpressionVisitor extends AVisitor {
 
     @Override
     public void visit(Identifier node) {
-        if(result.length() > 0) {
-            result.append(";\n");
-        }
-        result.append(prependage != null ? prependage : "");
-        result.append("get");
-        result.append(node.getToken().getScript());
-        result.append("()");
+        observations.add(new Observation(node.getToken().getScript()));
     }
 
     @Override
     public void visit(ObjectField node) {
         node.getLHS().accept(this);
-        result.append('.');
-        result.append("add");
-        result.append(node.getToken().getScript());
-        result.append("Observer(");
-        result.append(value);
-        result.append(")");
+        if (!observations.isEmpty()) {
+            observations.get(observations.size() - 1).fields.add(node.getToken().getScript());
+        }
     }
 
     public void visit(FunctionName node) {
@@ -81,4 +88,45 @@ public class ObserveExpressionVisitor extends AVisitor {
         node.getLHS().accept(this);
         node.getRHS().accept(this);
     }
+
+    /**
+     * a model the expression reads, along with the fields of it that are observed
+     */
+    public static final class Observation {
+        private final String model;
+        private final List<String> fields = new ArrayList<>(1);
+
+        private Observation(String model) {
+            this.model = model;
+        }
+
+        public String getModel() {
+            return model;
+        }
+
+        public List<String> getFields() {
+            return Collections.unmodifiableList(fields);
+        }
+
+        /**
+         * whether an observer is registered, a model that is only read, such as the target of a
+         * function call, isn't observed
+         */
+        public boolean isObserved() {
+            return !fields.isEmpty();
+        }
+
+        /**
+         * the statement that registers the observer, without a semicolon
+         */
+        public String getSource(String value, String prependage) {
+            StringBuilder source = new StringBuilder();
+            source.append(prependage != null ? prependage : "");
+            source.append("get").append(model).append("()");
+            for (String field : fields) {
+                source.append(".add").append(field).append("Observer(").append(value).append(")");
+            }
+            return source.toString();
+        }
+    }
 }
@@ -9,16 +9,15 @@ import com.github.davityle.ngprocessor.attrcompiler.node.Node;
 import com.github.davityle.ngprocessor.attrcompiler.node.ObjectField;
 import com.github.davityle.ngprocessor.attrcompiler.node.TernaryOperator;
 import com.github.davityle.ngprocessor.attrcompiler.node.UnaryOperator;
-import com.github.davityle.ngprocessor.util.CollectionUtils;
 import com.github.davityle.ngprocessor.util.ElementUtils;
 import com.github.davityle.ngprocessor.util.Option;
 import com.github.davityle.ngprocessor.util.PrimitiveUtils;
 import com.github.davityle.ngprocessor.util.TypeUtils;
 
-import java.util.ArrayList;
 import java.util.Stack;
 
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
 
 public class TypeCheckVisitor extends AVisitor {
 
@@ -28,6 +27,7 @@ public class TypeCheckVisitor extends AVisitor {
     private final Element element;
     private final Stack<Element> elementStack = new Stack<>();
     private String type = "";
+    private boolean isDeclared;
 
 
     public TypeCheckVisitor(TypeUtils typeUtils, ElementUtils elementUtils, PrimitiveUtils primitiveUtils, Element element){
@@ -49,6 +49,20 @@ public class TypeCheckVisitor extends AVisitor {
         }
     }
 
+    /**
+     * @return the type of the field the expression reads as it is declared, or an empty string if it
+     * isn't a field or has type arguments, which {@link ElementUtils#getTypeName(Element)} drops
+     */
+    public static String getDeclaredType(Node target, Element element, TypeUtils typeUtils, ElementUtils elementUtils, PrimitiveUtils primitiveUtils) {
+        try {
+            TypeCheckVisitor visitor = new TypeCheckVisitor(typeUtils, elementUtils, primitiveUtils, element);
+            target.accept(visitor);
+            return visitor.isDeclared ? visitor.type : "";
+        }catch(Exception e) {
+            return "";
+        }
+    }
+
     public void visit(BinaryOperator node) {
         node.getLHS().accept(this);
         node.getRHS().accept(this);
@@ -74,6 +88,7 @@ public class TypeCheckVisitor extends AVisitor {
         Option<Element> match = matchingElement(node);
         if(match.isPresent()) {
             type = elementUtils.getTypeName(match.get());
+            isDeclared = match.get().getKind() == ElementKind.FIELD && match.get().asType().toString().indexOf('<') == -1;
         }
     }
 
@@ -91,12 +106,7 @@ public class TypeCheckVisitor extends AVisitor {
     }
 
     public Option<Element> matchingElement(final Node node) {
-        return CollectionUtils.cl().find(new ArrayList<>(elementStack.peek().getEnclosedElements()), new CollectionUtils.Function<Element, Boolean>() {
-            @Override
-            public Boolean apply(Element o) {
-                return o.getSimpleName().toString().toLowerCase().equals(node.getToken().getScript().toLowerCase());
-            }
-        });
+        return elementUtils.findMember(elementStack.peek(), node.getToken().getScript());
     }
     
 }
@@ -5,25 +5,48 @@ import com.github.davityle.ngprocessor.attrcompiler.node.Node;
 import com.github.davityle.ngprocessor.model.Scope;
 import com.github.davityle.ngprocessor.util.ElementUtils;
 import com.github.davityle.ngprocessor.util.PrimitiveUtils;
+import com.github.davityle.ngprocessor.util.ProcessorTimings;
 import com.github.davityle.ngprocessor.util.TypeUtils;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.lang.model.element.Element;
 
+/**
+ * Generates code from expression trees. Types are cached per expression and scope for the round,
+ * they depend on the elements of the compilation so unlike the generated code they can't be shared
+ * any further.
+ */
+@Singleton
 public class Visitors {
 
     private final TypeUtils typeUtils;
     private final ElementUtils elementUtils;
     private final PrimitiveUtils primitiveUtils;
+    private final ProcessorTimings timings;
+    private final ConcurrentMap<Object, ConcurrentMap<Element, String>> types = new ConcurrentHashMap<>();
 
     @Inject
-    public Visitors(TypeUtils typeUtils, ElementUtils elementUtils, PrimitiveUtils primitiveUtils){
+    public Visitors(TypeUtils typeUtils, ElementUtils elementUtils, PrimitiveUtils primitiveUtils, ProcessorTimings timings){
         this.typeUtils = typeUtils;
         this.elementUtils = elementUtils;
         this.primitiveUtils = primitiveUtils;
+        this.timings = timings;
+    }
+
+    /**
+     * drops the types of the last round
+     */
+    public void clear() {
+        types.clear();
     }
 
-    public String getGetterSource(Node node, String value, String xmlValuePrependage) {
-        return GetExpressionVisitor.generateGetExpression(node, value, xmlValuePrependage);
+    public String getGetterSource(Node node, ConstantFoldVisitor constants, Map<String, String> paths, String value, String xmlValuePrependage) {
+        return GetExpressionVisitor.generateGetExpression(node, constants, paths, value, xmlValuePrependage);
     }
 
     public String getSetterSource(Node node, String value) {
@@ -34,10 +57,51 @@ public class Visitors {
         return ObserveExpressionVisitor.generateObserveExpression(node, value, prependage);
     }
 
-    public String getType(Node node, Scope scope) {
-        return TypeCheckVisitor.getType(node, scope.getJavaElement(), typeUtils, elementUtils, primitiveUtils);
-    }
+    /**
+     * @param expression what the type is cached under, the same expression may be given as a different tree every time
+     */
+    public String getType(Object expression, Node node, Scope scope) {
+        ConcurrentMap<Element, String> scopeTypes = types.get(expression);
+        if (scopeTypes == null) {
+            scopeTypes = new ConcurrentHashMap<>(4);
+            ConcurrentMap<Element, String> previous = types.putIfAbsent(expression, scopeTypes);
+            if (previous != null) {
+                scopeTypes = previous;
+            }
+        }
 
+        Element element = scope.getJavaElement();
+        String type = scopeTypes.get(element);
+        if (type == null) {
+            type = checkType(node, element);
+            scopeTypes.put(element, type);
+        }
+        return type;
+    }
 
+    /**
+     * @return the declared type of a model path, unboxed, or an empty string if it can't be
+     * written as is
+     */
+    public String getPathType(Node path, Scope scope) {
+        ProcessorTimings.Sample start = timings.startTypeCheck();
+        try {
+            return TypeCheckVisitor.getDeclaredType(path, scope.getJavaElement(), typeUtils, elementUtils, primitiveUtils);
+        } finally {
+            if (start != null) {
+                timings.typeCheck(start);
+            }
+        }
+    }
 
+    private String checkType(Node node, Element element) {
+        ProcessorTimings.Sample start = timings.startTypeCheck();
+        try {
+            return TypeCheckVisitor.getType(node, element, typeUtils, elementUtils, primitiveUtils);
+        } finally {
+            if (start != null) {
+                timings.typeCheck(start);
+            }
+        }
+    }
 }
@@ -65,6 +65,13 @@ public abstract class XmlValue extends Expression {
         return getXmlValueSource(prependage) + require.getScript().substring(1);
     }
 
+    /**
+     * the name of the resource, including the leading slash
+     */
+    public Token getRequire() {
+        return require;
+    }
+
     protected abstract String getXmlValueSource(String prependage);
 
     public interface Resolver<T extends XmlValue> {
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.attrcompiler.parse;
+
+import com.github.davityle.ngprocessor.attrcompiler.node.AVisitor;
+import com.github.davityle.ngprocessor.attrcompiler.node.BinaryOperator;
+import com.github.davityle.ngprocessor.attrcompiler.node.Expression;
+import com.github.davityle.ngprocessor.attrcompiler.node.FunctionCall;
+import com.github.davityle.ngprocessor.attrcompiler.node.FunctionName;
+import com.github.davityle.ngprocessor.attrcompiler.node.Identifier;
+import com.github.davityle.ngprocessor.attrcompiler.node.Node;
+import com.github.davityle.ngprocessor.attrcompiler.node.NumberConstant;
+import com.github.davityle.ngprocessor.attrcompiler.node.ObjectField;
+import com.github.davityle.ngprocessor.attrcompiler.node.SpecialIdentifier;
+import com.github.davityle.ngprocessor.attrcompiler.node.StringLiteral;
+import com.github.davityle.ngprocessor.attrcompiler.node.TernaryOperator;
+import com.github.davityle.ngprocessor.attrcompiler.node.UnaryOperator;
+import com.github.davityle.ngprocessor.attrcompiler.node.XmlValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An expression tree flattened into a single int array over the text of the expression. Nodes are
+ * stored in prefix order, each as its kind and token type followed by the bounds of its token, the
+ * number of parameters of a function call or the token of an xml value's name, and then its children.
+ *
+ * Holding on to this instead of the tree keeps one array per expression rather than a node, a token
+ * and usually a string per element of it. The tree is rebuilt whenever it is needed, which allocates
+ * the nodes again but doesn't tokenize or parse anything.
+ */
+public final class CompactExpression {
+
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+
+    private static final int IDENTIFIER = 1;
+    private static final int NUMBER_CONSTANT = 2;
+    private static final int STRING_LITERAL = 3;
+    private static final int SPECIAL_IDENTIFIER = 4;
+    private static final int XML_VALUE = 5;
+    private static final int OBJECT_FIELD = 6;
+    private static final int FUNCTION_NAME = 7;
+    private static final int FUNCTION_CALL = 8;
+    private static final int BINARY_OPERATOR = 9;
+    private static final int UNARY_OPERATOR = 10;
+    private static final int TERNARY_OPERATOR = 11;
+
+    private final String source;
+    private final int[] nodes;
+
+    private CompactExpression(String source, int[] nodes) {
+        this.source = source;
+        this.nodes = nodes;
+    }
+
+    /**
+     * @param node the tree parsed from source
+     * @return the compact form of the tree, or null if it has a node or token this can't represent
+     */
+    public static CompactExpression compact(String source, Node node) {
+        Flattener flattener = new Flattener(source);
+        node.accept(flattener);
+        return flattener.failed ? null : new CompactExpression(source, Arrays.copyOf(flattener.nodes, flattener.size));
+    }
+
+    /**
+     * @return a new tree, equivalent to the one this was made from
+     */
+    public Node inflate() {
+        return new Inflater().next();
+    }
+
+    private class Inflater {
+        private int position;
+
+        private Expression next() {
+            int kind = nodes[position] >>> 8;
+            Token token = token(position);
+            position += 3;
+            switch (kind) {
+                case IDENTIFIER:
+                    return new Identifier(token);
+                case NUMBER_CONSTANT:
+                    return new NumberConstant(token);
+                case STRING_LITERAL:
+                    return new StringLiteral(token);
+                case SPECIAL_IDENTIFIER:
+                    try {
+                        return SpecialIdentifier.getSpecialIdentifier(token);
+                    } catch (ParseException e) {
+                        throw new IllegalStateException("'" + source + "' was parsed before it was compacted", e);
+                    }
+                case XML_VALUE: {
+                    Token require = token(position);
+                    position += 3;
+                    try {
+                        return XmlValue.getXmlValue(token, require);
+                    } catch (ParseException e) {
+                        throw new IllegalStateException("'" + source + "' was parsed before it was compacted", e);
+                    }
+                }
+                case OBJECT_FIELD:
+                    return new ObjectField(next(), token);
+                case FUNCTION_NAME:
+                    return new FunctionName(next(), token);
+                case FUNCTION_CALL: {
+                    int count = nodes[position++];
+                    Expression lhs = next();
+                    List<Expression> parameters = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        parameters.add(next());
+                    }
+                    return new FunctionCall(token, lhs, parameters);
+                }
+                case BINARY_OPERATOR: {
+                    Expression lhs = next();
+                    return new BinaryOperator(token, lhs, next());
+                }
+                case UNARY_OPERATOR:
+                    return new UnaryOperator(token, next());
+                case TERNARY_OPERATOR: {
+                    Expression condition = next();
+                    Expression ifTrue = next();
+                    return new TernaryOperator(token, condition, ifTrue, next());
+                }
+                default:
+                    throw new IllegalStateException("Unknown node kind " + kind + " in '" + source + "'");
+            }
+        }
+
+        private Token token(int index) {
+            return new Token(TOKEN_TYPES[nodes[index] & 0xFF], source, nodes[index + 1], nodes[index + 2]);
+        }
+    }
+
+    private static class Flattener extends AVisitor {
+        private final String source;
+        private int[] nodes = new int[32];
+        private int size;
+        private boolean failed;
+
+        private Flattener(String source) {
+            this.source = source;
+        }
+
+        @Override
+        public void visit(Node node) {
+            // something added to the parser after this was written
+            failed = true;
+        }
+
+        @Override
+        public void visit(Identifier node) {
+            add(IDENTIFIER, node.getToken());
+        }
+
+        @Override
+        public void visit(NumberConstant node) {
+            add(NUMBER_CONSTANT, node.getToken());
+        }
+
+        @Override
+        public void visit(StringLiteral node) {
+            add(STRING_LITERAL, node.getToken());
+        }
+
+        @Override
+        public void visit(SpecialIdentifier node) {
+            add(SPECIAL_IDENTIFIER, node.getToken());
+        }
+
+        @Override
+        public void visit(XmlValue node) {
+            add(XML_VALUE, node.getToken());
+            add(0, node.getRequire());
+        }
+
+        @Override
+        public void visit(ObjectField node) {
+            add(OBJECT_FIELD, node.getToken());
+            node.getLHS().accept(this);
+        }
+
+        @Override
+        public void visit(FunctionName node) {
+            add(FUNCTION_NAME, node.getToken());
+            node.getLHS().accept(this);
+        }
+
+        @Override
+        public void visit(FunctionCall node) {
+            add(FUNCTION_CALL, node.getToken());
+            append(node.getParameters().size());
+            node.getLHS().accept(this);
+            for (Expression parameter : node.getParameters()) {
+                parameter.accept(this);
+            }
+        }
+
+        @Override
+        public void visit(BinaryOperator node) {
+            add(BINARY_OPERATOR, node.getToken());
+            node.getLHS().accept(this);
+            node.getRHS().accept(this);
+        }
+
+        @Override
+        public void visit(UnaryOperator node) {
+            add(UNARY_OPERATOR, node.getToken());
+            node.getRHS().accept(this);
+        }
+
+        @Override
+        public void visit(TernaryOperator node) {
+            add(TERNARY_OPERATOR, node.getToken());
+            node.getCondition().accept(this);
+            node.getIfTrue().accept(this);
+            node.getIfFalse().accept(this);
+        }
+
+        private void add(int kind, Token token) {
+            if (!token.isSpanOf(source)) {
+                failed = true;
+            }
+            append(kind << 8 | token.getTokenType().ordinal());
+            append(token.getColumn());
+            append(token.getEnd());
+        }
+
+        private void append(int value) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+            }
+            nodes[size++] = value;
+        }
+    }
+}
@@ -1,12 +1,22 @@
-
 package com.github.davityle.ngprocessor.attrcompiler.parse;
 
 public class ParseException extends Exception {
+    private final int column;
+
     public ParseException(Token token) {
         super(token.toString());
+        this.column = token.getColumn();
     }
 
     public ParseException(Token token, String message) {
         super(token.toString() + "\n" + message);
+        this.column = token.getColumn();
+    }
+
+    /**
+     * the column of the token the exception is about
+     */
+    public int getColumn() {
+        return column;
     }
-}
\ No newline at end of file
+}
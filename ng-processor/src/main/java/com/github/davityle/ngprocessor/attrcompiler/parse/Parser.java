@@ -19,29 +19,18 @@ import com.github.davityle.ngprocessor.util.Option;
 import java.util.ArrayList;
 
 public class Parser {
-    private ArrayList<Token> tokens;
-    private int currentIndex;
+    private final TokenCursor tokens;
 
-    private Parser(String source) throws ParseException {
-        Tokenizer tok = new Tokenizer(source);
-        tokens = new ArrayList<>(tok.tokenize());
-        currentIndex = 0;
+    private Parser(String source) {
+        tokens = new TokenCursor(source);
     }
 
-    private Token peek(int offset) {
-        if (offset + currentIndex < tokens.size()) {
-            return tokens.get(offset + currentIndex);
-        } else {
-            return tokens.get(tokens.size() - 1);
-        }
+    private Token peek(int offset) throws ParseException {
+        return tokens.peek(offset);
     }
 
-    private Token advance() {
-        if (currentIndex < tokens.size()) {
-            ++currentIndex;
-        }
-
-        return tokens.get(currentIndex - 1);
+    private Token advance() throws ParseException {
+        return tokens.advance();
     }
 
     private Token require(TokenType type) throws ParseException {
@@ -53,7 +42,7 @@ public class Parser {
         }
     }
 
-    private boolean optional(TokenType type) {
+    private boolean optional(TokenType type) throws ParseException {
         Token next = peek(0);
         if (next.getTokenType() == type) {
             advance();
@@ -104,8 +93,9 @@ public class Parser {
 
     private Expression parseUnaryOperator() throws ParseException {
         Token next = peek(0);
+        TokenType type = next.getTokenType();
 
-        if (TokenType.UnaryOperator.isUnaryOperator(next.getScript())) {
+        if ((type == TokenType.UNARY_OPERATOR || type == TokenType.BINARY_OPERATOR) && TokenType.UnaryOperator.isUnaryOperator(next.getScript())) {
             advance();
             return new UnaryOperator(next, parseUnaryOperator());
         } else {
@@ -177,9 +167,21 @@ public class Parser {
         return result;
     }
 
+    /**
+     * tokens are pulled as the parser needs them, the rest of the expression is still tokenized
+     * afterwards so malformed input fails the same way whether or not the parser got to it
+     */
     public static Node parse(String source) throws ParseException {
         Parser parser = new Parser(source);
-        return parser.parse();
+        Node node;
+        try {
+            node = parser.parse();
+        } catch (ParseException e) {
+            parser.tokens.drain();
+            throw e;
+        }
+        parser.tokens.drain();
+        return node;
     }
 
     public static Option<Node> tryParse(String source) {
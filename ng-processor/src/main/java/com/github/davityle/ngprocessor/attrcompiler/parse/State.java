@@ -3,78 +3,78 @@ package com.github.davityle.ngprocessor.attrcompiler.parse;
 public enum State {
     StartState {
         StepResult step(char currentChar) {
-            return new StepResult(DefaultState(currentChar));
+            return StepResult.of(DefaultState(currentChar));
         }
     },
 
     NumberInt {
         StepResult step(char currentChar) {
-            if (Character.isDigit(currentChar)) {
-                return new StepResult(State.NumberInt);
+            if (isDigit(currentChar)) {
+                return StepResult.of(State.NumberInt);
             } else if (currentChar == '.') {
-                return new StepResult(State.NumberFraction);
+                return StepResult.of(State.NumberFraction);
             } else {
-                return new StepResult(DefaultState(currentChar), TokenType.INT_CONSTANT);
+                return StepResult.of(DefaultState(currentChar), TokenType.INT_CONSTANT);
             }
         }
     },
 
     NumberFraction {
         StepResult step(char currentChar) {
-            if (Character.isDigit(currentChar)) {
-                return new StepResult(State.NumberFraction);
+            if (isDigit(currentChar)) {
+                return StepResult.of(State.NumberFraction);
             } else {
-                return new StepResult(DefaultState(currentChar), TokenType.DOUBLE_CONSTANT);
+                return StepResult.of(DefaultState(currentChar), TokenType.DOUBLE_CONSTANT);
             }
         }
     },
 
     WhitespaceState {
         StepResult step(char currentChar) {
-            if (Character.isWhitespace(currentChar)) {
-                return new StepResult(State.WhitespaceState);
+            if (isWhitespace(currentChar)) {
+                return StepResult.of(State.WhitespaceState);
             } else {
-                return new StepResult(DefaultState(currentChar), TokenType.WHITESPACE);
+                return StepResult.of(DefaultState(currentChar), TokenType.WHITESPACE);
             }
         }
     },
 
     OpClosePState {
         StepResult step(char currentChar) {
-            return new StepResult(DefaultState(currentChar), TokenType.CLOSE_PARENTHESIS);
+            return StepResult.of(DefaultState(currentChar), TokenType.CLOSE_PARENTHESIS);
         }
     },
 
     OpOpenPState {
         StepResult step(char currentChar) {
-            return new StepResult(DefaultState(currentChar), TokenType.OPEN_PARENTHESIS);
+            return StepResult.of(DefaultState(currentChar), TokenType.OPEN_PARENTHESIS);
         }
     },
 
     OpCommaState {
         StepResult step(char currentChar) {
-            return new StepResult(DefaultState(currentChar), TokenType.COMMA);
+            return StepResult.of(DefaultState(currentChar), TokenType.COMMA);
         }
     },
 
     OpDotState {
         StepResult step(char currentChar) {
-            return new StepResult(DefaultState(currentChar), TokenType.PERIOD);
+            return StepResult.of(DefaultState(currentChar), TokenType.PERIOD);
         }
     },
 
     OpBinary {
         StepResult step(char currentChar) {
-            return new StepResult(DefaultState(currentChar), TokenType.BINARY_OPERATOR);
+            return StepResult.of(DefaultState(currentChar), TokenType.BINARY_OPERATOR);
         }
     },
 
     OpLessThan {
         StepResult step(char currentChar) {
             if (currentChar == '=') {
-                return new StepResult(State.OpBinary);
+                return StepResult.of(State.OpBinary);
             } else {
-                return new StepResult(DefaultState(currentChar), TokenType.BINARY_OPERATOR);
+                return StepResult.of(DefaultState(currentChar), TokenType.BINARY_OPERATOR);
             }
         }
     },
@@ -82,9 +82,9 @@ public enum State {
     OpGreaterThan {
         StepResult step(char currentChar) {
             if (currentChar == '=') {
-                return new StepResult(State.OpBinary);
+                return StepResult.of(State.OpBinary);
             } else {
-                return new StepResult(DefaultState(currentChar), TokenType.BINARY_OPERATOR);
+                return StepResult.of(DefaultState(currentChar), TokenType.BINARY_OPERATOR);
             }
         }
     },
@@ -92,9 +92,9 @@ public enum State {
     OpEqual {
         StepResult step(char currentChar) {
             if (currentChar == '=') {
-                return new StepResult(State.OpBinary);
+                return StepResult.of(State.OpBinary);
             } else {
-                return new StepResult(State.ErrorState, TokenType.RUBBISH);
+                return StepResult.of(State.ErrorState, TokenType.RUBBISH);
             }
         }
     },
@@ -102,9 +102,9 @@ public enum State {
     OpNot {
         StepResult step(char currentChar) {
             if (currentChar == '=') {
-                return new StepResult(State.OpBinary);
+                return StepResult.of(State.OpBinary);
             } else {
-                return new StepResult(DefaultState(currentChar), TokenType.UNARY_OPERATOR);
+                return StepResult.of(DefaultState(currentChar), TokenType.UNARY_OPERATOR);
             }
         }
     },
@@ -112,9 +112,9 @@ public enum State {
     OpOr {
         StepResult step(char currentChar) {
             if (currentChar == '|') {
-                return new StepResult(State.OpBinary);
+                return StepResult.of(State.OpBinary);
             } else {
-                return new StepResult(State.ErrorState, TokenType.RUBBISH);
+                return StepResult.of(State.ErrorState, TokenType.RUBBISH);
             }
         }
     },
@@ -122,35 +122,35 @@ public enum State {
     OpAnd {
         StepResult step(char currentChar) {
             if (currentChar == '&') {
-                return new StepResult(State.OpBinary);
+                return StepResult.of(State.OpBinary);
             } else {
-                return new StepResult(State.ErrorState, TokenType.RUBBISH);
+                return StepResult.of(State.ErrorState, TokenType.RUBBISH);
             }
         }
     },
 
     QuestionMark {
         StepResult step(char currentChar) {
-            return new StepResult(DefaultState(currentChar), TokenType.TERNARY_QUESTION_MARK);
+            return StepResult.of(DefaultState(currentChar), TokenType.TERNARY_QUESTION_MARK);
         }
     },
 
     Colon {
         StepResult step(char currentChar) {
-            return new StepResult(DefaultState(currentChar), TokenType.TERNARY_COLON);
+            return StepResult.of(DefaultState(currentChar), TokenType.TERNARY_COLON);
         }
     },
 
     StringState {
         StepResult step(char currentChar) {
             if (currentChar == '\'') {
-                return new StepResult(State.StringEndState);
+                return StepResult.of(State.StringEndState);
             } else if (currentChar == '\\') {
-                return new StepResult(State.StringEscapeState);
+                return StepResult.of(State.StringEscapeState);
             } else if (currentChar == '\0') {
-                return new StepResult(State.ErrorState, TokenType.RUBBISH);
+                return StepResult.of(State.ErrorState, TokenType.RUBBISH);
             } else {
-                return new StepResult(State.StringState);
+                return StepResult.of(State.StringState);
             }
         }
     },
@@ -158,57 +158,57 @@ public enum State {
     StringEscapeState {
         StepResult step(char currentChar) {
             if (currentChar == '\0') {
-                return new StepResult(State.ErrorState, TokenType.RUBBISH);
+                return StepResult.of(State.ErrorState, TokenType.RUBBISH);
             } else {
-                return new StepResult(State.StringState);
+                return StepResult.of(State.StringState);
             }
         }
     },
 
     StringEndState {
         StepResult step(char currentChar) {
-            return new StepResult(DefaultState(currentChar), TokenType.STRING);
+            return StepResult.of(DefaultState(currentChar), TokenType.STRING);
         }
     },
 
     IdentifierState {
         StepResult step(char currentChar) {
-            if (Character.isLetterOrDigit(currentChar) || currentChar == '_' || currentChar == '$') {
-                return new StepResult(State.IdentifierState);
+            if (isIdentifierPart(currentChar)) {
+                return StepResult.of(State.IdentifierState);
             } else {
-                return new StepResult(DefaultState(currentChar), TokenType.IDENTIFIER);
+                return StepResult.of(DefaultState(currentChar), TokenType.IDENTIFIER);
             }
         }
     },
 
     SpecialIdentifierState {
         StepResult step(char currentChar) {
-            if (Character.isLetterOrDigit(currentChar) || currentChar == '_' || currentChar == '$') {
-                return new StepResult(State.SpecialIdentifierState);
+            if (isIdentifierPart(currentChar)) {
+                return StepResult.of(State.SpecialIdentifierState);
             } else {
-                return new StepResult(DefaultState(currentChar), TokenType.SPECIAL_IDENTIFIER);
+                return StepResult.of(DefaultState(currentChar), TokenType.SPECIAL_IDENTIFIER);
             }
         }
     },
 
     XmlValueState {
         StepResult step(char currentChar) {
-            if (Character.isLetter(currentChar)) {
-                return new StepResult(State.XmlValueState);
+            if (isLetter(currentChar)) {
+                return StepResult.of(State.XmlValueState);
             } else if(currentChar == '/'){
-                return new StepResult(State.XmlValueKeyState, TokenType.XML_VALUE);
+                return StepResult.of(State.XmlValueKeyState, TokenType.XML_VALUE);
             } else {
-                return new StepResult(State.ErrorState, TokenType.RUBBISH);
+                return StepResult.of(State.ErrorState, TokenType.RUBBISH);
             }
         }
     },
 
     XmlValueKeyState {
         StepResult step(char currentChar) {
-            if (Character.isLetter(currentChar)) {
-                return new StepResult(State.XmlValueKeyState);
+            if (isLetter(currentChar)) {
+                return StepResult.of(State.XmlValueKeyState);
             } else {
-                return new StepResult(DefaultState(currentChar), TokenType.XML_VALUE_KEY);
+                return StepResult.of(DefaultState(currentChar), TokenType.XML_VALUE_KEY);
             }
         }
     },
@@ -216,28 +216,74 @@ public enum State {
     ErrorState {
         StepResult step(char currentChar) {
             if (currentChar == '\0') {
-                return new StepResult(State.EOFState, TokenType.RUBBISH);
+                return StepResult.of(State.EOFState, TokenType.RUBBISH);
             } else {
-                return new StepResult(State.EOFState);
+                return StepResult.of(State.EOFState);
             }
         }
     },
 
     EOFState {
         StepResult step(char currentChar) {
-            return new StepResult(State.EOFState);
+            return StepResult.of(State.EOFState);
         }
     },
 
     Done {
         StepResult step(char currentChar) {
-            return new StepResult(DefaultState(currentChar));
+            return StepResult.of(DefaultState(currentChar));
         }
     };
 
     abstract StepResult step(char currentChar);
 
+    private static final int ASCII = 128;
+    private static final byte DIGIT = 1, LETTER = 2, WHITESPACE = 4, IDENTIFIER_PART = 8;
+
+    /**
+     * character classes and default states of the ascii characters, everything else goes through
+     * {@link Character} and {@link #classify(char)}
+     */
+    private static final byte[] CHARACTER_CLASSES = new byte[ASCII];
+    private static final State[] DEFAULT_STATES = new State[ASCII];
+
+    static {
+        for (char c = 0; c < ASCII; c++) {
+            byte characterClass = 0;
+            if (Character.isDigit(c))
+                characterClass |= DIGIT;
+            if (Character.isLetter(c))
+                characterClass |= LETTER;
+            if (Character.isWhitespace(c))
+                characterClass |= WHITESPACE;
+            if (Character.isLetterOrDigit(c) || c == '_' || c == '$')
+                characterClass |= IDENTIFIER_PART;
+            CHARACTER_CLASSES[c] = characterClass;
+            DEFAULT_STATES[c] = classify(c);
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c < ASCII ? (CHARACTER_CLASSES[c] & DIGIT) != 0 : Character.isDigit(c);
+    }
+
+    private static boolean isLetter(char c) {
+        return c < ASCII ? (CHARACTER_CLASSES[c] & LETTER) != 0 : Character.isLetter(c);
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c < ASCII ? (CHARACTER_CLASSES[c] & WHITESPACE) != 0 : Character.isWhitespace(c);
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return c < ASCII ? (CHARACTER_CLASSES[c] & IDENTIFIER_PART) != 0 : Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
     private static State DefaultState(char currentChar) {
+        return currentChar < ASCII ? DEFAULT_STATES[currentChar] : classify(currentChar);
+    }
+
+    private static State classify(char currentChar) {
         if (Character.isDigit(currentChar)) {
             return State.NumberInt;
         } else if (Character.isLetter(currentChar)) {
@@ -1,9 +1,29 @@
 package com.github.davityle.ngprocessor.attrcompiler.parse;
 
+/**
+ * The state a {@link State} steps to and the type of the token it finished, if any. Results are
+ * immutable so there is one instance for every state and token type pair, see {@link #of(State, TokenType)}.
+ */
 public class StepResult
 {
-	private State state;
-	private TokenType tokenType;
+	private static final StepResult[][] RESULTS;
+
+	static
+	{
+		State[] states = State.values();
+		TokenType[] tokenTypes = TokenType.values();
+		RESULTS = new StepResult[states.length][tokenTypes.length];
+		for (State state : states)
+		{
+			for (TokenType tokenType : tokenTypes)
+			{
+				RESULTS[state.ordinal()][tokenType.ordinal()] = new StepResult(state, tokenType);
+			}
+		}
+	}
+
+	private final State state;
+	private final TokenType tokenType;
 	
 	public StepResult(State state, TokenType tokenType)
 	{
@@ -16,6 +36,16 @@ public class StepResult
 		this.state = state;
 		this.tokenType = TokenType.NONE;
 	}
+
+	public static StepResult of(State state, TokenType tokenType)
+	{
+		return RESULTS[state.ordinal()][tokenType.ordinal()];
+	}
+
+	public static StepResult of(State state)
+	{
+		return RESULTS[state.ordinal()][TokenType.NONE.ordinal()];
+	}
 	
 	public TokenType getTokenType()
 	{
@@ -26,4 +56,4 @@ public class StepResult
 	{
 		return state;
 	}
-}
\ No newline at end of file
+}
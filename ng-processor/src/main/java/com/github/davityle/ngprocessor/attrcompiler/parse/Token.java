@@ -22,18 +22,33 @@ package com.github.davityle.ngprocessor.attrcompiler.parse;
 */
 public final class Token {
     private final TokenType tokenType;
-    private final String script;
-    private final int tokenLocation;
+    private final String source;
+    private final int start;
+    private final int end;
+    private String script;
 
     Token(TokenType tokenType, String script, int tokenLocation) {
         this.tokenType = tokenType;
+        this.source = script;
+        this.start = tokenLocation;
+        this.end = tokenLocation + script.length();
         this.script = script;
-        this.tokenLocation = tokenLocation;
+    }
+
+    /**
+     * a token that is a view over [start, end) of the source, its text is only copied out when
+     * {@link #getScript()} is called
+     */
+    Token(TokenType tokenType, String source, int start, int end) {
+        this.tokenType = tokenType;
+        this.source = source;
+        this.start = start;
+        this.end = end;
     }
 
     @Override
     public String toString() {
-        return tokenType.toString() + "::" + script;
+        return tokenType.toString() + "::" + getScript();
     }
 
     public TokenType getTokenType() {
@@ -41,6 +56,29 @@ public final class Token {
     }
 
     public String getScript() {
+        if (script == null) {
+            script = source.substring(start, end);
+        }
         return script;
     }
+
+    /**
+     * the column of the first character of this token in the expression
+     */
+    public int getColumn() {
+        return start;
+    }
+
+    int getEnd() {
+        return end;
+    }
+
+    /**
+     * whether the text of this token is [start, end) of the expression
+     */
+    boolean isSpanOf(String expression) {
+        if (source == expression)
+            return true;
+        return end <= expression.length() && expression.regionMatches(start, getScript(), 0, end - start);
+    }
 }
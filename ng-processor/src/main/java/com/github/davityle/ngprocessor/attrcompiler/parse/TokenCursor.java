@@ -0,0 +1,63 @@
+package com.github.davityle.ngprocessor.attrcompiler.parse;
+
+/**
+ * Pulls tokens from a {@link Tokenizer} as the {@link Parser} asks for them, keeping only the few
+ * tokens of lookahead the parser needs instead of the whole token list.
+ */
+final class TokenCursor {
+    private static final int LOOKAHEAD = 4;
+
+    private final Tokenizer tokenizer;
+    private final Token[] buffer = new Token[LOOKAHEAD];
+    private int head;
+    private int size;
+    private Token eof;
+
+    TokenCursor(String source) {
+        this.tokenizer = new Tokenizer(source);
+    }
+
+    /**
+     * the token offset tokens ahead, the EOF token once the expression is exhausted
+     */
+    Token peek(int offset) throws ParseException {
+        if (offset >= LOOKAHEAD)
+            throw new IllegalArgumentException("Can't look " + offset + " tokens ahead");
+
+        while (size <= offset && eof == null) {
+            Token token = tokenizer.next();
+            if (token.getTokenType() == TokenType.EOF) {
+                eof = token;
+            } else {
+                buffer[(head + size++) % LOOKAHEAD] = token;
+            }
+        }
+        return offset < size ? buffer[(head + offset) % LOOKAHEAD] : eof;
+    }
+
+    /**
+     * consumes the next token, advancing past EOF leaves the cursor at EOF
+     */
+    Token advance() throws ParseException {
+        Token token = peek(0);
+        if (size > 0) {
+            buffer[head] = null;
+            head = (head + 1) % LOOKAHEAD;
+            size--;
+        }
+        return token;
+    }
+
+    /**
+     * tokenizes the rest of the expression so that malformed input is reported even if the parser
+     * stopped before reaching it
+     */
+    void drain() throws ParseException {
+        while (eof == null) {
+            Token token = tokenizer.next();
+            if (token.getTokenType() == TokenType.EOF) {
+                eof = token;
+            }
+        }
+    }
+}
@@ -63,6 +63,8 @@ public enum TokenType {
         AND("&&", 1),
         OR("||", 1);
 
+        private static final BinaryOperator[] OPERATORS = values();
+
         final String source;
         final int precedence;
 
@@ -81,7 +83,7 @@ public enum TokenType {
         }
 
         public static boolean isBinaryOperator(String source) {
-            for (BinaryOperator op : BinaryOperator.values()) {
+            for (BinaryOperator op : OPERATORS) {
                 if (op.source.equals(source)) {
                     return true;
                 }
@@ -91,7 +93,7 @@ public enum TokenType {
         }
 
         public static BinaryOperator getOperator(String op){
-            for(BinaryOperator biOp : values()){
+            for(BinaryOperator biOp : OPERATORS){
                 if(biOp.source.equals(op))
                     return biOp;
             }
@@ -103,6 +105,8 @@ public enum TokenType {
         NEGATE("-"),
         NOT("!");
 
+        private static final UnaryOperator[] OPERATORS = values();
+
         final String source;
 
         UnaryOperator(String source) {
@@ -115,7 +119,7 @@ public enum TokenType {
         }
 
         public static boolean isUnaryOperator(String source) {
-            for (UnaryOperator op : UnaryOperator.values()) {
+            for (UnaryOperator op : OPERATORS) {
                 if (op.source.equals(source)) {
                     return true;
                 }
@@ -125,7 +129,7 @@ public enum TokenType {
         }
 
         public static UnaryOperator getOperator(String source) {
-            for (UnaryOperator op : UnaryOperator.values()) {
+            for (UnaryOperator op : OPERATORS) {
                 if (op.source.equals(source)) {
                     return op;
                 }
@@ -1,10 +1,18 @@
-
 package com.github.davityle.ngprocessor.attrcompiler.parse;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class Tokenizer {
+    private static final String[] ASCII_TEXT = new String[128];
+    private static final String[] TWO_CHARACTER_OPERATORS = {"<=", ">=", "==", "!=", "&&", "||"};
+
+    static {
+        for (char c = 0; c < ASCII_TEXT.length; c++) {
+            ASCII_TEXT[c] = String.valueOf(c);
+        }
+    }
+
     private String source;
     private int currentTokenStart;
     private int currentPosition;
@@ -19,40 +27,69 @@ public class Tokenizer {
 
     public List<Token> tokenize() throws ParseException {
         List<Token> result = new ArrayList<Token>();
+        Token token;
+        while ((token = next()).getTokenType() != TokenType.EOF) {
+            result.add(token);
+        }
+        result.add(token);
+        return result;
+    }
 
-        if (source != null && source.length() != 0) {
-            State currentState = State.StartState;
+    /**
+     * steps through the source until the next token is finished, once the source is exhausted every
+     * call returns an EOF token
+     */
+    Token next() throws ParseException {
+        while (state != State.Done && currentPosition <= source.length()) {
+            char currentChar;
 
-            while (currentState != State.Done && currentPosition <= source.length()) {
-                char currentChar;
+            if (currentPosition == source.length()) {
+                currentChar = '\0';
+            } else {
+                currentChar = source.charAt(currentPosition);
+            }
+
+            StepResult stepResult = state.step(currentChar);
+            TokenType tokenType = stepResult.getTokenType();
+            state = stepResult.getState();
 
-                if (currentPosition == source.length()) {
-                    currentChar = '\0';
-                } else {
-                    currentChar = source.charAt(currentPosition);
+            Token token = null;
+            if (tokenType != TokenType.NONE) {
+                if (tokenType == TokenType.RUBBISH) {
+                    String tokenValue = source.substring(currentTokenStart, currentPosition);
+                    throw new ParseException(new Token(tokenType, tokenValue, currentTokenStart), "Unexpected character '" + currentChar + "' at col " + currentTokenStart);
+                } else if (tokenType != TokenType.WHITESPACE) {
+                    token = token(tokenType, currentTokenStart, currentPosition);
                 }
 
-                StepResult stepResult = currentState.step(currentChar);
-                TokenType tokenType = stepResult.getTokenType();
-                currentState = stepResult.getState();
+                currentTokenStart = currentPosition;
+            }
 
-                if (tokenType != TokenType.NONE) {
-                    if (tokenType == TokenType.RUBBISH) {
-                        String tokenValue = source.substring(currentTokenStart, currentPosition);
-                        throw new ParseException(new Token(tokenType, tokenValue, currentTokenStart), "Unexpected character '" + currentChar + "' at col " + currentTokenStart);
-                    } else if (tokenType != TokenType.WHITESPACE) {
-                        String tokenValue = source.substring(currentTokenStart, currentPosition);
-                        result.add(new Token(tokenType, tokenValue, currentTokenStart));
-                    }
+            ++currentPosition;
+            if (token != null)
+                return token;
+        }
 
-                    currentTokenStart = currentPosition;
-                }
+        return new Token(TokenType.EOF, "", source.length());
+    }
 
-                ++currentPosition;
+    /**
+     * single characters and operators share their text, anything else is a view over the source
+     * that is only copied if its text is asked for
+     */
+    private Token token(TokenType tokenType, int start, int end) {
+        int length = end - start;
+        if (length == 1) {
+            char c = source.charAt(start);
+            if (c < ASCII_TEXT.length)
+                return new Token(tokenType, ASCII_TEXT[c], start);
+        } else if (length == 2) {
+            char first = source.charAt(start), second = source.charAt(start + 1);
+            for (String operator : TWO_CHARACTER_OPERATORS) {
+                if (operator.charAt(0) == first && operator.charAt(1) == second)
+                    return new Token(tokenType, operator, start);
             }
         }
-
-        result.add(new Token(TokenType.EOF, "", source.length()));
-        return result;
+        return new Token(tokenType, source, start, end);
     }
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.attrcompiler.sources;
+
+import com.github.davityle.ngprocessor.attrcompiler.ConstantFoldVisitor;
+import com.github.davityle.ngprocessor.attrcompiler.ModelPathVisitor;
+import com.github.davityle.ngprocessor.attrcompiler.ObserveExpressionVisitor;
+import com.github.davityle.ngprocessor.attrcompiler.Visitors;
+import com.github.davityle.ngprocessor.attrcompiler.node.Node;
+import com.github.davityle.ngprocessor.attrcompiler.parse.CompactExpression;
+import com.github.davityle.ngprocessor.attrcompiler.parse.ParseException;
+import com.github.davityle.ngprocessor.attrcompiler.parse.Parser;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An expression parsed and constant folded once for the whole process along with the code generated
+ * from it. Both only depend on the expression text and the arguments they were generated with, so
+ * every layout, scope and round that uses the same expression shares them. Types depend on the compilation and are
+ * cached by {@link Visitors} for a round instead.
+ *
+ * A compact expression keeps a {@link CompactExpression} instead of its tree and rebuilds the tree,
+ * and folds its constants again, each time code is generated from it.
+ */
+final class CompiledExpression {
+
+    static final int MAX_EXPRESSIONS = 8192;
+    private static final ConcurrentMap<String, CompiledExpression> EXPRESSIONS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, CompiledExpression> COMPACT_EXPRESSIONS = new ConcurrentHashMap<>();
+
+    static CompiledExpression compile(String source, boolean compact) throws ParseException {
+        ConcurrentMap<String, CompiledExpression> expressions = compact ? COMPACT_EXPRESSIONS : EXPRESSIONS;
+        CompiledExpression compiled = expressions.get(source);
+        if (compiled == null) {
+            Node node = Parser.parse(source);
+            compiled = new CompiledExpression(node, compact ? CompactExpression.compact(source, node) : null);
+            if (expressions.size() >= MAX_EXPRESSIONS) {
+                // a long lived daemon could see any number of expressions, start over rather than grow
+                expressions.clear();
+            }
+            CompiledExpression previous = expressions.putIfAbsent(source, compiled);
+            if (previous != null) {
+                compiled = previous;
+            }
+        }
+        return compiled;
+    }
+
+    private final Node node;
+    private final CompactExpression compact;
+    private final ConstantFoldVisitor constants;
+    private final Map<String, Node> paths;
+    private final Collection<String> pathNames;
+    private final boolean isStatic;
+    private final ConcurrentMap<String, String> getterSources = new ConcurrentHashMap<>(4);
+    private final ConcurrentMap<String, String> setterSources = new ConcurrentHashMap<>(4);
+    private final ConcurrentMap<String, String> observerSources = new ConcurrentHashMap<>(4);
+    private volatile List<ObserveExpressionVisitor.Observation> observations;
+
+    /**
+     * @param compact the compact form of node to keep instead of it, or null to keep the tree
+     */
+    private CompiledExpression(Node node, CompactExpression compact) {
+        ConstantFoldVisitor constants = ConstantFoldVisitor.fold(node);
+        Map<String, Node> paths = ModelPathVisitor.getPaths(node);
+        this.compact = compact;
+        this.isStatic = constants.isStatic();
+        this.pathNames = paths.isEmpty() ? Collections.<String>emptyList() : Collections.unmodifiableList(new ArrayList<>(paths.keySet()));
+        if (compact == null) {
+            this.node = node;
+            this.constants = constants;
+            this.paths = Collections.unmodifiableMap(paths);
+        } else {
+            this.node = null;
+            this.constants = null;
+            this.paths = null;
+        }
+    }
+
+    Node getNode() {
+        return node != null ? node : compact.inflate();
+    }
+
+    /**
+     * the {@code model.field} paths the expression reads
+     */
+    Collection<String> getPathNames() {
+        return pathNames;
+    }
+
+    Node getPath(String path) {
+        return paths != null ? paths.get(path) : ModelPathVisitor.getPaths(compact.inflate()).get(path);
+    }
+
+    boolean isStatic() {
+        return isStatic;
+    }
+
+    String getGetterSource(Visitors visitors, String value, String xmlValuePrependage) {
+        String key = value + '\0' + xmlValuePrependage;
+        String source = getterSources.get(key);
+        if (source == null) {
+            source = getGetterSource(visitors, value, xmlValuePrependage, null);
+            getterSources.putIfAbsent(key, source);
+        }
+        return source;
+    }
+
+    /**
+     * the getter with some of the model paths read some other way, not cached as it depends on the layout
+     */
+    String getGetterSource(Visitors visitors, String value, String xmlValuePrependage, Map<String, String> paths) {
+        Node node = getNode();
+        ConstantFoldVisitor constants = this.constants != null ? this.constants : ConstantFoldVisitor.fold(node);
+        return visitors.getGetterSource(node, constants, paths, value, xmlValuePrependage);
+    }
+
+    String getSetterSource(Visitors visitors, String value) {
+        String source = setterSources.get(value);
+        if (source == null) {
+            source = visitors.getSetterSource(getNode(), value);
+            setterSources.putIfAbsent(value, source);
+        }
+        return source;
+    }
+
+    String getObserverSource(Visitors visitors, String value, String prependage) {
+        String key = value + '\0' + prependage;
+        String source = observerSources.get(key);
+        if (source == null) {
+            source = visitors.getObserverSource(getNode(), value, prependage);
+            observerSources.putIfAbsent(key, source);
+        }
+        return source;
+    }
+
+    /**
+     * the models the expression reads and the fields of them that its observer source observes
+     */
+    List<ObserveExpressionVisitor.Observation> getObservations() {
+        List<ObserveExpressionVisitor.Observation> observations = this.observations;
+        if (observations == null) {
+            observations = ObserveExpressionVisitor.getObservations(getNode());
+            this.observations = observations;
+        }
+        return observations;
+    }
+}
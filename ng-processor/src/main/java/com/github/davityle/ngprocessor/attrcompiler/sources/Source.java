@@ -16,35 +16,81 @@
 
 package com.github.davityle.ngprocessor.attrcompiler.sources;
 
+import com.github.davityle.ngprocessor.attrcompiler.ObserveExpressionVisitor;
 import com.github.davityle.ngprocessor.attrcompiler.Visitors;
-import com.github.davityle.ngprocessor.attrcompiler.node.Node;
 import com.github.davityle.ngprocessor.attrcompiler.parse.ParseException;
-import com.github.davityle.ngprocessor.attrcompiler.parse.Parser;
 import com.github.davityle.ngprocessor.model.Scope;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 public class Source {
-    private final Node node;
+    private final CompiledExpression expression;
     private final Visitors visitors;
 
     public Source(String source, Visitors visitors) throws ParseException {
+        this(source, visitors, false);
+    }
+
+    /**
+     * @param compact whether to keep the expression in its compact form rather than as a tree
+     */
+    public Source(String source, Visitors visitors, boolean compact) throws ParseException {
         this.visitors = visitors;
-        this.node = Parser.parse(source);
+        this.expression = CompiledExpression.compile(source, compact);
     }
 
     public String getGetterSource(String value, String xmlValuePrependage) {
-        return visitors.getGetterSource(node, value, xmlValuePrependage);
+        return expression.getGetterSource(visitors, value, xmlValuePrependage);
+    }
+
+    /**
+     * @param paths the source to read each model path with, such as a value shared by the bindings of a layout
+     */
+    public String getGetterSource(String value, String xmlValuePrependage, Map<String, String> paths) {
+        return expression.getGetterSource(visitors, value, xmlValuePrependage, paths);
+    }
+
+    /**
+     * the {@code model.field} paths the expression reads
+     */
+    public Collection<String> getPaths() {
+        return expression.getPathNames();
+    }
+
+    public String getPathSource(String path, String value) {
+        return visitors.getGetterSource(expression.getPath(path), null, null, value, "");
+    }
+
+    public String getPathType(String path, Scope scope) {
+        return visitors.getPathType(expression.getPath(path), scope);
     }
 
     public String getSetterSource(String value) {
-        return visitors.getSetterSource(node, value);
+        return expression.getSetterSource(visitors, value);
     }
 
     public String getObserverSource(String value, String prependage) {
-        return visitors.getObserverSource(node, value, prependage);
+        return expression.getObserverSource(visitors, value, prependage);
+    }
+
+    /**
+     * what {@link #getObserverSource(String, String)} registers its observer with
+     */
+    public List<ObserveExpressionVisitor.Observation> getObservations() {
+        return expression.getObservations();
     }
 
     public String getType(Scope scope) {
-        return visitors.getType(node, scope);
+        return visitors.getType(expression, expression.getNode(), scope);
+    }
+
+    /**
+     * whether the expression has the same value every time, in which case it is bound once instead of observed
+     */
+    public boolean isStatic() {
+        return expression.isStatic();
     }
 
     public boolean isVoid() {
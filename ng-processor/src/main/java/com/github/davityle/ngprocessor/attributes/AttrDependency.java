@@ -1,9 +1,13 @@
 package com.github.davityle.ngprocessor.attributes;
 
 import java.util.Scanner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class AttrDependency {
 
+    private static final ConcurrentMap<String, String> RESOURCES = new ConcurrentHashMap<>();
+
     private final String className;
     private String[] dependencies;
 
@@ -15,7 +19,20 @@ public class AttrDependency {
         return className;
     }
 
+    /**
+     * reads a resource from the processor jar, resources don't change while the processor is loaded
+     * so each one is only read once
+     */
     protected static String getResource(String resourcePath){
+        String resource = RESOURCES.get(resourcePath);
+        if (resource == null) {
+            resource = readResource(resourcePath);
+            RESOURCES.putIfAbsent(resourcePath, resource);
+        }
+        return resource;
+    }
+
+    private static String readResource(String resourcePath){
         try {
             return new Scanner(AttrDependency.class.getClassLoader().getResourceAsStream(resourcePath), "UTF-8").useDelimiter("\\A").next();
         } catch (NullPointerException e) {
@@ -2,8 +2,9 @@ package com.github.davityle.ngprocessor.attributes;
 
 public class Attribute extends AttrDependency {
 
-    private final String attrName, classSource, attachSource;
+    private final String attrName, classSource, attachSource, classTemplate, attachTemplate;
     private String[] attrParameters;
+    private String staticTemplate;
 
     public Attribute(String className){
         this(className, toAttrName(className));
@@ -15,8 +16,10 @@ public class Attribute extends AttrDependency {
     }
 
     {
-        this.classSource = getResource("attrs/class/" + getClassName() + "Class.java");
-        this.attachSource = getResource("attrs/attach/" + getClassName() + "Attach.java");
+        this.classTemplate = "attrs/class/" + getClassName() + "Class.java";
+        this.attachTemplate = "attrs/attach/" + getClassName() + "Attach.java";
+        this.classSource = getResource(classTemplate);
+        this.attachSource = getResource(attachTemplate);
     }
 
     public String getClassSource() {
@@ -27,11 +30,43 @@ public class Attribute extends AttrDependency {
         return attachSource;
     }
 
+    /**
+     * the resource path of the class snippet, templates include it with #parse so that velocity
+     * only parses it once
+     */
+    public String getClassTemplate() {
+        return classTemplate;
+    }
+
+    /**
+     * the resource path of the attach snippet
+     */
+    public String getAttachTemplate() {
+        return attachTemplate;
+    }
+
     public Attribute setAttrParameters(String ... attrParameters){
         this.attrParameters = attrParameters;
         return this;
     }
 
+    /**
+     * lets the attribute be bound once when it is attached if its expression is static, instead of
+     * generating an observer. the snippet is attrs/static/*Static.java
+     */
+    public Attribute setStaticBinding() {
+        this.staticTemplate = "attrs/static/" + getClassName() + "Static.java";
+        return this;
+    }
+
+    public boolean hasStaticBinding() {
+        return staticTemplate != null;
+    }
+
+    public String getStaticTemplate() {
+        return staticTemplate;
+    }
+
     public String[] getAttrParameters() {
         return attrParameters != null ? attrParameters : new String[0];
     }
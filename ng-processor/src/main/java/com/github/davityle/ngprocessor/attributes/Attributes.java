@@ -9,13 +9,13 @@ public class Attributes extends AttributeMap {
         put(new Attribute("NgBlur").setAttrParameters("blur"));
         put(new Attribute("NgChange"));
         put(new Attribute("NgClick"));
-        put(new Attribute("NgDisabled"));
+        put(new Attribute("NgDisabled").setStaticBinding());
         put(new Attribute("NgFocus"));
-        put(new Attribute("NgGone"));
-        put(new Attribute("NgInvisible"));
+        put(new Attribute("NgGone").setStaticBinding());
+        put(new Attribute("NgInvisible").setStaticBinding());
         put(new Attribute("NgLongClick"));
         put(new Attribute("NgModel").setAttrParameters("formatter"));
-        put(new Attribute("NgText").setAttrParameters("formatter"));
+        put(new Attribute("NgText").setAttrParameters("formatter").setStaticBinding());
     }
 }
 
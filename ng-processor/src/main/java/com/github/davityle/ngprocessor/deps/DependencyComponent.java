@@ -1,6 +1,7 @@
 package com.github.davityle.ngprocessor.deps;
 
 import com.github.davityle.ngprocessor.NgProcessor;
+import com.github.davityle.ngprocessor.attrcompiler.Visitors;
 import com.github.davityle.ngprocessor.map.LayoutScopeMapper;
 import com.github.davityle.ngprocessor.map.ModelScopeMapper;
 import com.github.davityle.ngprocessor.source.SourceCreator;
@@ -10,6 +11,7 @@ import com.github.davityle.ngprocessor.util.CollectionUtils;
 import com.github.davityle.ngprocessor.util.ElementUtils;
 import com.github.davityle.ngprocessor.util.ManifestPackageUtils;
 import com.github.davityle.ngprocessor.util.MessageUtils;
+import com.github.davityle.ngprocessor.util.ProcessorTimings;
 import com.github.davityle.ngprocessor.util.ScopeUtils;
 import com.github.davityle.ngprocessor.xml.XmlUtils;
 
@@ -31,6 +33,8 @@ public interface DependencyComponent {
     XmlUtils createXmlUtils();
     CollectionUtils createCollectionUtils();
     ElementUtils elementUtils();
+    Visitors visitors();
+    ProcessorTimings timings();
 
     void inject(ModelScopeMapper modelScopeMapper);
     void inject(LayoutScopeMapper layoutScopeMapper);
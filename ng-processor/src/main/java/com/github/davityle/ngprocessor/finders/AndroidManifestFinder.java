@@ -15,6 +15,7 @@
  */
 package com.github.davityle.ngprocessor.finders;
 
+import com.github.davityle.ngprocessor.util.DaemonCache;
 import com.github.davityle.ngprocessor.util.Option;
 
 import org.w3c.dom.Document;
@@ -32,11 +33,13 @@ public class AndroidManifestFinder {
 
 	private final FileHelper fileHelper;
 	private final OptionsHelper optionsHelper;
+	private final DaemonCache daemonCache;
 
 	@Inject
-	public AndroidManifestFinder(OptionsHelper optionsHelper, FileHelper fileHelper) {
+	public AndroidManifestFinder(OptionsHelper optionsHelper, FileHelper fileHelper, DaemonCache daemonCache) {
 		this.optionsHelper = optionsHelper;
 		this.fileHelper = fileHelper;
+		this.daemonCache = daemonCache;
 	}
 
 	public Option<String> extractAndroidManifest() {
@@ -111,6 +114,12 @@ public class AndroidManifestFinder {
 	}
 
 	private Option<String> parse(File androidManifestFile) {
+		long size = androidManifestFile.length(), lastModified = androidManifestFile.lastModified();
+		Option<String> cached = daemonCache.get(DaemonCache.MANIFESTS, androidManifestFile, size, lastModified, String.class);
+		if (cached.isPresent()) {
+			return cached;
+		}
+
 		DocumentBuilderFactory docBuilderFactory = DocumentBuilderFactory.newInstance();
 
 		Document doc;
@@ -125,6 +134,8 @@ public class AndroidManifestFinder {
 		Element documentElement = doc.getDocumentElement();
 		documentElement.normalize();
 
-		return Option.of(documentElement.getAttribute("package"));
+		String packageName = documentElement.getAttribute("package");
+		daemonCache.put(DaemonCache.MANIFESTS, androidManifestFile, size, lastModified, packageName);
+		return Option.of(packageName);
 	}
 }
@@ -25,13 +25,15 @@ import java.net.URISyntaxException;
 import javax.annotation.processing.Filer;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.inject.Inject;
+import javax.inject.Singleton;
 import javax.tools.FileObject;
 import javax.tools.StandardLocation;
 
-
+@Singleton
 public class FileHelper {
 
 	private final ProcessingEnvironment processingEnv;
+	private Option<FileHolder> rootProjectHolder;
 
 	@Inject
 	public FileHelper(ProcessingEnvironment processingEnv) {
@@ -46,6 +48,25 @@ public class FileHelper {
 	 * appreciated.
 	 */
 	public Option<FileHolder> findRootProjectHolder() {
+		if (rootProjectHolder == null) {
+			rootProjectHolder = createRootProjectHolder();
+		}
+		return rootProjectHolder;
+	}
+
+	/**
+	 * The directory that contains the generated source folder, which is the closest thing to a build
+	 * directory that is available from inside the processor.
+	 */
+	public Option<File> findBuildDirectory() {
+		Option<FileHolder> holder = findRootProjectHolder();
+		if (holder.isAbsent() || holder.get().projectRoot.getParentFile() == null) {
+			return Option.absent();
+		}
+		return Option.of(holder.get().projectRoot.getParentFile());
+	}
+
+	private Option<FileHolder> createRootProjectHolder() {
 		Filer filer = processingEnv.getFiler();
 
 		FileObject dummySourceFile;
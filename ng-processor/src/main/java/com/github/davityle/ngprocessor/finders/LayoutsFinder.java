@@ -16,41 +16,92 @@
 
 package com.github.davityle.ngprocessor.finders;
 
+import com.github.davityle.ngprocessor.util.DaemonCache;
 import com.github.davityle.ngprocessor.util.MessageUtils;
 import com.github.davityle.ngprocessor.util.Option;
 
 import java.io.File;
+import java.io.FileFilter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Inject;
 import javax.lang.model.element.Element;
 
 /**
- * Created by tyler on 3/30/15.
+ * Finds the layout directories and their qualified variants, in order of preference from the directory given to the processor
+ * directly, the roots in the ngResourceRoots option, the LAYOUT_PATH system property, the module
+ * that contains the Filer's source output and finally the first module under the working directory
+ * that has a src/main/res.
+ *
+ * Each root is walked on its own thread, build output and version control directories are never
+ * entered. The subdirectories of every directory that was walked are kept in the {@link DaemonCache}
+ * until the directory changes, so the walk of an unchanged tree doesn't list anything.
  */
 public class LayoutsFinder {
 
+    private static final int MAX_PARENTS_FROM_SOURCE_OUTPUT = 10;
+    private static final String LAYOUT = "layout";
+    private static final String LAYOUT_VARIANT = LAYOUT + '-';
+    private static final String RESOURCES = "src" + File.separator + "main" + File.separator + "res";
+    private static final Set<String> PRUNED = new HashSet<>(Arrays.asList("bin", "build", "compile", "node_modules", "out"));
+
+    private static final FileFilter DIRECTORIES = new FileFilter() {
+        @Override
+        public boolean accept(File file) {
+            String name = file.getName();
+            return file.isDirectory() && !name.startsWith(".") && !PRUNED.contains(name);
+        }
+    };
+
     private final MessageUtils messageUtils;
     private final DefaultLayoutDirProvider defaultLayoutDirProvider;
+    private final OptionsHelper optionsHelper;
+    private final FileHelper fileHelper;
+    private final DaemonCache daemonCache;
 
     @Inject
-    public LayoutsFinder(MessageUtils messageUtils, DefaultLayoutDirProvider defaultLayoutDirProvider){
+    public LayoutsFinder(MessageUtils messageUtils, DefaultLayoutDirProvider defaultLayoutDirProvider, OptionsHelper optionsHelper, FileHelper fileHelper, DaemonCache daemonCache){
         this.messageUtils = messageUtils;
         this.defaultLayoutDirProvider = defaultLayoutDirProvider;
+        this.optionsHelper = optionsHelper;
+        this.fileHelper = fileHelper;
+        this.daemonCache = daemonCache;
     }
 
     public List<File> findLayoutDirs(){
         return defaultLayoutDirProvider.getDefaultLayoutDir().fold(new Option.OptionCB<String, List<File>>() {
             @Override
             public List<File> absent() {
+                List<String> roots = optionsHelper.getResourceRoots();
+                if (!roots.isEmpty()) {
+                    return findLayoutDirs(getRoots(roots));
+                }
+
                 String path = System.getProperty("LAYOUT_PATH", null);
 
                 if(path != null){
                     return getFileFromPath(path);
                 }
 
+                Option<File> module = findModuleOfSourceOutput();
+                if (module.isPresent()) {
+                    return findLayoutDirs(Collections.singletonList(module.get()));
+                }
+
                 return findLayoutDirs(new File("."));
             }
 
@@ -61,49 +112,174 @@ public class LayoutsFinder {
         });
     }
 
+    /**
+     * a layout directory given directly, along with its qualified variants when it is named layout
+     */
     private List<File> getFileFromPath(String path){
         File file = new File(path);
         if(!file.exists()){
             messageUtils.error(Option.<Element>absent(), "The layout file path '%s' does not exist", path);
             return new ArrayList<>();
         }
-        return Collections.singletonList(file);
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (!file.getName().equals(LAYOUT) || parent == null)
+            return Collections.singletonList(file);
+
+        List<File> dirs = new ArrayList<>();
+        dirs.add(file);
+        for (File sibling : listDirectories(parent)) {
+            if (sibling.getName().startsWith(LAYOUT_VARIANT)) {
+                dirs.add(sibling);
+            }
+        }
+        return dirs;
+    }
+
+    private List<File> getRoots(List<String> paths) {
+        List<File> roots = new ArrayList<>();
+        for (String path : paths) {
+            File root = new File(path);
+            if (!root.isDirectory()) {
+                messageUtils.error(Option.<Element>absent(), "The resource root '%s' does not exist", path);
+                continue;
+            }
+            roots.add(root);
+        }
+        return roots;
+    }
+
+    /**
+     * the closest parent of the Filer's source output that is a module with resources, which is the
+     * module being compiled for a normal Gradle layout
+     */
+    private Option<File> findModuleOfSourceOutput() {
+        Option<FileHelper.FileHolder> holder = fileHelper.findRootProjectHolder();
+        if (holder.isAbsent())
+            return Option.absent();
+
+        File dir = holder.get().projectRoot;
+        for (int i = 0; i < MAX_PARENTS_FROM_SOURCE_OUTPUT && dir != null; i++) {
+            if (new File(dir, RESOURCES).isDirectory())
+                return Option.of(dir);
+            dir = dir.getParentFile();
+        }
+        return Option.absent();
     }
 
     private List<File> findLayoutDirs(File f){
-        File[] kids = f.listFiles();
-        if(kids != null) {
-            for (File file : kids) {
-                if (isNonBuildDirectory(file)) {
-                    File resourceFile = new File(file, "src/main/res/");
-                    if (resourceFile.exists() && resourceFile.isDirectory()) {
-                        List<File> dirs = new ArrayList<>();
-                        findLayoutDirs(file, dirs);
-                        return dirs;
-                    }
-                }
+        for (File file : listDirectories(f)) {
+            File resourceFile = new File(file, RESOURCES);
+            if (resourceFile.isDirectory()) {
+                return findLayoutDirs(Collections.singletonList(file));
             }
         }
         return Collections.emptyList();
     }
 
-    private void findLayoutDirs(File f, List<File> files){
-        File[] kids = f.listFiles();
-        if(kids != null) {
-            for (File file : kids) {
-                if (isNonBuildDirectory(file)) {
-                    if (file.getName().equals("layout")) {
-                        files.add(file);
-                    } else {
-                        findLayoutDirs(file, files);
-                    }
+    /**
+     * walks the roots concurrently on a pool bounded by the ngLayoutParseThreads option, the layout
+     * directories are in the order of the roots and each is only returned once
+     */
+    private List<File> findLayoutDirs(List<File> roots) {
+        List<List<File>> results = new ArrayList<>(roots.size());
+        int threads = Math.min(optionsHelper.getLayoutParseThreads(), roots.size());
+        if (threads <= 1) {
+            for (File root : roots) {
+                results.add(new Walk(root).call());
+            }
+        } else {
+            results.addAll(walk(roots, threads));
+        }
+
+        Map<String, File> dirs = new LinkedHashMap<>();
+        for (List<File> result : results) {
+            for (File dir : result) {
+                if (!dirs.containsKey(dir.getAbsolutePath())) {
+                    dirs.put(dir.getAbsolutePath(), dir);
                 }
             }
         }
+        return new ArrayList<>(dirs.values());
     }
 
-    private boolean isNonBuildDirectory(File file) {
-        String name = file.getName();
-        return file.isDirectory() && !name.equals("compile") && !name.equals("bin") && !name.equals("build");
+    private List<List<File>> walk(List<File> roots, int threads) {
+        List<Walk> walks = new ArrayList<>(roots.size());
+        for (File root : roots) {
+            walks.add(new Walk(root));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "ngandroid-layout-finder-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            List<List<File>> results = new ArrayList<>(roots.size());
+            for (Future<List<File>> future : executor.invokeAll(walks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while looking for layouts", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * the directories in a directory that may be walked, from the {@link DaemonCache} if it hasn't
+     * changed since it was last listed
+     */
+    private File[] listDirectories(File dir) {
+        long size = dir.length(), lastModified = dir.lastModified();
+        Option<File[]> cached = daemonCache.get(DaemonCache.LISTINGS, dir, size, lastModified, File[].class);
+        if (cached.isPresent())
+            return cached.get();
+
+        File[] kids = dir.listFiles(DIRECTORIES);
+        if (kids == null)
+            return new File[0];
+        Arrays.sort(kids);
+        daemonCache.put(DaemonCache.LISTINGS, dir, size, lastModified, kids);
+        return kids;
+    }
+
+    /**
+     * every layout directory under a root, including the variants such as layout-land
+     */
+    private class Walk implements Callable<List<File>> {
+        private final File root;
+
+        private Walk(File root) {
+            this.root = root;
+        }
+
+        @Override
+        public List<File> call() {
+            List<File> files = new ArrayList<>();
+            walk(root, files);
+            return files;
+        }
+
+        private void walk(File f, List<File> files) {
+            for (File file : listDirectories(f)) {
+                if (file.getName().equals(LAYOUT) || file.getName().startsWith(LAYOUT_VARIANT)) {
+                    files.add(file);
+                } else {
+                    walk(file, files);
+                }
+            }
+        }
     }
 }
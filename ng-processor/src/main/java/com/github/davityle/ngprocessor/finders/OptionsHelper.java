@@ -15,7 +15,13 @@
  */
 package com.github.davityle.ngprocessor.finders;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.inject.Inject;
@@ -23,7 +29,17 @@ import javax.inject.Inject;
 public class OptionsHelper {
 
 	enum Option {
-		ANDROID_MANIFEST_FILE("androidManifestFile", null);
+		ANDROID_MANIFEST_FILE("androidManifestFile", null),
+		DAEMON_CACHE("ngDaemonCache", "true"),
+		EXPRESSION_MODEL("ngExpressionModel", "tree"),
+		LAYOUT_INDEX("ngLayoutIndex", "true"),
+		LAYOUT_INDEX_FILE("ngLayoutIndexFile", null),
+		LAYOUT_PARSE_THREADS("ngLayoutParseThreads", null),
+		LAYOUT_PARSER("ngLayoutParser", "stream"),
+		RENDER_THREADS("ngRenderThreads", "1"),
+		RESOURCE_ROOTS("ngResourceRoots", null),
+		SOURCE_EMITTER("ngSourceEmitter", "velocity"),
+		TIMINGS_REPORT("ngTimingsReport", null);
 
 		private String key;
 		private String defaultValue;
@@ -42,6 +58,17 @@ public class OptionsHelper {
 		}
 	}
 
+	/**
+	 * the keys of every option the processor understands
+	 */
+	public static Set<String> getSupportedOptions() {
+		Set<String> keys = new LinkedHashSet<>();
+		for (Option option : Option.values()) {
+			keys.add(option.getKey());
+		}
+		return keys;
+	}
+
 	private final Map<String, String> options;
 
 	@Inject
@@ -53,6 +80,78 @@ public class OptionsHelper {
 		return getString(Option.ANDROID_MANIFEST_FILE);
 	}
 
+	/**
+	 * whether what was extracted from unchanged layouts and manifests is reused by later builds in the same daemon
+	 */
+	public boolean useDaemonCache() {
+		return getBoolean(Option.DAEMON_CACHE);
+	}
+
+	/**
+	 * expressions are kept as trees unless ngExpressionModel is set to compact
+	 */
+	public boolean useCompactExpressions() {
+		return "compact".equalsIgnoreCase(getString(Option.EXPRESSION_MODEL));
+	}
+
+	public boolean useLayoutIndex() {
+		return getBoolean(Option.LAYOUT_INDEX);
+	}
+
+	public String getLayoutIndexFile() {
+		return getString(Option.LAYOUT_INDEX_FILE);
+	}
+
+	/**
+	 * the number of threads used to find and parse layouts, defaults to the number of available processors
+	 */
+	public int getLayoutParseThreads() {
+		return Math.max(1, getInt(Option.LAYOUT_PARSE_THREADS, Runtime.getRuntime().availableProcessors()));
+	}
+
+	/**
+	 * layouts are scanned with a streaming parser unless ngLayoutParser is set to dom
+	 */
+	public boolean useStreamingLayoutParser() {
+		return !"dom".equalsIgnoreCase(getString(Option.LAYOUT_PARSER));
+	}
+
+	/**
+	 * the number of threads used to render sources, they are rendered on the processing thread by default
+	 */
+	public int getRenderThreads() {
+		return Math.max(1, getInt(Option.RENDER_THREADS, 1));
+	}
+
+	/**
+	 * the directories searched for layouts, separated by commas or the path separator
+	 */
+	public List<String> getResourceRoots() {
+		List<String> roots = new ArrayList<>();
+		String value = getString(Option.RESOURCE_ROOTS);
+		if (value == null)
+			return roots;
+		for (String root : value.split("[," + Pattern.quote(File.pathSeparator) + "]")) {
+			if (!root.trim().isEmpty()) {
+				roots.add(root.trim());
+			}
+		}
+		return roots;
+	}
+
+	/**
+	 * sources are rendered with the velocity templates unless ngSourceEmitter is set to direct
+	 */
+	public boolean useDirectSourceEmitter() {
+		return "direct".equalsIgnoreCase(getString(Option.SOURCE_EMITTER));
+	}
+
+	/**
+	 * where to write the json timings report, per layout timings are only collected when this is set
+	 */
+	public String getTimingsReportFile() {
+		return getString(Option.TIMINGS_REPORT);
+	}
 
 	private String getString(Option option) {
 		String key = option.getKey();
@@ -67,4 +166,15 @@ public class OptionsHelper {
 		return Boolean.valueOf(getString(option));
 	}
 
+	private int getInt(Option option, int defaultValue) {
+		String value = getString(option);
+		if (value == null)
+			return defaultValue;
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
 }
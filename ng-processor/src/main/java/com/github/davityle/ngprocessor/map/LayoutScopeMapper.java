@@ -24,7 +24,13 @@ import com.github.davityle.ngprocessor.util.Option;
 import com.github.davityle.ngprocessor.util.Tuple;
 import com.github.davityle.ngprocessor.xml.XmlScope;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -46,36 +52,49 @@ public class LayoutScopeMapper {
         this.fileNodeMap = fileNodeMap;
     }
 
+    /**
+     * scopes are indexed by name once, each layout then looks up the scopes it declares rather than
+     * being searched for every scope. the scopes of a layout keep the order of the scope set.
+     */
     public Map<Layout, Collection<Scope>> mapLayoutsToScopes(){
+        final Map<String, List<Scope>> scopesByName = new HashMap<>();
+        final Map<Scope, Integer> order = new HashMap<>();
+        for (Scope scope : scopes) {
+            Set<Modifier> modifiers = scope.getJavaElement().getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.PROTECTED)) {
+                messageUtils.error(Option.of(scope.getJavaElement()), "Unable to access Scope '%s'. Must have default or public access", scope.toString());
+            }
+            List<Scope> named = scopesByName.get(scope.getName());
+            if (named == null) {
+                named = new ArrayList<>(1);
+                scopesByName.put(scope.getName(), named);
+            }
+            named.add(scope);
+            order.put(scope, order.size());
+        }
+
         return collectionUtils.map(fileNodeMap, new CollectionUtils.Function<Tuple<Layout, Collection<XmlScope>>, Tuple<Layout, Collection<Scope>>>() {
             @Override
             public Tuple<Layout, Collection<Scope>> apply(final Tuple<Layout, Collection<XmlScope>> layout) {
-                return Tuple.of(layout.getFirst(), collectionUtils.filter(scopes, new CollectionUtils.Function<Scope, Boolean>() {
-                    @Override
-                    public Boolean apply(Scope scope) {
-                        Set<Modifier> modifiers = scope.getJavaElement().getModifiers();
-                        if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.PROTECTED)) {
-                            messageUtils.error(Option.of(scope.getJavaElement()), "Unable to access Scope '%s'. Must have default or public access", scope.toString());
-                        }
-                        Option<XmlScope> xmlScopeOpt = findScopeInLayout(scope, layout.getSecond());
-                        if(xmlScopeOpt.isPresent()) {
-                            scope.addXmlScope(layout.getFirst(), xmlScopeOpt.get());
-                            return true;
-                        } else {
-                            return false;
+                List<Scope> layoutScopes = new ArrayList<>();
+                Set<String> seen = new HashSet<>();
+                for (XmlScope xmlScope : layout.getSecond()) {
+                    List<Scope> named = scopesByName.get(xmlScope.getScopeName());
+                    if (named != null && seen.add(xmlScope.getScopeName())) {
+                        for (Scope scope : named) {
+                            scope.addXmlScope(layout.getFirst(), xmlScope);
+                            layoutScopes.add(scope);
                         }
                     }
-                }));
+                }
+                Collections.sort(layoutScopes, new Comparator<Scope>() {
+                    @Override
+                    public int compare(Scope lhs, Scope rhs) {
+                        return order.get(lhs).compareTo(order.get(rhs));
+                    }
+                });
+                return Tuple.of(layout.getFirst(), (Collection<Scope>) layoutScopes);
             }
         });
     }
-
-    private Option<XmlScope> findScopeInLayout(Scope scope, Collection<XmlScope> views) {
-        for(XmlScope node : views){
-            if(scope.getName().equals(node.getScopeName())) {
-                return Option.of(node);
-            }
-        }
-        return Option.absent();
-    }
 }
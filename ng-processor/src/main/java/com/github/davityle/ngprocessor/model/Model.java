@@ -1,12 +1,18 @@
 package com.github.davityle.ngprocessor.model;
 
+import com.github.davityle.ngprocessor.util.Option;
+
+import javax.lang.model.element.Element;
+
 public class Model {
 
     private final String name, typeName;
+    private final Option<? extends Element> typeElement;
 
-    public Model(String name, String typeName) {
+    public Model(String name, String typeName, Option<? extends Element> typeElement) {
         this.name = name;
         this.typeName = typeName;
+        this.typeElement = typeElement;
     }
 
     public String getName(){
@@ -17,4 +23,11 @@ public class Model {
         return typeName;
     }
 
+    /**
+     * the declaration of the model's type, absent if the type could not be resolved
+     */
+    public Option<? extends Element> getTypeElement() {
+        return typeElement;
+    }
+
 }
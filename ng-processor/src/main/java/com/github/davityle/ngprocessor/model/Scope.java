@@ -5,7 +5,11 @@ import com.github.davityle.ngprocessor.xml.XmlView;
 
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.lang.model.element.Element;
 
@@ -15,6 +19,7 @@ public class Scope {
     private final Collection<Model> ngModels;
     private final String scopeName, scopeType, javaName;
     private final Map<Layout, XmlScope> xmlScopes;
+    private final ConcurrentMap<String, SharedPaths> sharedPaths = new ConcurrentHashMap<>();
 
     public Scope(Element javaElement, Collection<Model> ngModels, String scopeName, String scopeType, String javaName) {
         this.javaElement = javaElement;
@@ -45,6 +50,22 @@ public class Scope {
         return xmlScopes.get(new Layout(layout)).getViews();
     }
 
+    /**
+     * the paths shared by the bindings of the scope in a layout, both the scope and the layout
+     * sources need them so they are only worked out once
+     */
+    public SharedPaths getSharedPaths(String layout) {
+        SharedPaths paths = sharedPaths.get(layout);
+        if (paths == null) {
+            paths = SharedPaths.of(this, getViews(layout));
+            SharedPaths previous = sharedPaths.putIfAbsent(layout, paths);
+            if (previous != null) {
+                paths = previous;
+            }
+        }
+        return paths;
+    }
+
     public Element getJavaElement() {
         return javaElement;
     }
@@ -53,6 +74,21 @@ public class Scope {
         return ngModels;
     }
 
+    /**
+     * the elements that the sources generated for this scope are derived from, the scope itself
+     * followed by the types of its models
+     */
+    public Set<Element> getOriginatingElements() {
+        Set<Element> elements = new LinkedHashSet<>();
+        elements.add(javaElement);
+        for (Model model : ngModels) {
+            if (model.getTypeElement().isPresent()) {
+                elements.add(model.getTypeElement().get());
+            }
+        }
+        return elements;
+    }
+
     public String getName() {
         return scopeName;
     }
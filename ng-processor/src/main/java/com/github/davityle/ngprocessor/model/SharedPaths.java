@@ -0,0 +1,147 @@
+package com.github.davityle.ngprocessor.model;
+
+import com.github.davityle.ngprocessor.attrcompiler.ObserveExpressionVisitor;
+import com.github.davityle.ngprocessor.attrcompiler.sources.Source;
+import com.github.davityle.ngprocessor.xml.XmlAttribute;
+import com.github.davityle.ngprocessor.xml.XmlView;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The model paths that more than one binding of a scope reads in a layout. The layout class reads
+ * each of them once per pass and the bindings use that value instead of their own getters.
+ *
+ * A pass starts whenever a model the bindings observe notifies its observers, the layout registers
+ * an observer that starts it before any of the bindings, and when the layout is attached. Only the
+ * code that runs during a pass shares values, listeners such as ngClick read the model themselves.
+ */
+public final class SharedPaths {
+
+    public static final String PASS_OBSERVER = "passObserver_";
+
+    private static final SharedPaths NONE = new SharedPaths(new ArrayList<SharedPath>(), new HashMap<String, String>(), new HashSet<XmlAttribute>());
+
+    /**
+     * the attributes whose getters are evaluated during a pass
+     */
+    private static final Set<String> BINDINGS = new HashSet<>(Arrays.asList("NgDisabled", "NgFocus", "NgGone", "NgInvisible", "NgModel", "NgText"));
+
+    private final Collection<SharedPath> paths;
+    private final Map<String, String> accessors;
+    private final Set<XmlAttribute> sharing;
+
+    private SharedPaths(Collection<SharedPath> paths, Map<String, String> accessors, Set<XmlAttribute> sharing) {
+        this.paths = paths;
+        this.accessors = accessors;
+        this.sharing = sharing;
+    }
+
+    static SharedPaths of(Scope scope, Collection<XmlView> views) {
+        Map<String, Integer> uses = new HashMap<>();
+        List<XmlAttribute> bindings = new ArrayList<>();
+        for (XmlView view : views) {
+            for (XmlAttribute attr : view.getAttributes()) {
+                if (BINDINGS.contains(attr.getAttributeClassName()) && !attr.isStaticBinding()) {
+                    bindings.add(attr);
+                    for (String path : attr.getSource().getPaths()) {
+                        Integer count = uses.get(path);
+                        uses.put(path, count == null ? 1 : count + 1);
+                    }
+                }
+            }
+        }
+
+        Map<String, SharedPath> paths = new LinkedHashMap<>();
+        Map<String, String> accessors = new HashMap<>();
+        Set<XmlAttribute> sharing = new LinkedHashSet<>();
+        for (XmlAttribute attr : bindings) {
+            Source source = attr.getSource();
+            for (String path : source.getPaths()) {
+                if (uses.get(path) < 2)
+                    continue;
+                if (!paths.containsKey(path)) {
+                    String type = source.getPathType(path, scope);
+                    if (type.isEmpty()) {
+                        // it can't be declared so each binding keeps reading it itself
+                        uses.put(path, 0);
+                        continue;
+                    }
+                    String name = "shared" + paths.size();
+                    paths.put(path, new SharedPath(name, type, path, source));
+                    accessors.put(path, name + "_()");
+                }
+                sharing.add(attr);
+            }
+        }
+        return paths.isEmpty() ? NONE : new SharedPaths(paths.values(), accessors, sharing);
+    }
+
+    public boolean isEmpty() {
+        return paths.isEmpty();
+    }
+
+    public Collection<SharedPath> getPaths() {
+        return paths;
+    }
+
+    /**
+     * the getter of an attribute during a pass, reading the shared paths from the layout class
+     */
+    public String getGetterSource(XmlAttribute attr, String value, String xmlValuePrependage) {
+        if (!sharing.contains(attr))
+            return attr.getSource().getGetterSource(value, xmlValuePrependage);
+        return attr.getSource().getGetterSource(value, xmlValuePrependage, accessors);
+    }
+
+    /**
+     * the statements that register an observer with everything the sharing bindings observe, once each
+     * and in the order the bindings register their own
+     */
+    public Collection<String> getObserverRegistrations(String observer, String prependage) {
+        Set<String> registrations = new LinkedHashSet<>();
+        for (XmlAttribute attr : sharing) {
+            for (ObserveExpressionVisitor.Observation observation : attr.getSource().getObservations()) {
+                if (observation.isObserved()) {
+                    registrations.add(observation.getSource(observer, prependage));
+                }
+            }
+        }
+        return registrations;
+    }
+
+    public static final class SharedPath {
+        private final String name, type, path;
+        private final Source source;
+
+        private SharedPath(String name, String type, String path, Source source) {
+            this.name = name;
+            this.type = type;
+            this.path = path;
+            this.source = source;
+        }
+
+        /**
+         * the prefix of the method that reads the path and of the fields it keeps the value in
+         */
+        public String getName() {
+            return name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getSource(String value) {
+            return source.getPathSource(path, value);
+        }
+    }
+}
@@ -16,20 +16,38 @@
 
 package com.github.davityle.ngprocessor.source;
 
+import com.github.davityle.ngprocessor.finders.OptionsHelper;
+import com.github.davityle.ngprocessor.model.Layout;
+import com.github.davityle.ngprocessor.model.Scope;
+import com.github.davityle.ngprocessor.source.emitters.SourceEmitter;
+import com.github.davityle.ngprocessor.source.emitters.SourceWriter;
 import com.github.davityle.ngprocessor.source.links.LayoutSourceLink;
 import com.github.davityle.ngprocessor.source.links.NgModelSourceLink;
 import com.github.davityle.ngprocessor.source.links.ScopeSourceLink;
+import com.github.davityle.ngprocessor.source.links.SourceLink;
 import com.github.davityle.ngprocessor.util.MessageUtils;
 import com.github.davityle.ngprocessor.util.Option;
+import com.github.davityle.ngprocessor.util.ProcessorTimings;
+import com.github.davityle.ngprocessor.xml.XmlAttribute;
+import com.github.davityle.ngprocessor.xml.XmlView;
 
 import org.apache.velocity.Template;
 import org.apache.velocity.app.VelocityEngine;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.processing.Filer;
 import javax.inject.Inject;
@@ -44,6 +62,9 @@ public class SourceCreator {
 
     @Inject MessageUtils messageUtils;
     @Inject Filer filer;
+    @Inject OptionsHelper optionsHelper;
+    @Inject SourceEmitter sourceEmitter;
+    @Inject ProcessorTimings timings;
 
     public SourceCreator(List<NgModelSourceLink> modelSourceLinks, Collection<LayoutSourceLink> layoutSourceLinks, Collection<ScopeSourceLink> scopeSourceLinks) {
         this.modelSourceLinks = modelSourceLinks;
@@ -51,54 +72,205 @@ public class SourceCreator {
         this.scopeSourceLinks = scopeSourceLinks;
     }
 
+    /**
+     * renders every source file, either through the velocity templates or, when the ngSourceEmitter
+     * option is set to direct, with the {@link SourceEmitter} which doesn't need velocity at all.
+     *
+     * When the ngRenderThreads option allows more than one thread, sources are rendered concurrently
+     * into strings. Everything the renderers would ask javac for is resolved on the processing thread
+     * first, and the sources are still written through the filer on this thread in the same order as
+     * a serial run.
+     */
     public void createSourceFiles(){
-        Properties props = new Properties();
-        props.setProperty("runtime.log.logsystem.class", "org.apache.velocity.runtime.log.SystemLogChute");
-        props.setProperty("resource.loader", "classpath");
-        props.setProperty("classpath.resource.loader.class", "org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader");
-
+        boolean direct = optionsHelper.useDirectSourceEmitter();
+        Template vtModel = null, vtScope = null, vtLayout = null;
+        if (!direct) {
+            VelocityEngine ve = TemplateEngine.get();
+            vtModel = ve.getTemplate("templates/ngmodel.vm");
+            vtScope = ve.getTemplate("templates/scope.vm");
+            vtLayout = ve.getTemplate("templates/layout.vm");
+        }
 
-        VelocityEngine ve = new VelocityEngine(props);
-        ve.init();
+        List<Rendering> renderings = new ArrayList<>();
+        for (NgModelSourceLink ms : modelSourceLinks){
+            renderings.add(new ModelRendering(ms, direct ? null : vtModel));
+        }
+        for (ScopeSourceLink ss : scopeSourceLinks){
+            renderings.add(new ScopeRendering(ss, direct ? null : vtScope));
+        }
+        for(LayoutSourceLink lsl : layoutSourceLinks){
+            renderings.add(new LayoutRendering(lsl, direct ? null : vtLayout));
+        }
 
-        Template vtModel = ve.getTemplate("templates/ngmodel.vm");
-        Template vtScope = ve.getTemplate("templates/scope.vm");
-        Template vtLayout = ve.getTemplate("templates/layout.vm");
+        int threads = Math.min(optionsHelper.getRenderThreads(), renderings.size());
+        if (threads <= 1) {
+            for (Rendering rendering : renderings) {
+                try {
+                    writeSource(rendering.link, rendering.call());
+                } catch (IOException e) {
+                    rendering.error(e);
+                }
+            }
+        } else {
+            resolveTypes();
+            render(renderings, threads);
+        }
+    }
 
-        for (NgModelSourceLink ms : modelSourceLinks){
-            try {
-                JavaFileObject jfo = filer.createSourceFile(ms.getSourceFileName(), ms.getElements());
-                Writer writer = jfo.openWriter();
-                vtModel.merge(ms.getVelocityContext(), writer);
-                writer.flush();
-                writer.close();
-            }catch (IOException e){
-                messageUtils.error(Option.of(ms.getElements()[0]), e.getMessage());
+    /**
+     * does every type check that rendering needs so that the renderers only find them in the caches,
+     * javac's elements and types must not be used off the processing thread
+     */
+    private void resolveTypes() {
+        for (ScopeSourceLink ss : scopeSourceLinks) {
+            Scope scope = ss.getScope();
+            for (Layout layout : scope.getLayouts()) {
+                scope.getSharedPaths(layout.getPath());
+                for (XmlView view : scope.getViews(layout.getPath())) {
+                    for (XmlAttribute attr : view.getAttributes()) {
+                        if (!attr.isStaticBinding()) {
+                            attr.getSource().getType(scope);
+                        }
+                    }
+                }
             }
         }
+    }
 
-        for (ScopeSourceLink ss : scopeSourceLinks){
-            try {
-                JavaFileObject jfo = filer.createSourceFile(ss.getSourceFileName(), ss.getElements());
-                Writer writer = jfo.openWriter();
-                vtScope.merge(ss.getVelocityContext(), writer);
-                writer.flush();
-                writer.close();
-            }catch (IOException e){
-                messageUtils.error(Option.of(ss.getElements()[0]), e.getMessage());
+    /**
+     * renders on a pool of the given size, each source is written as soon as it and every source
+     * before it have been rendered
+     */
+    private void render(List<Rendering> renderings, int threads) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "ngandroid-renderer-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            List<Future<String>> sources = new ArrayList<>(renderings.size());
+            for (Rendering rendering : renderings) {
+                sources.add(executor.submit(rendering));
             }
+            for (int i = 0; i < renderings.size(); i++) {
+                Rendering rendering = renderings.get(i);
+                try {
+                    writeSource(rendering.link, sources.get(i).get());
+                } catch (IOException e) {
+                    rendering.error(e);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        rendering.error((IOException) e.getCause());
+                    } else if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    } else if (e.getCause() instanceof Error) {
+                        throw (Error) e.getCause();
+                    } else {
+                        throw new IllegalStateException(e.getCause());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rendering sources", e);
+        } finally {
+            executor.shutdownNow();
         }
+    }
 
-        for(LayoutSourceLink lsl : layoutSourceLinks){
-            try {
-                JavaFileObject jfo = filer.createSourceFile(lsl.getSourceFileName(), lsl.getElements());
-                Writer writer = jfo.openWriter();
-                vtLayout.merge(lsl.getVelocityContext(), writer);
-                writer.flush();
-                writer.close();
-            }catch (IOException e){
-                messageUtils.error(Option.<Element>absent(), e.getMessage());
+    /**
+     * renders a single source into a string, with either a template or the {@link SourceEmitter}
+     */
+    private abstract class Rendering implements Callable<String> {
+        private final SourceLink link;
+        private final String group, name;
+        protected final Template template;
+
+        private Rendering(SourceLink link, String group, String name, Template template) {
+            this.link = link;
+            this.group = group;
+            this.name = name;
+            this.template = template;
+        }
+
+        @Override
+        public String call() throws IOException {
+            ProcessorTimings.Sample start = timings.enterUnit(group, name);
+            StringWriter writer = new StringWriter();
+            if (template == null) {
+                emit(writer);
+            } else {
+                StringWriter merged = new StringWriter();
+                template.merge(link.getVelocityContext(), merged);
+                new SourceWriter(writer).source(merged.toString()).flush();
             }
+            timings.exitUnit(ProcessorTimings.RENDER, start);
+            return writer.toString();
+        }
+
+        protected abstract void emit(Writer writer) throws IOException;
+
+        protected void error(IOException e) {
+            messageUtils.error(Option.of(link.getElements()[0]), e.getMessage());
+        }
+    }
+
+    private class ModelRendering extends Rendering {
+        private final NgModelSourceLink ms;
+
+        private ModelRendering(NgModelSourceLink ms, Template template) {
+            super(ms, ProcessorTimings.SOURCES, ms.getSourceFileName(), template);
+            this.ms = ms;
+        }
+
+        @Override
+        protected void emit(Writer writer) throws IOException {
+            sourceEmitter.emitModel(ms, writer);
+        }
+    }
+
+    private class ScopeRendering extends Rendering {
+        private final ScopeSourceLink ss;
+
+        private ScopeRendering(ScopeSourceLink ss, Template template) {
+            super(ss, ProcessorTimings.SOURCES, ss.getSourceFileName(), template);
+            this.ss = ss;
         }
+
+        @Override
+        protected void emit(Writer writer) throws IOException {
+            sourceEmitter.emitScope(ss, writer);
+        }
+    }
+
+    private class LayoutRendering extends Rendering {
+        private final LayoutSourceLink lsl;
+
+        private LayoutRendering(LayoutSourceLink lsl, Template template) {
+            super(lsl, ProcessorTimings.LAYOUTS, ProcessorTimings.layoutName(new File(lsl.getLayoutPath())), template);
+            this.lsl = lsl;
+        }
+
+        @Override
+        protected void emit(Writer writer) throws IOException {
+            sourceEmitter.emitLayout(lsl, writer);
+        }
+
+        @Override
+        protected void error(IOException e) {
+            messageUtils.error(Option.<Element>absent(), e.getMessage());
+        }
+    }
+
+    private void writeSource(SourceLink link, String source) throws IOException {
+        JavaFileObject jfo = filer.createSourceFile(link.getSourceFileName(), link.getElements());
+        Writer writer = jfo.openWriter();
+        writer.write(source);
+        writer.flush();
+        writer.close();
     }
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.source;
+
+import org.apache.velocity.app.VelocityEngine;
+
+import java.util.Properties;
+
+/**
+ * the templates and the attribute snippets they #parse only come from the processor jar, so one
+ * engine with a never expiring template cache is shared by every round of every compilation
+ */
+public class TemplateEngine {
+
+    private static VelocityEngine velocityEngine;
+
+    private TemplateEngine(){}
+
+    public static synchronized VelocityEngine get() {
+        if (velocityEngine == null) {
+            Properties props = new Properties();
+            props.setProperty("runtime.log.logsystem.class", "org.apache.velocity.runtime.log.SystemLogChute");
+            props.setProperty("resource.loader", "classpath");
+            props.setProperty("classpath.resource.loader.class", "org.apache.velocity.runtime.resource.loader.ClasspathResourceLoader");
+            props.setProperty("classpath.resource.loader.cache", "true");
+            props.setProperty("classpath.resource.loader.modificationCheckInterval", "-1");
+
+            VelocityEngine ve = new VelocityEngine(props);
+            ve.init();
+            velocityEngine = ve;
+        }
+        return velocityEngine;
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.source.emitters;
+
+import com.github.davityle.ngprocessor.attrcompiler.sources.Source;
+import com.github.davityle.ngprocessor.model.Scope;
+import com.github.davityle.ngprocessor.model.SharedPaths;
+import com.github.davityle.ngprocessor.source.TemplateEngine;
+import com.github.davityle.ngprocessor.xml.XmlAttribute;
+import com.github.davityle.ngprocessor.xml.XmlView;
+
+import org.apache.velocity.VelocityContext;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * the direct equivalent of the attrs/class and attrs/attach snippets, each attribute writes the
+ * class that is nested in the scope and the code that attaches it to its view in the controller.
+ * An attribute without an equivalent here is rendered from its snippet instead.
+ */
+class AttributeEmitter {
+
+    private static final String NULL_POINTER_WARNING = "android.util.Log.w(\"NgAndroid\", \"Unable to get initial value for view '%s' because of null pointer\");";
+
+    /**
+     * writes the attribute's class inside of the layout class of the scope, the same as attrs/class/*Class.java
+     */
+    void emitClass(SourceWriter writer, XmlAttribute attr, XmlView view, Scope scope, SharedPaths sharedPaths, String pack, String packageName) throws IOException {
+        String attrClassName = attr.getClassName();
+        String viewType = view.getElementType();
+        Source source = attr.getSource();
+        String getter = sharedPaths.getGetterSource(attr, scope.getJavaName() + "$$NgScope.this.scope.", packageName + ".");
+
+        switch (attr.getAttributeClassName()) {
+            case "NgClick":
+                writer.open("public final class ", attrClassName, " implements android.view.View.OnClickListener {");
+                writer.blank();
+                writer.line("private ", attrClassName, "(", viewType, " view_) {}");
+                writer.blank();
+                writer.open("@Override public void onClick(android.view.View view) {");
+                writer.line(getter, ";");
+                writer.close("}");
+                writer.close("}");
+                break;
+            case "NgLongClick":
+                writer.open("public final class ", attrClassName, " implements android.view.View.OnLongClickListener {");
+                writer.blank();
+                writer.line("private ", attrClassName, "(", viewType, " view_) {}");
+                writer.blank();
+                writer.open("@Override public boolean onLongClick(android.view.View view) {");
+                writer.line(getter, ";");
+                writer.line("return false;");
+                writer.close("}");
+                writer.close("}");
+                break;
+            case "NgDisabled":
+                openObserver(writer, attrClassName, viewType, view, "com.ngandroid.lib.ng.ModelObserver", "null");
+                writer.open("@Override public void invoke(Object val) {");
+                writer.line("view_.setEnabled(!", getter, ");");
+                writer.close("}");
+                writer.close("}");
+                break;
+            case "NgFocus":
+                openObserver(writer, attrClassName, viewType, view, "com.ngandroid.lib.ng.ModelObserver", "null");
+                writer.open("@Override public void invoke(Object disabled) {");
+                writer.open("if(", getter, "){");
+                writer.line("view_.requestFocus();");
+                writer.next("} else {");
+                writer.line("view_.clearFocus();");
+                writer.close("}");
+                writer.close("}");
+                writer.close("}");
+                break;
+            case "NgGone":
+                emitVisibility(writer, attrClassName, viewType, view, getter, "GONE");
+                break;
+            case "NgInvisible":
+                emitVisibility(writer, attrClassName, viewType, view, getter, "INVISIBLE");
+                break;
+            case "NgText": {
+                String type = source.getType(scope);
+                openObserver(writer, attrClassName, viewType, view, "com.ngandroid.lib.ng.ModelObserver<" + type + ">", getter);
+                writer.open("@Override public void invoke(", type, " arg) {");
+                writer.line("view_.setText(ngOptions_.getValueFormatter().format(arg, view_.getText().toString()));");
+                writer.close("}");
+                writer.close("}");
+                break;
+            }
+            case "NgModel":
+                emitModelClass(writer, attrClassName, viewType, view, scope, source, getter, pack);
+                break;
+            case "NgBlur":
+            case "NgChange":
+            case "NgScope":
+                break;
+            default: {
+                VelocityContext context = snippetContext(attr, view, scope, pack, packageName);
+                context.put("sharedPaths", sharedPaths);
+                context.put("viewType", viewType);
+                String type = source.getType(scope);
+                context.put("type", type);
+                context.put("isBoolType", isBoolType(type));
+                emitSnippet(writer, attr.getClassTemplate(), context);
+                break;
+            }
+        }
+    }
+
+    /**
+     * writes the code that creates the attribute's class and attaches it to the view, the same as
+     * attrs/attach/*Attach.java
+     */
+    void emitAttach(SourceWriter writer, XmlAttribute attr, XmlView view, Scope scope, String javaName, String pack, String packageName) throws IOException {
+        String attrClassName = attr.getClassName();
+        String viewName = view.getId();
+        Source source = attr.getSource();
+
+        switch (attr.getAttributeClassName()) {
+            case "NgBlur":
+            case "NgChange":
+            case "NgScope":
+                return;
+            case "NgClick":
+            case "NgLongClick":
+            case "NgDisabled":
+            case "NgFocus":
+            case "NgGone":
+            case "NgInvisible":
+            case "NgText":
+            case "NgModel":
+                break;
+            default: {
+                VelocityContext context = snippetContext(attr, view, scope, pack, packageName);
+                context.put("javaName", javaName);
+                context.put("isBoolType", isBoolType(source.getType(scope)));
+                emitSnippet(writer, attr.getAttachTemplate(), context);
+                return;
+            }
+        }
+
+        writer.line(scope.getJavaName(), "$$NgScope.", javaName, ".", attrClassName, " ", attrClassName, " = ", scope.getName(), ".", javaName, ".get", attrClassName, "(", viewName, ");");
+        switch (attr.getAttributeClassName()) {
+            case "NgClick":
+                writer.line(viewName, ".setOnClickListener(", attrClassName, ");");
+                break;
+            case "NgLongClick":
+                writer.line(viewName, ".setOnLongClickListener(", attrClassName, ");");
+                break;
+            case "NgModel":
+                if (isBoolType(source.getType(scope))) {
+                    writer.line(viewName, ".setOnCheckedChangeListener(", attrClassName, ");");
+                } else {
+                    writer.line(viewName, ".addTextChangedListener(", attrClassName, ");");
+                }
+                writer.lines(source.getObserverSource(attrClassName, scope.getName() + ".") + ";");
+                break;
+            default:
+                writer.lines(source.getObserverSource(attrClassName, scope.getName() + ".") + ";");
+                break;
+        }
+    }
+
+    /**
+     * writes the code that sets a static attribute once instead of attaching an observer, the same
+     * as attrs/static/*Static.java
+     */
+    void emitStatic(SourceWriter writer, XmlAttribute attr, XmlView view, Scope scope, String pack, String packageName) throws IOException {
+        String viewName = view.getId();
+        String getter = attr.getSource().getGetterSource("", packageName + ".");
+
+        switch (attr.getAttributeClassName()) {
+            case "NgText":
+                writer.line(viewName, ".setText(ngOptions_.getValueFormatter().format(", getter, ", ", viewName, ".getText().toString()));");
+                break;
+            case "NgGone":
+                writer.line(viewName, ".setVisibility(", getter, " ? android.view.View.GONE : android.view.View.VISIBLE);");
+                break;
+            case "NgInvisible":
+                writer.line(viewName, ".setVisibility(", getter, " ? android.view.View.INVISIBLE : android.view.View.VISIBLE);");
+                break;
+            case "NgDisabled":
+                writer.line(viewName, ".setEnabled(!", getter, ");");
+                break;
+            default:
+                emitSnippet(writer, attr.getStaticTemplate(), snippetContext(attr, view, scope, pack, packageName));
+                break;
+        }
+    }
+
+    /**
+     * the variables that the templates set before they #parse an attribute's snippet
+     */
+    private VelocityContext snippetContext(XmlAttribute attr, XmlView view, Scope scope, String pack, String packageName) {
+        VelocityContext context = new VelocityContext();
+        context.put("scope", scope);
+        context.put("view", view);
+        context.put("viewName", view.getId());
+        context.put("attr", attr);
+        context.put("attrSource", attr.getSource());
+        context.put("attrClassName", attr.getClassName());
+        context.put("package", pack);
+        context.put("packageName", packageName);
+        return context;
+    }
+
+    private void emitSnippet(SourceWriter writer, String snippet, VelocityContext context) throws IOException {
+        StringWriter out = new StringWriter();
+        TemplateEngine.get().getTemplate(snippet).merge(context, out);
+        writer.source(out.toString());
+    }
+
+    private void emitVisibility(SourceWriter writer, String attrClassName, String viewType, XmlView view, String getter, String visibility) throws IOException {
+        openObserver(writer, attrClassName, viewType, view, "com.ngandroid.lib.ng.ModelObserver", "null");
+        writer.open("@Override public void invoke(Object hide) {");
+        writer.open("if(", getter, ") {");
+        writer.line("view_.setVisibility(android.view.View.", visibility, ");");
+        writer.next("} else {");
+        writer.line("view_.setVisibility(android.view.View.VISIBLE);");
+        writer.close("}");
+        writer.close("}");
+        writer.close("}");
+    }
+
+    private void emitModelClass(SourceWriter writer, String attrClassName, String viewType, XmlView view, Scope scope, Source source, String getter, String pack) throws IOException {
+        String type = source.getType(scope);
+        boolean isBoolType = isBoolType(type);
+        String listener = isBoolType ? "android.widget.CompoundButton.OnCheckedChangeListener" : "android.text.TextWatcher";
+        String scopeReference = scope.getJavaName() + "$$NgScope.this.scope.";
+
+        writer.open("public final class ", attrClassName, " implements ", listener, ", com.ngandroid.lib.ng.ModelObserver<", type, "> {");
+        writer.blank();
+        writer.line("private final ", viewType, " view_;");
+        writer.line("private boolean fromSelf;");
+        writer.blank();
+        emitObserverConstructor(writer, attrClassName, viewType, view, getter);
+        writer.blank();
+        writer.open("@Override public void invoke(", type, " arg) {");
+        writer.open("if(!fromSelf){");
+        writer.line("fromSelf = true;");
+        if (isBoolType) {
+            writer.line("view_.setChecked(arg);");
+        } else {
+            writer.line("view_.setText(ngOptions_.getValueFormatter().format(arg, view_.getText().toString()));");
+        }
+        writer.close("}");
+        writer.line("fromSelf = false;");
+        writer.close("}");
+        if (isBoolType) {
+            writer.open("@Override public void onCheckedChanged(android.widget.CompoundButton compoundButton, boolean b) {");
+            writer.open("if(!fromSelf){");
+            writer.line("fromSelf = true;");
+            writer.line(scopeReference, source.getSetterSource("b"), ";");
+            writer.close("}");
+            writer.line("fromSelf = false;");
+            writer.close("}");
+        } else {
+            String textGetter = source.getGetterSource(scopeReference, pack + ".");
+            writer.line("@Override public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) {}");
+            writer.line("@Override public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {}");
+            writer.open("@Override public void afterTextChanged(android.text.Editable editable) {");
+            writer.open("if(!fromSelf){");
+            writer.line("fromSelf = true;");
+            writer.line(scopeReference, source.getSetterSource("ngOptions_.getValueFormatter().getValue(" + textGetter + ", editable.toString())"), ";");
+            writer.close("}");
+            writer.line("fromSelf = false;");
+            writer.close("}");
+        }
+        writer.close("}");
+    }
+
+    /**
+     * opens an observer class that invokes itself with the initial value when it is created
+     */
+    private void openObserver(SourceWriter writer, String attrClassName, String viewType, XmlView view, String observerType, String initialValue) throws IOException {
+        writer.open("public final class ", attrClassName, " implements ", observerType, " {");
+        writer.blank();
+        writer.line("private final ", viewType, " view_;");
+        writer.blank();
+        emitObserverConstructor(writer, attrClassName, viewType, view, initialValue);
+        writer.blank();
+    }
+
+    private void emitObserverConstructor(SourceWriter writer, String attrClassName, String viewType, XmlView view, String initialValue) throws IOException {
+        writer.open("private ", attrClassName, "(", viewType, " view_) {");
+        writer.line("this.view_ = view_;");
+        writer.open("try {");
+        writer.line("this.invoke(", initialValue, ");");
+        writer.next("} catch(NullPointerException ignored){");
+        writer.line(String.format(NULL_POINTER_WARNING, view.getId()));
+        writer.close("}");
+        writer.close("}");
+    }
+
+    private static boolean isBoolType(String type) {
+        return "Boolean".equals(type);
+    }
+}
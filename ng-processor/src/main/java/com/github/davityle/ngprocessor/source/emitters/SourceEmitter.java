@@ -0,0 +1,263 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.source.emitters;
+
+import com.github.davityle.ngprocessor.model.Layout;
+import com.github.davityle.ngprocessor.model.Model;
+import com.github.davityle.ngprocessor.model.Scope;
+import com.github.davityle.ngprocessor.model.SharedPaths;
+import com.github.davityle.ngprocessor.source.SourceField;
+import com.github.davityle.ngprocessor.source.links.LayoutSourceLink;
+import com.github.davityle.ngprocessor.source.links.NgModelSourceLink;
+import com.github.davityle.ngprocessor.source.links.ScopeSourceLink;
+import com.github.davityle.ngprocessor.xml.XmlAttribute;
+import com.github.davityle.ngprocessor.xml.XmlView;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import javax.inject.Inject;
+
+/**
+ * writes the same sources as templates/ngmodel.vm, templates/scope.vm and templates/layout.vm
+ * straight from the source links, without going through velocity
+ */
+public class SourceEmitter {
+
+    private final AttributeEmitter attributeEmitter = new AttributeEmitter();
+
+    @Inject
+    public SourceEmitter(){}
+
+    public void emitModel(NgModelSourceLink link, Writer out) throws IOException {
+        SourceWriter writer = new SourceWriter(out);
+        boolean isInterface = link.isInterface();
+
+        writer.line("package ", link.getPackageName(), ";");
+        writer.blank();
+        writer.open("public class ", link.getSimpleClassName(), "$$NgModel ", isInterface ? "implements " : "extends ", link.getFullName(), " {");
+        writer.blank();
+        if (isInterface) {
+            for (SourceField field : link.getFields()) {
+                writer.line("private ", field.getTypeName(), " ", field.getName(), "_;");
+            }
+        }
+        for (SourceField field : link.getFields()) {
+            writer.line("private java.util.List<com.ngandroid.lib.ng.ModelObserver<", field.getObjectType(), ">> ", field.getName(), "Observers;");
+        }
+
+        for (SourceField field : link.getFields()) {
+            writer.blank();
+            writer.open("public void add", field.getName(), "Observer(com.ngandroid.lib.ng.ModelObserver<", field.getObjectType(), "> modelObserver){");
+            writer.open("if(", field.getName(), "Observers == null){");
+            writer.line(field.getName(), "Observers = new java.util.ArrayList<>();");
+            writer.close("}");
+            writer.line(field.getName(), "Observers.add(modelObserver);");
+            writer.close("}");
+        }
+
+        if (isInterface) {
+            for (SourceField field : link.getFields()) {
+                if (field.getGetter() != null) {
+                    writer.blank();
+                    writer.open("public ", field.getTypeName(), " ", field.getGetter(), "() {");
+                    writer.line("return ", field.getName(), "_;");
+                    writer.close("}");
+                }
+            }
+        }
+
+        for (SourceField field : link.getFields()) {
+            writer.blank();
+            writer.open("public void ", field.getSetter(), "(", field.getTypeName(), " ", field.getName(), "_) {");
+            if (isInterface) {
+                writer.line("this.", field.getName(), "_ = ", field.getName(), "_;");
+            } else {
+                writer.line("super.", field.getSetter(), "(", field.getName(), "_);");
+            }
+            writer.open("if(", field.getName(), "Observers != null){");
+            writer.open("for(com.ngandroid.lib.ng.ModelObserver<", field.getObjectType(), "> observer : ", field.getName(), "Observers){");
+            writer.line("observer.invoke(", field.getName(), "_);");
+            writer.close("}");
+            writer.close("}");
+            writer.close("}");
+        }
+        writer.close("}");
+        writer.flush();
+    }
+
+    public void emitScope(ScopeSourceLink link, Writer out) throws IOException {
+        SourceWriter writer = new SourceWriter(out);
+        Scope scope = link.getScope();
+        String className = link.getClassName();
+
+        writer.line("package ", link.getPackage(), ";");
+        writer.blank();
+        writer.line("import android.view.View;");
+        writer.line("import android.widget.*;");
+        writer.blank();
+        writer.open("public class ", className, " {");
+        writer.blank();
+        writer.line("private ", scope.getJavaName(), " scope;");
+        writer.line("private final com.ngandroid.lib.NgOptions ngOptions_;");
+        writer.blank();
+        writer.open("public ", className, "(", scope.getJavaName(), " scope, com.ngandroid.lib.NgOptions ngOptions_){");
+        writer.line("this.scope = scope;");
+        writer.line("this.ngOptions_ = ngOptions_;");
+        for (Model model : scope.getNgModels()) {
+            writer.open("if(this.scope.", model.getName(), " == null || !(this.scope.", model.getName(), " instanceof ", model.getTypeName(), "$$NgModel)){");
+            writer.line("this.scope.", model.getName(), " = new ", model.getTypeName(), "$$NgModel();");
+            writer.close("}");
+        }
+        writer.close("}");
+
+        for (Model model : scope.getNgModels()) {
+            writer.blank();
+            writer.open("public ", model.getTypeName(), "$$NgModel get", model.getName(), "() {");
+            writer.line("return (", model.getTypeName(), "$$NgModel) this.scope.", model.getName(), ";");
+            writer.close("}");
+        }
+
+        writer.blank();
+        for (Layout layout : scope.getLayouts()) {
+            writer.line("public ", layout.getJavaName(), " ", layout.getJavaName(), " = new ", layout.getJavaName(), "();");
+        }
+
+        for (Layout layout : scope.getLayouts()) {
+            writer.blank();
+            writer.open("public class ", layout.getJavaName(), " {");
+            SharedPaths sharedPaths = scope.getSharedPaths(layout.getPath());
+            emitSharedPaths(writer, scope, sharedPaths);
+            for (XmlView view : scope.getViews(layout.getPath())) {
+                for (XmlAttribute attr : view.getAttributes()) {
+                    if (attr.isStaticBinding())
+                        continue;
+                    writer.open("public ", attr.getClassName(), " get", attr.getClassName(), "(", view.getElementType(), " view) {");
+                    writer.line("return new ", layout.getJavaName(), ".", attr.getClassName(), "(view);");
+                    writer.close("}");
+                }
+                writer.blank();
+                for (XmlAttribute attr : view.getAttributes()) {
+                    if (!attr.isStaticBinding()) {
+                        attributeEmitter.emitClass(writer, attr, view, scope, sharedPaths, link.getPackage(), link.getPackageName());
+                    }
+                }
+            }
+            writer.close("}");
+        }
+        writer.close("}");
+        writer.flush();
+    }
+
+    /**
+     * writes the pass counter of a layout class and the methods that read each shared path at most
+     * once per pass
+     */
+    private void emitSharedPaths(SourceWriter writer, Scope scope, SharedPaths sharedPaths) throws IOException {
+        if (sharedPaths.isEmpty())
+            return;
+        writer.blank();
+        writer.line("private int pass_;");
+        writer.open("public final com.ngandroid.lib.ng.ModelObserver ", SharedPaths.PASS_OBSERVER, " = new com.ngandroid.lib.ng.ModelObserver() {");
+        writer.open("@Override public void invoke(Object arg) {");
+        writer.line("pass_++;");
+        writer.close("}");
+        writer.close("};");
+        for (SharedPaths.SharedPath path : sharedPaths.getPaths()) {
+            String name = path.getName();
+            writer.blank();
+            writer.line("private ", path.getType(), " ", name, "Value_;");
+            writer.line("private int ", name, "Pass_ = -1;");
+            writer.open("private ", path.getType(), " ", name, "_() {");
+            writer.open("if(", name, "Pass_ != pass_){");
+            writer.line(name, "Value_ = ", path.getSource(scope.getJavaName() + "$$NgScope.this.scope."), ";");
+            writer.line(name, "Pass_ = pass_;");
+            writer.close("}");
+            writer.line("return ", name, "Value_;");
+            writer.close("}");
+        }
+        writer.blank();
+    }
+
+    public void emitLayout(LayoutSourceLink link, Writer out) throws IOException {
+        SourceWriter writer = new SourceWriter(out);
+        String className = link.getClassName();
+
+        writer.line("package ", link.getPackage(), ";");
+        writer.blank();
+        writer.line("import android.view.View;");
+        writer.line("import android.widget.*;");
+        for (Scope scope : link.getScopes()) {
+            writer.line("import ", scope.getTypeName(), "$$NgScope;");
+        }
+        writer.blank();
+        writer.open("public class ", className, " implements com.ngandroid.lib.ng.Controller {");
+        writer.blank();
+        writer.line("private final com.ngandroid.lib.NgOptions ngOptions_;");
+        for (Scope scope : link.getScopes()) {
+            writer.line("private final ", scope.getJavaName(), "$$NgScope ", scope.getName(), ";");
+        }
+        writer.blank();
+
+        StringBuilder parameters = new StringBuilder("com.ngandroid.lib.NgOptions ngOptions");
+        for (Scope scope : link.getScopes()) {
+            parameters.append(", ").append(scope.getTypeName()).append(' ').append(scope.getName());
+        }
+        writer.open("public ", className, "(", parameters.toString(), "){");
+        writer.line("this.ngOptions_ = ngOptions;");
+        for (Scope scope : link.getScopes()) {
+            writer.line("this.", scope.getName(), " = new ", scope.getJavaName(), "$$NgScope(", scope.getName(), ", ngOptions_);");
+        }
+        writer.close("}");
+        writer.blank();
+        writer.open("public int getId() {");
+        writer.line("return ", link.getPackageName(), ".R.layout.", link.getLayoutName(), ";");
+        writer.close("}");
+        writer.blank();
+        writer.open("public void attach(android.view.View __view__){");
+        for (Scope scope : link.getScopes()) {
+            SharedPaths sharedPaths = scope.getSharedPaths(link.getLayoutPath());
+            if (!sharedPaths.isEmpty()) {
+                String passObserver = scope.getName() + "." + link.getJavaName() + "." + SharedPaths.PASS_OBSERVER;
+                writer.line(passObserver, ".invoke(null);");
+                for (String registration : sharedPaths.getObserverRegistrations(passObserver, scope.getName() + ".")) {
+                    writer.line(registration, ";");
+                }
+            }
+            for (XmlView view : scope.getViews(link.getLayoutPath())) {
+                writer.blank();
+                writer.line(view.getElementType(), " ", view.getId(), " = (", view.getElementType(), ") __view__.findViewById(", link.getPackageName(), ".R.id.", view.getId(), ");");
+                if (view.isOptional()) {
+                    writer.open("if(", view.getId(), " != null){");
+                }
+                for (XmlAttribute attr : view.getAttributes()) {
+                    if (attr.isStaticBinding()) {
+                        attributeEmitter.emitStatic(writer, attr, view, scope, link.getPackage(), link.getPackageName());
+                    } else {
+                        attributeEmitter.emitAttach(writer, attr, view, scope, link.getJavaName(), link.getPackage(), link.getPackageName());
+                    }
+                }
+                if (view.isOptional()) {
+                    writer.close("}");
+                }
+            }
+        }
+        writer.close("}");
+        writer.close("}");
+        writer.flush();
+    }
+}
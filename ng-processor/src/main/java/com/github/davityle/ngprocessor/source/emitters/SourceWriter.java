@@ -0,0 +1,162 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.source.emitters;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * writes java source line by line straight to the underlying writer, keeping track of the indentation.
+ *
+ * Both emitters end up with the same layout: every line is indented by its block depth, runs of blank
+ * lines are collapsed into one and blank lines are dropped at the start and end of a block.
+ */
+public class SourceWriter {
+
+    private static final String INDENT = "    ";
+
+    private final Writer writer;
+    private int indent;
+    private boolean blank;
+    private String previous;
+
+    public SourceWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * writes the parts as a single line at the current indentation
+     */
+    public SourceWriter line(String... parts) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (String part : parts) {
+            line.append(part);
+        }
+        write(line.toString(), indent);
+        return this;
+    }
+
+    /**
+     * writes multi line source, such as an observer source, indenting every line
+     */
+    public SourceWriter lines(String source) throws IOException {
+        for (String line : source.split("\n", -1)) {
+            line = line.trim();
+            if (line.isEmpty()) {
+                blank();
+            } else {
+                line(line);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * rewrites source that was indented some other way, such as a template's output, each line is
+     * indented by the braces that are open before it
+     */
+    public SourceWriter source(String source) throws IOException {
+        for (String line : source.split("\n")) {
+            line = line.trim();
+            if (line.isEmpty()) {
+                blank();
+                continue;
+            }
+            int closing = 0;
+            while (closing < line.length() && line.charAt(closing) == '}') {
+                closing++;
+            }
+            write(line, indent - closing);
+            indent += depth(line);
+        }
+        return this;
+    }
+
+    /**
+     * a blank line is only written once the line after it is, and not at all at the edge of a block
+     */
+    public SourceWriter blank() {
+        blank = true;
+        return this;
+    }
+
+    /**
+     * writes the line and indents everything after it until the matching {@link #close(String...)}
+     */
+    public SourceWriter open(String... parts) throws IOException {
+        line(parts);
+        indent++;
+        return this;
+    }
+
+    /**
+     * writes a line that closes one block and opens the next, such as an else
+     */
+    public SourceWriter next(String... parts) throws IOException {
+        indent--;
+        line(parts);
+        indent++;
+        return this;
+    }
+
+    public SourceWriter close(String... parts) throws IOException {
+        indent--;
+        return line(parts);
+    }
+
+    private void write(String line, int depth) throws IOException {
+        if (blank && previous != null && !previous.endsWith("{") && !line.startsWith("}")) {
+            writer.write('\n');
+        }
+        blank = false;
+        previous = line;
+        for (int i = 0; i < depth; i++) {
+            writer.write(INDENT);
+        }
+        writer.write(line);
+        writer.write('\n');
+    }
+
+    /**
+     * the braces opened minus the braces closed by the line, ignoring those in string and char literals
+     */
+    private static int depth(String line) {
+        int depth = 0;
+        char quote = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quote != 0) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth--;
+            }
+        }
+        return depth;
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+}
@@ -103,9 +103,8 @@ public class ModelSourceLinker {
                 String type = typeMirror.toString();
                 SourceField sourceField = new SourceField(fName, type, primitiveUtils);
                 sourceField.setSetter(setter.getSimpleName().toString());
-                // TODO O(n^2) is the best
                 boolean getterFound = false;
-                for(Element possGetter : enclosedElements) {
+                for(Element possGetter : elementUtils.getMembers(typeElement, "get" + fName)) {
                     if(elementUtils.isGetterForField(possGetter, fName, typeMirror.getKind())){
                         sourceField.setGetter(possGetter.getSimpleName().toString());
                         getterFound = true;
@@ -118,6 +117,6 @@ public class ModelSourceLinker {
                 fields.add(sourceField);
             }
         }
-        return new NgModelSourceLink(modelName, packageName, fullName, isInterface, fields, element);
+        return new NgModelSourceLink(modelName, packageName, fullName, isInterface, fields, element, typeElement);
     }
 }
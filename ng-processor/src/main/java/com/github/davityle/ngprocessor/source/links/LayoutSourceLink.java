@@ -7,7 +7,8 @@ import com.github.davityle.ngprocessor.model.Scope;
 import org.apache.velocity.VelocityContext;
 
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 import javax.lang.model.element.Element;
 
@@ -41,16 +42,41 @@ public class LayoutSourceLink implements SourceLink {
         return vc;
     }
 
+    public Collection<Scope> getScopes() {
+        return scopes;
+    }
+
+    public String getLayoutPath() {
+        return layoutPath;
+    }
+
+    public String getLayoutName() {
+        return layoutName;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getJavaName() {
+        return javaName;
+    }
+
+    public String getPackage() {
+        return PACKAGE;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
     @Override
     public Element[] getElements() {
-        Element[] elements = new Element[scopes.size()];
-        Iterator<Scope> it = scopes.iterator();
-        int i = 0;
-        while(it.hasNext()) {
-            elements[i] = it.next().getJavaElement();
-            i++;
+        Set<Element> elements = new LinkedHashSet<>();
+        for (Scope scope : scopes) {
+            elements.addAll(scope.getOriginatingElements());
         }
-        return elements;
+        return elements.toArray(new Element[elements.size()]);
     }
 
     @Override
@@ -34,14 +34,16 @@ public class NgModelSourceLink implements SourceLink {
     private final boolean isInterface;
     private final List<SourceField> fields;
     private final Element element;
+    private final Element typeElement;
 
-    public NgModelSourceLink(String modelName, Option<String> packageName, String fullName, boolean isInterface, List<SourceField> fields, Element element) {
+    public NgModelSourceLink(String modelName, Option<String> packageName, String fullName, boolean isInterface, List<SourceField> fields, Element element, Element typeElement) {
         this.modelName = modelName;
         this.packageName = packageName;
         this.fullName = fullName;
         this.isInterface = isInterface;
         this.fields = fields;
         this.element = element;
+        this.typeElement = typeElement;
     }
 
     public VelocityContext getVelocityContext(){
@@ -65,9 +67,29 @@ public class NgModelSourceLink implements SourceLink {
         return vc;
     }
 
+    public String getSimpleClassName() {
+        return modelName;
+    }
+
+    public String getPackageName() {
+        return packageName.getOrElse("");
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public boolean isInterface() {
+        return isInterface;
+    }
+
+    public List<SourceField> getFields() {
+        return fields;
+    }
+
     @Override
     public Element[] getElements() {
-        return new Element[]{element};
+        return new Element[]{element, typeElement};
     }
 
     @Override
@@ -4,6 +4,8 @@ import com.github.davityle.ngprocessor.model.Scope;
 
 import org.apache.velocity.VelocityContext;
 
+import java.util.Set;
+
 import javax.lang.model.element.Element;
 
 public class ScopeSourceLink implements SourceLink{
@@ -30,9 +32,26 @@ public class ScopeSourceLink implements SourceLink{
         return vc;
     }
 
+    public Scope getScope() {
+        return scope;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getPackage() {
+        return pack;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
     @Override
     public Element[] getElements() {
-        return new Element[]{scope.getJavaElement()};
+        Set<Element> elements = scope.getOriginatingElements();
+        return elements.toArray(new Element[elements.size()]);
     }
 
     @Override
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.util;
+
+import com.github.davityle.ngprocessor.finders.OptionsHelper;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.inject.Inject;
+
+/**
+ * What the processor extracted from files and directories, kept for as long as its classes stay
+ * loaded. Gradle keeps javac and its processors in a daemon between builds, so a warm daemon finds
+ * unchanged layouts and manifests here instead of reading and parsing them again, and unchanged
+ * directories instead of listing them.
+ *
+ * Entries are keyed by kind and absolute path, and only returned while the file still has the size
+ * and modification time it had when it was read. The least recently used entries are dropped once
+ * there are more than {@link #MAX_ENTRIES}. Values are shared by every compilation in the daemon, so
+ * they must not reference elements, types or anything injected. The ngDaemonCache option turns the
+ * cache off.
+ */
+public class DaemonCache {
+
+    public static final String LAYOUTS = "layout";
+    public static final String LISTINGS = "listing";
+    public static final String MANIFESTS = "manifest";
+
+    static final int MAX_ENTRIES = 4096;
+
+    private static final Map<String, Entry> ENTRIES = new LinkedHashMap<String, Entry>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private final boolean enabled;
+
+    @Inject
+    public DaemonCache(OptionsHelper optionsHelper) {
+        this.enabled = optionsHelper.useDaemonCache();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param size the size of the file now
+     * @param lastModified the modification time of the file now
+     * @return what was stored for the file, absent if nothing was or the file changed since
+     */
+    public <T> Option<T> get(String kind, File file, long size, long lastModified, Class<T> type) {
+        if (!enabled)
+            return Option.absent();
+        Entry entry;
+        synchronized (ENTRIES) {
+            entry = ENTRIES.get(key(kind, file));
+        }
+        if (entry == null || entry.size != size || entry.lastModified != lastModified || !type.isInstance(entry.value))
+            return Option.absent();
+        return Option.of(type.cast(entry.value));
+    }
+
+    /**
+     * @param size the size of the file when it was read
+     * @param lastModified the modification time of the file when it was read
+     */
+    public void put(String kind, File file, long size, long lastModified, Object value) {
+        if (!enabled)
+            return;
+        synchronized (ENTRIES) {
+            ENTRIES.put(key(kind, file), new Entry(size, lastModified, value));
+        }
+    }
+
+    private static String key(String kind, File file) {
+        return kind + ':' + file.getAbsolutePath();
+    }
+
+    private static final class Entry {
+        private final long size, lastModified;
+        private final Object value;
+
+        private Entry(long size, long lastModified, Object value) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.value = value;
+        }
+    }
+}
@@ -17,11 +17,17 @@
 package com.github.davityle.ngprocessor.util;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.inject.Inject;
+import javax.inject.Singleton;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.AnnotationValue;
 import javax.lang.model.element.Element;
@@ -35,13 +41,21 @@ import javax.lang.model.util.Elements;
 
 /**
  * Created by tyler on 3/30/15.
+ *
+ * Members are looked up through a case insensitive index of each type, built the first time the type
+ * is asked about. Like the type and package names it is cached for the round only, elements don't
+ * outlive it.
  */
+@Singleton
 public class ElementUtils {
 
     private final Elements elementUtils;
     private final MessageUtils messageUtils;
     private final TypeUtils typeUtils;
     private final CollectionUtils collectionUtils;
+    private final ConcurrentMap<Element, Map<String, List<Element>>> members = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Element, String> typeNames = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Element, Option<String>> packageNames = new ConcurrentHashMap<>();
 
     @Inject
     public ElementUtils(Elements elementUtils, MessageUtils messageUtils, TypeUtils typeUtils, CollectionUtils collectionUtils){
@@ -51,6 +65,15 @@ public class ElementUtils {
         this.collectionUtils = collectionUtils;
     }
 
+    /**
+     * drops the indexes and names of the last round
+     */
+    public void clear() {
+        members.clear();
+        typeNames.clear();
+        packageNames.clear();
+    }
+
     public boolean isSetter(Element elem){
         if(elem == null)
             return false;
@@ -84,26 +107,62 @@ public class ElementUtils {
                 && ((ExecutableElement) elem).getParameters().size() == 0;
     }
 
+    /**
+     * @return the enclosed elements of the type whose simple name equals the given name ignoring case,
+     * in declaration order
+     */
+    public List<Element> getMembers(Element type, String name) {
+        List<Element> matches = getMemberIndex(type).get(name.toLowerCase(Locale.ROOT));
+        return matches == null ? Collections.<Element>emptyList() : matches;
+    }
+
+    /**
+     * @return the first enclosed element of the type whose simple name equals the given name ignoring case
+     */
+    public Option<Element> findMember(Element type, String name) {
+        List<Element> matches = getMembers(type, name);
+        return matches.isEmpty() ? Option.<Element>absent() : Option.of(matches.get(0));
+    }
+
+    private Map<String, List<Element>> getMemberIndex(Element type) {
+        Map<String, List<Element>> index = members.get(type);
+        if (index == null) {
+            index = new HashMap<>();
+            for (Element member : type.getEnclosedElements()) {
+                String name = member.getSimpleName().toString().toLowerCase(Locale.ROOT);
+                List<Element> named = index.get(name);
+                if (named == null) {
+                    named = new ArrayList<>(1);
+                    index.put(name, named);
+                }
+                named.add(member);
+            }
+            Map<String, List<Element>> previous = members.putIfAbsent(type, index);
+            if (previous != null) {
+                index = previous;
+            }
+        }
+        return index;
+    }
+
     public TypeMirror getElementType(TypeElement model, String field){
         TypeMirror typeMirror = null;
-        String fieldName = field.toLowerCase();
-        for(Element f : model.getEnclosedElements()){
-            if(f instanceof ExecutableElement) {
-                String fName = f.getSimpleName().toString().toLowerCase();
-                ExecutableElement exec = (ExecutableElement) f;
-                if (fName.equals("set" + fieldName) && isSetter(f)) {
-                    TypeMirror setType = exec.getParameters().get(0).asType();
-                    if (typeMirror != null) {
-                        checkMatch(model, field, typeMirror, setType);
-                    }
-                    typeMirror = setType;
-                } else if (fName.equals("get" + fieldName) && isGetter(f)) {
-                    TypeMirror getType = exec.getReturnType();
-                    if (typeMirror != null) {
-                        checkMatch(model, field, typeMirror, getType);
-                    }
-                    typeMirror = getType;
+        for(Element f : getMembers(model, "set" + field)){
+            if (isSetter(f)) {
+                TypeMirror setType = ((ExecutableElement) f).getParameters().get(0).asType();
+                if (typeMirror != null) {
+                    checkMatch(model, field, typeMirror, setType);
                 }
+                typeMirror = setType;
+            }
+        }
+        for(Element f : getMembers(model, "get" + field)){
+            if (isGetter(f)) {
+                TypeMirror getType = ((ExecutableElement) f).getReturnType();
+                if (typeMirror != null) {
+                    checkMatch(model, field, typeMirror, getType);
+                }
+                typeMirror = getType;
             }
         }
         return typeMirror;
@@ -115,39 +174,15 @@ public class ElementUtils {
     }
 
     public boolean hasGetterAndSetter(TypeElement model, String field){
-        boolean hasGetter = false, hasSetter = false;
-        String fieldName = field.toLowerCase();
-        for(Element f : model.getEnclosedElements()){
-            String name = f.getSimpleName().toString().toLowerCase();
-            if(name.equals("set" + fieldName)){
-                hasSetter = true;
-                if(hasGetter)
-                    break;
-            }else if(name.equals("get" + fieldName)){
-                hasGetter = true;
-                if(hasSetter)
-                    break;
-            }
-        }
-        return hasGetter && hasSetter;
+        return !getMembers(model, "get" + field).isEmpty() && !getMembers(model, "set" + field).isEmpty();
     }
 
     public Tuple<String,String> getGetAndSetMethodNames(TypeElement model, String field){
-        String get = null, set = null;
-        String fieldName = field.toLowerCase();
-        for(Element f : model.getEnclosedElements()){
-            String name = f.getSimpleName().toString().toLowerCase();
-            // TODO better check than this - check parameters and so forth
-            if(name.equals("get" + fieldName)){
-                get = f.getSimpleName().toString();
-                if(set != null)
-                    break;
-            }else if(name.equals("set" + fieldName)){
-                set = f.getSimpleName().toString();
-                if(get != null)
-                    break;
-            }
-        }
+        // TODO better check than this - check parameters and so forth
+        List<Element> getters = getMembers(model, "get" + field);
+        List<Element> setters = getMembers(model, "set" + field);
+        String get = getters.isEmpty() ? null : getters.get(0).getSimpleName().toString();
+        String set = setters.isEmpty() ? null : setters.get(0).getSimpleName().toString();
         return Tuple.of(get, set);
     }
 
@@ -188,6 +223,17 @@ public class ElementUtils {
     }
 
     public Option<String> getPackageName(Element type) {
+        if (type == null)
+            return findPackageName(null);
+        Option<String> packageName = packageNames.get(type);
+        if (packageName == null) {
+            packageName = findPackageName(type);
+            packageNames.put(type, packageName);
+        }
+        return packageName;
+    }
+
+    private Option<String> findPackageName(Element type) {
         try {
             return Option.of(elementUtils.getPackageOf(type).getQualifiedName().toString());
         }catch (NullPointerException e) {
@@ -232,6 +278,15 @@ public class ElementUtils {
     }
 
     public String getTypeName(Element element) {
+        String typeName = typeNames.get(element);
+        if (typeName == null) {
+            typeName = findTypeName(element);
+            typeNames.put(element, typeName);
+        }
+        return typeName;
+    }
+
+    private String findTypeName(Element element) {
         TypeMirror fieldType = element.asType();
         TypeElement typeElement = typeUtils.asTypeElement(fieldType);
         Option<String> packOpt = getPackageName(typeElement);
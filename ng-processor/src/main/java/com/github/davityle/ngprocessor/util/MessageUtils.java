@@ -28,7 +28,7 @@ import javax.tools.Diagnostic.Kind;
 public class MessageUtils {
 
     private final ProcessingEnvironment processingEnv;
-    private boolean hasErrors = false;
+    private int errorCount = 0;
     
     @Inject
     public MessageUtils(ProcessingEnvironment processingEnv){
@@ -37,7 +37,7 @@ public class MessageUtils {
 
     public void error(Option<? extends Element> element, String message, Object... args) {
         printMessage(Kind.ERROR, element, message, args);
-        hasErrors = true;
+        errorCount++;
     }
 
     public void note(Option<? extends Element> element, String message, Object... args){
@@ -56,6 +56,17 @@ public class MessageUtils {
     }
 
     public boolean hasErrors() {
-        return hasErrors;
+        return errorCount > 0;
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * starts counting errors again, for the next round
+     */
+    public void clearErrors() {
+        errorCount = 0;
     }
 }
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.util;
+
+import com.github.davityle.ngprocessor.finders.OptionsHelper;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.lang.model.element.Element;
+
+/**
+ * Wall time, cpu time and allocated bytes of each phase of a processing round.
+ *
+ * Phases are always measured and summarized in a note. Per layout and per source timings (parse,
+ * type check and render) are only collected when the ngTimingsReport option names a file, in which
+ * case everything is also written there as json. Render timings include the type checks done while
+ * rendering.
+ */
+@Singleton
+public class ProcessorTimings {
+
+    public static final String LAYOUTS = "layouts";
+    public static final String SOURCES = "sources";
+
+    public static final String PARSE = "parse";
+    public static final String TYPE_CHECK = "typeCheck";
+    public static final String RENDER = "render";
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME = THREADS.isCurrentThreadCpuTimeSupported();
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS = allocationBean();
+
+    private final MessageUtils messageUtils;
+    private final String reportFile;
+    private final Map<String, Stat> phases = new LinkedHashMap<>();
+    private final Map<String, Map<String, Map<String, Stat>>> units = new LinkedHashMap<>();
+    private final ThreadLocal<String[]> currentUnit = new ThreadLocal<>();
+
+    @Inject
+    public ProcessorTimings(MessageUtils messageUtils, OptionsHelper optionsHelper) {
+        this.messageUtils = messageUtils;
+        this.reportFile = optionsHelper.getTimingsReportFile();
+    }
+
+    /**
+     * whether per layout and per source timings are collected
+     */
+    public boolean isDetailed() {
+        return reportFile != null;
+    }
+
+    /**
+     * a snapshot of the clocks of the current thread, the start of whatever is measured next
+     */
+    public Sample start() {
+        return new Sample();
+    }
+
+    /**
+     * drops the timings of the last round, each round reports only its own
+     */
+    public synchronized void clear() {
+        phases.clear();
+        units.clear();
+    }
+
+    public synchronized void phase(String phase, Sample start) {
+        stat(phases, phase).add(start);
+    }
+
+    /**
+     * records one stage of a layout or source, does nothing unless the timings are detailed
+     */
+    public void unit(String group, String name, String stage, Sample start) {
+        if (start == null || !isDetailed())
+            return;
+        synchronized (this) {
+            Map<String, Map<String, Stat>> byName = units.get(group);
+            if (byName == null) {
+                byName = new LinkedHashMap<>();
+                units.put(group, byName);
+            }
+            Map<String, Stat> stages = byName.get(name);
+            if (stages == null) {
+                stages = new LinkedHashMap<>();
+                byName.put(name, stages);
+            }
+            stat(stages, stage).add(start);
+        }
+    }
+
+    /**
+     * makes the layout or source the one that {@link #typeCheck(Sample)} is attributed to on the
+     * current thread
+     * @return the start of the unit, or null when the timings aren't detailed
+     */
+    public Sample enterUnit(String group, String name) {
+        if (!isDetailed())
+            return null;
+        currentUnit.set(new String[]{group, name});
+        return start();
+    }
+
+    public void exitUnit(String stage, Sample start) {
+        String[] unit = currentUnit.get();
+        currentUnit.remove();
+        if (unit != null) {
+            unit(unit[0], unit[1], stage, start);
+        }
+    }
+
+    /**
+     * @return the start of a type check, or null when there is no unit to attribute it to
+     */
+    public Sample startTypeCheck() {
+        return currentUnit.get() == null ? null : start();
+    }
+
+    public void typeCheck(Sample start) {
+        String[] unit = currentUnit.get();
+        if (unit != null) {
+            unit(unit[0], unit[1], TYPE_CHECK, start);
+        }
+    }
+
+    /**
+     * notes a one line summary of the phases and writes the json report if one was asked for
+     */
+    public synchronized void report() {
+        StringBuilder summary = new StringBuilder(":NgAndroid:timings");
+        String separator = " ";
+        for (Map.Entry<String, Stat> phase : phases.entrySet()) {
+            Stat stat = phase.getValue();
+            summary.append(separator).append(phase.getKey()).append(' ').append(millis(stat.wall)).append("ms");
+            if (stat.cpu >= 0) {
+                summary.append(" (cpu ").append(millis(stat.cpu)).append("ms)");
+            }
+            separator = ", ";
+        }
+        messageUtils.note(Option.<Element>absent(), summary.toString());
+
+        if (reportFile != null) {
+            writeReport(new File(reportFile));
+        }
+    }
+
+    private void writeReport(File file) {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            messageUtils.warning(Option.<Element>absent(), "Unable to create timings report directory '%s'", parent);
+            return;
+        }
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"cpuTime\": ").append(CPU_TIME)
+            .append(",\n  \"allocatedBytes\": ").append(ALLOCATIONS != null)
+            .append(",\n  \"phases\": ");
+        appendStats(json, phases, "    ");
+        for (String group : new String[]{LAYOUTS, SOURCES}) {
+            json.append(",\n  \"").append(group).append("\": {");
+            Map<String, Map<String, Stat>> byName = units.get(group);
+            if (byName != null) {
+                String separator = "\n";
+                for (Map.Entry<String, Map<String, Stat>> unit : byName.entrySet()) {
+                    json.append(separator).append("    ").append(quote(unit.getKey())).append(": ");
+                    appendStats(json, unit.getValue(), "      ");
+                    separator = ",\n";
+                }
+                json.append("\n  ");
+            }
+            json.append('}');
+        }
+        json.append("\n}\n");
+
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(json.toString());
+        } catch (IOException e) {
+            messageUtils.warning(Option.<Element>absent(), "Unable to write timings report '%s' because '%s'", file, e.getMessage());
+        }
+    }
+
+    private static void appendStats(StringBuilder json, Map<String, Stat> stats, String indent) {
+        json.append('{');
+        String separator = "\n";
+        for (Map.Entry<String, Stat> entry : stats.entrySet()) {
+            Stat stat = entry.getValue();
+            json.append(separator).append(indent).append(quote(entry.getKey()))
+                .append(": {\"count\": ").append(stat.count)
+                .append(", \"wallNanos\": ").append(stat.wall)
+                .append(", \"cpuNanos\": ").append(stat.cpu)
+                .append(", \"allocatedBytes\": ").append(stat.allocated)
+                .append('}');
+            separator = ",\n";
+        }
+        if (!stats.isEmpty()) {
+            json.append('\n').append(indent, 0, indent.length() - 2);
+        }
+        json.append('}');
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private static Stat stat(Map<String, Stat> stats, String key) {
+        Stat stat = stats.get(key);
+        if (stat == null) {
+            stat = new Stat();
+            stats.put(key, stat);
+        }
+        return stat;
+    }
+
+    private static String millis(long nanos) {
+        return String.valueOf(nanos / 1000000);
+    }
+
+    /**
+     * the name a layout file is reported under, the directory is kept so qualified layouts don't collide
+     */
+    public static String layoutName(File layout) {
+        File dir = layout.getParentFile();
+        return dir == null ? layout.getName() : dir.getName() + '/' + layout.getName();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        try {
+            if (THREADS instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) THREADS;
+                if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled())
+                    return bean;
+            }
+        } catch (LinkageError ignored) {
+            // not a hotspot based vm
+        }
+        return null;
+    }
+
+    private static long cpuTime() {
+        return CPU_TIME ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long allocatedBytes() {
+        return ALLOCATIONS != null ? ALLOCATIONS.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    /**
+     * the clocks of the thread that created it, only meaningful on that thread
+     */
+    public static final class Sample {
+        private final long wall = System.nanoTime();
+        private final long cpu = cpuTime();
+        private final long allocated = allocatedBytes();
+
+        private Sample() {
+        }
+    }
+
+    private static final class Stat {
+        private int count;
+        private long wall;
+        private long cpu;
+        private long allocated;
+
+        private void add(Sample start) {
+            count++;
+            wall += System.nanoTime() - start.wall;
+            cpu = start.cpu < 0 ? -1 : cpu + cpuTime() - start.cpu;
+            allocated = start.allocated < 0 ? -1 : allocated + allocatedBytes() - start.allocated;
+        }
+    }
+}
@@ -22,7 +22,9 @@ import com.github.davityle.ngprocessor.model.Scope;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 
@@ -42,13 +44,15 @@ public class ScopeUtils {
     private final RoundEnvironment roundEnv;
     private final MessageUtils messageUtils;
     private final CollectionUtils collectionUtils;
+    private final TypeUtils typeUtils;
 
     @Inject
-    public ScopeUtils(ElementUtils elementUtils, RoundEnvironment roundEnv, MessageUtils messageUtils, CollectionUtils collectionUtils){
+    public ScopeUtils(ElementUtils elementUtils, RoundEnvironment roundEnv, MessageUtils messageUtils, CollectionUtils collectionUtils, TypeUtils typeUtils){
         this.elementUtils = elementUtils;
         this.roundEnv = roundEnv;
         this.messageUtils = messageUtils;
         this.collectionUtils = collectionUtils;
+        this.typeUtils = typeUtils;
     }
 
     public Set<Scope> getScopes(Set<? extends TypeElement> annotations){
@@ -70,6 +74,16 @@ public class ScopeUtils {
             }
         });
 
+        final Map<Element, Collection<Element>> modelsByScope = new HashMap<>();
+        for (Element model : ngModels) {
+            Collection<Element> scopeModels = modelsByScope.get(model.getEnclosingElement());
+            if (scopeModels == null) {
+                scopeModels = new ArrayList<>();
+                modelsByScope.put(model.getEnclosingElement(), scopeModels);
+            }
+            scopeModels.add(model);
+        }
+
         Collection<Scope> scopes = collectionUtils.flatMap(annotatedScopes, new CollectionUtils.Function<TypeElement, Collection<Scope>>() {
             @Override
             public Collection<Scope> apply(TypeElement annotation) {
@@ -81,13 +95,14 @@ public class ScopeUtils {
                         if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.PROTECTED)) {
                             messageUtils.error(Option.of(scope), "Unable to access Scope '%s'. Must have default or public access", scope.toString());
                         }
-                        return new Scope(scope, getModelsForScope(ngModels, scope), getScopeName(scope), elementUtils.getTypeName(scope), elementUtils.getSimpleName(scope));
+                        return new Scope(scope, getModelsForScope(modelsByScope.get(scope)), getScopeName(scope), elementUtils.getTypeName(scope), elementUtils.getSimpleName(scope));
                     }
                 });
             }
         });
 
-        return new HashSet<>(scopes);
+        // in source order so that the generated sources are written in the same order every build
+        return new LinkedHashSet<>(scopes);
     }
 
     public Collection<Element> getModels(Set<? extends TypeElement> annotations) {
@@ -104,16 +119,13 @@ public class ScopeUtils {
         });
     }
 
-    private Collection<Model> getModelsForScope(final Collection<Element> ngModels, final Element scope) {
-        return collectionUtils.map(collectionUtils.filter(ngModels, new CollectionUtils.Function<Element, Boolean>() {
-            @Override
-            public Boolean apply(Element element) {
-                return element.getEnclosingElement().equals(scope);
-            }
-        }), new CollectionUtils.Function<Element, Model>() {
+    private Collection<Model> getModelsForScope(Collection<Element> ngModels) {
+        if (ngModels == null)
+            return new ArrayList<>();
+        return collectionUtils.map(ngModels, new CollectionUtils.Function<Element, Model>() {
             @Override
             public Model apply(Element element) {
-                return new Model(element.getSimpleName().toString(), elementUtils.getTypeName(element));
+                return new Model(element.getSimpleName().toString(), elementUtils.getTypeName(element), Option.of(typeUtils.asTypeElement(element.asType())));
             }
         });
     }
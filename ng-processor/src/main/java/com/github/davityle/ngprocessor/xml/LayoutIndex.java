@@ -0,0 +1,450 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.xml;
+
+import com.github.davityle.ngprocessor.NgProcessor;
+import com.github.davityle.ngprocessor.attrcompiler.Visitors;
+import com.github.davityle.ngprocessor.attrcompiler.parse.ParseException;
+import com.github.davityle.ngprocessor.attrcompiler.sources.Source;
+import com.github.davityle.ngprocessor.attributes.Attribute;
+import com.github.davityle.ngprocessor.attributes.Attributes;
+import com.github.davityle.ngprocessor.finders.FileHelper;
+import com.github.davityle.ngprocessor.finders.OptionsHelper;
+import com.github.davityle.ngprocessor.util.DaemonCache;
+import com.github.davityle.ngprocessor.util.MessageUtils;
+import com.github.davityle.ngprocessor.util.Option;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.lang.model.element.Element;
+
+/**
+ * On disk index of the scopes that were extracted from each layout file during the previous build.
+ *
+ * Entries are keyed by the absolute layout path and validated by size and modification time, falling
+ * back to a content hash when either of those changed. The whole index is thrown away when the
+ * processor or the set of known attributes changes. Entries are also kept in the {@link DaemonCache},
+ * where a warm daemon finds them without reading the index or hashing anything.
+ */
+public class LayoutIndex {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final String DEFAULT_INDEX_FILE = "ngandroid" + File.separator + "layout-index.bin";
+
+    private final MessageUtils messageUtils;
+    private final Attributes attributes;
+    private final Visitors visitors;
+    private final OptionsHelper optionsHelper;
+    private final FileHelper fileHelper;
+    private final DaemonCache daemonCache;
+
+    private Option<File> indexFile;
+    private Map<String, Entry> previousEntries;
+    private final Map<String, Entry> currentEntries = new LinkedHashMap<>();
+
+    @Inject
+    public LayoutIndex(MessageUtils messageUtils, Attributes attributes, Visitors visitors, OptionsHelper optionsHelper, FileHelper fileHelper, DaemonCache daemonCache) {
+        this.messageUtils = messageUtils;
+        this.attributes = attributes;
+        this.visitors = visitors;
+        this.optionsHelper = optionsHelper;
+        this.fileHelper = fileHelper;
+        this.daemonCache = daemonCache;
+    }
+
+    /**
+     * checks the layout against the previous build, reading its contents only if the size or
+     * modification time changed
+     */
+    public Lookup lookup(File file) {
+        Lookup lookup = new Lookup(file);
+        Option<Entry> cached = daemonCache.get(DaemonCache.LAYOUTS, file, lookup.size, lookup.lastModified, Entry.class);
+        if (cached.isPresent()) {
+            lookup.entry = cached.get();
+            currentEntries.put(lookup.path, lookup.entry);
+            return lookup;
+        }
+
+        Entry entry = getPreviousEntries().get(lookup.path);
+        if (entry == null)
+            return lookup;
+
+        if (entry.size == lookup.size && entry.lastModified == lookup.lastModified) {
+            lookup.entry = entry;
+        } else if (entry.size == lookup.size) {
+            try {
+                if (Arrays.equals(entry.hash, lookup.getHash())) {
+                    lookup.entry = new Entry(lookup.size, lookup.lastModified, entry.hash, entry.scopes);
+                }
+            } catch (IOException ignored) {
+                // the layout will be parsed again and the error reported from there
+            }
+        }
+
+        if (lookup.entry != null) {
+            currentEntries.put(lookup.path, lookup.entry);
+            daemonCache.put(DaemonCache.LAYOUTS, file, lookup.size, lookup.lastModified, lookup.entry);
+        }
+        return lookup;
+    }
+
+    /**
+     * records the scopes that were extracted for a layout that had to be parsed, layouts without
+     * bindings are recorded with an absent value
+     */
+    public void store(Lookup lookup, Option<Collection<XmlScope>> scopes) {
+        boolean indexed = getIndexFile().isPresent();
+        if (!indexed && !daemonCache.isEnabled())
+            return;
+        try {
+            Entry entry = new Entry(lookup.size, lookup.lastModified, lookup.getHash(), toRecords(scopes));
+            if (indexed) {
+                currentEntries.put(lookup.path, entry);
+            }
+            daemonCache.put(DaemonCache.LAYOUTS, lookup.file, lookup.size, lookup.lastModified, entry);
+        } catch (IOException ignored) {
+            // not worth failing the build over, it will just be parsed again next time
+        }
+    }
+
+    /**
+     * writes every layout that was seen during this build to disk, dropping layouts that no longer exist
+     */
+    public void save() {
+        if (getIndexFile().isAbsent())
+            return;
+
+        File file = getIndexFile().get();
+        File tmp = new File(file.getPath() + ".tmp");
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            messageUtils.warning(Option.<Element>absent(), "Unable to create layout index directory '%s'", parent);
+            return;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(getFingerprint());
+            out.writeInt(currentEntries.size());
+            for (Map.Entry<String, Entry> entry : currentEntries.entrySet()) {
+                out.writeUTF(entry.getKey());
+                entry.getValue().write(out);
+            }
+        } catch (IOException e) {
+            messageUtils.warning(Option.<Element>absent(), "Unable to write layout index '%s' because '%s'", file, e.getMessage());
+            tmp.delete();
+            return;
+        }
+
+        if (!tmp.renameTo(file)) {
+            file.delete();
+            if (!tmp.renameTo(file)) {
+                messageUtils.warning(Option.<Element>absent(), "Unable to replace layout index '%s'", file);
+                tmp.delete();
+            }
+        }
+    }
+
+    private Option<File> getIndexFile() {
+        if (indexFile == null) {
+            if (!optionsHelper.useLayoutIndex()) {
+                indexFile = Option.absent();
+            } else if (optionsHelper.getLayoutIndexFile() != null) {
+                indexFile = Option.of(new File(optionsHelper.getLayoutIndexFile()));
+            } else {
+                Option<File> buildDir = fileHelper.findBuildDirectory();
+                indexFile = buildDir.isPresent() ? Option.of(new File(buildDir.get(), DEFAULT_INDEX_FILE)) : Option.<File>absent();
+            }
+        }
+        return indexFile;
+    }
+
+    private Map<String, Entry> getPreviousEntries() {
+        if (previousEntries == null) {
+            previousEntries = readEntries();
+        }
+        return previousEntries;
+    }
+
+    private Map<String, Entry> readEntries() {
+        Option<File> file = getIndexFile();
+        if (file.isAbsent() || !file.get().isFile())
+            return Collections.emptyMap();
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file.get())))) {
+            if (in.readInt() != FORMAT_VERSION || !getFingerprint().equals(in.readUTF()))
+                return Collections.emptyMap();
+
+            int size = in.readInt();
+            Map<String, Entry> entries = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                entries.put(in.readUTF(), Entry.read(in));
+            }
+            return entries;
+        } catch (IOException | RuntimeException e) {
+            // a corrupt index is the same as no index
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * identifies the processor build and the attributes it knows about, any change to either means
+     * the previous extraction results can not be trusted
+     */
+    private String getFingerprint() {
+        StringBuilder fingerprint = new StringBuilder();
+        fingerprint.append(getProcessorVersion());
+
+        List<String> names = new ArrayList<>(attributes.keySet());
+        Collections.sort(names);
+        for (String name : names) {
+            Attribute attribute = attributes.get(name);
+            fingerprint.append(';').append(name).append('=').append(attribute.getClassName());
+            for (String parameter : attribute.getAttrParameters()) {
+                fingerprint.append(',').append(parameter);
+            }
+        }
+        return fingerprint.toString();
+    }
+
+    /**
+     * the location, size and modification time of the processor's jar
+     */
+    String getProcessorVersion() {
+        try {
+            URL location = NgProcessor.class.getProtectionDomain().getCodeSource().getLocation();
+            File jar = new File(location.toURI());
+            return location + ":" + jar.length() + ":" + jar.lastModified();
+        } catch (Exception e) {
+            Package pack = NgProcessor.class.getPackage();
+            return pack != null && pack.getImplementationVersion() != null ? pack.getImplementationVersion() : "unknown";
+        }
+    }
+
+    private static List<ScopeRecord> toRecords(Option<Collection<XmlScope>> scopes) {
+        if (scopes.isAbsent())
+            return null;
+
+        List<ScopeRecord> records = new ArrayList<>();
+        for (XmlScope scope : scopes.get()) {
+            List<ViewRecord> views = new ArrayList<>();
+            for (XmlView view : scope.getViews()) {
+                List<String> attrs = new ArrayList<>();
+                for (XmlAttribute attribute : view.getAttributes()) {
+                    attrs.add(attribute.getName());
+                    attrs.add(attribute.getValue());
+                }
+                views.add(new ViewRecord(view.getId(), view.getElementType(), attrs));
+            }
+            records.add(new ScopeRecord(scope.getScopeName(), views));
+        }
+        return records;
+    }
+
+    private Collection<XmlScope> toScopes(List<ScopeRecord> records) throws ParseException {
+        boolean compact = optionsHelper.useCompactExpressions();
+        Collection<XmlScope> scopes = new ArrayList<>();
+        for (ScopeRecord record : records) {
+            List<XmlView> views = new ArrayList<>();
+            for (ViewRecord view : record.views) {
+                List<XmlAttribute> attrs = new ArrayList<>(view.attrs.size() / 2);
+                Option<String> id = Option.of(view.id);
+                for (int i = 0; i < view.attrs.size(); i += 2) {
+                    String value = view.attrs.get(i + 1);
+                    attrs.add(new XmlAttribute(attributes.get(view.attrs.get(i)), value, new Source(value, visitors, compact), id));
+                }
+                views.add(new XmlView(view.id, attrs, view.elementType));
+            }
+            scopes.add(new XmlScope(record.name).addViews(views));
+        }
+        return scopes;
+    }
+
+    public class Lookup {
+        private final File file;
+        private final String path;
+        private final long size, lastModified;
+        private Entry entry;
+        private byte[] content, hash;
+
+        Lookup(File file) {
+            this.file = file;
+            this.path = file.getAbsolutePath();
+            this.size = file.length();
+            this.lastModified = file.lastModified();
+        }
+
+        public boolean isHit() {
+            return entry != null;
+        }
+
+        /**
+         * the scopes recorded for an unchanged layout, absent if the layout has no bindings
+         */
+        public Option<Collection<XmlScope>> getScopes() throws ParseException {
+            return entry.scopes == null ? Option.<Collection<XmlScope>>absent() : Option.of(toScopes(entry.scopes));
+        }
+
+        public byte[] getContent() throws IOException {
+            if (content == null) {
+                content = readFile(file);
+            }
+            return content;
+        }
+
+        byte[] getHash() throws IOException {
+            if (hash == null) {
+                hash = sha1(getContent());
+            }
+            return hash;
+        }
+    }
+
+    private static byte[] readFile(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] bytes = new byte[(int) file.length()];
+            int read = 0;
+            while (read < bytes.length) {
+                int count = in.read(bytes, read, bytes.length - read);
+                if (count < 0)
+                    return Arrays.copyOf(bytes, read);
+                read += count;
+            }
+            return bytes;
+        }
+    }
+
+    private static byte[] sha1(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class Entry {
+        private final long size, lastModified;
+        private final byte[] hash;
+        private final List<ScopeRecord> scopes;
+
+        Entry(long size, long lastModified, byte[] hash, List<ScopeRecord> scopes) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+            this.scopes = scopes;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeLong(size);
+            out.writeLong(lastModified);
+            out.writeShort(hash.length);
+            out.write(hash);
+            out.writeBoolean(scopes != null);
+            if (scopes == null)
+                return;
+            out.writeInt(scopes.size());
+            for (ScopeRecord scope : scopes) {
+                out.writeUTF(scope.name);
+                out.writeInt(scope.views.size());
+                for (ViewRecord view : scope.views) {
+                    out.writeUTF(view.id);
+                    out.writeUTF(view.elementType);
+                    writeStrings(out, view.attrs);
+                }
+            }
+        }
+
+        static Entry read(DataInputStream in) throws IOException {
+            long size = in.readLong();
+            long lastModified = in.readLong();
+            byte[] hash = new byte[in.readShort()];
+            in.readFully(hash);
+            if (!in.readBoolean())
+                return new Entry(size, lastModified, hash, null);
+
+            int scopeCount = in.readInt();
+            List<ScopeRecord> scopes = new ArrayList<>(scopeCount);
+            for (int i = 0; i < scopeCount; i++) {
+                String name = in.readUTF();
+                int viewCount = in.readInt();
+                List<ViewRecord> views = new ArrayList<>(viewCount);
+                for (int j = 0; j < viewCount; j++) {
+                    views.add(new ViewRecord(in.readUTF(), in.readUTF(), readStrings(in)));
+                }
+                scopes.add(new ScopeRecord(name, views));
+            }
+            return new Entry(size, lastModified, hash, scopes);
+        }
+
+        private static void writeStrings(DataOutputStream out, List<String> strings) throws IOException {
+            out.writeInt(strings.size());
+            for (String string : strings) {
+                out.writeUTF(string);
+            }
+        }
+
+        private static List<String> readStrings(DataInputStream in) throws IOException {
+            int count = in.readInt();
+            List<String> strings = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                strings.add(in.readUTF());
+            }
+            return strings;
+        }
+    }
+
+    private static class ScopeRecord {
+        private final String name;
+        private final List<ViewRecord> views;
+
+        ScopeRecord(String name, List<ViewRecord> views) {
+            this.name = name;
+            this.views = views;
+        }
+    }
+
+    private static class ViewRecord {
+        private final String id, elementType;
+        private final List<String> attrs;
+
+        ViewRecord(String id, String elementType, List<String> attrs) {
+            this.id = id;
+            this.elementType = elementType;
+            this.attrs = attrs;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.xml;
+
+import com.github.davityle.ngprocessor.model.Layout;
+import com.github.davityle.ngprocessor.util.MessageUtils;
+import com.github.davityle.ngprocessor.util.Option;
+import com.github.davityle.ngprocessor.util.Tuple;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.lang.model.element.Element;
+
+/**
+ * Merges the variants of a layout, the files with the same name in layout, layout-land,
+ * layout-sw600dp and the other qualified directories of a res directory, into one layout so that
+ * they share a controller and the attribute classes of their scopes. Files with the same name under
+ * different res directories, such as those of two modules, aren't variants of each other.
+ *
+ * The merged layout has the views of every variant. A view that some variants don't have is
+ * optional and only bound when findViewById finds it. Variants that bind the same view must bind
+ * it the same way.
+ */
+class LayoutVariants {
+
+    private static final String DEFAULT_VARIANT = "layout";
+
+    private final MessageUtils messageUtils;
+
+    LayoutVariants(MessageUtils messageUtils) {
+        this.messageUtils = messageUtils;
+    }
+
+    /**
+     * @param files every layout file that was found, including the ones without bindings
+     * @param layouts the scopes of the layouts that have bindings
+     * @return one layout per res directory and name, layouts without variants are returned as they are
+     */
+    List<Tuple<Layout, Collection<XmlScope>>> merge(Collection<File> files, List<Tuple<Layout, Collection<XmlScope>>> layouts) {
+        Map<String, Integer> variants = new HashMap<>();
+        for (File file : files) {
+            String key = variantKey(new Layout(file.getAbsolutePath()));
+            Integer count = variants.get(key);
+            variants.put(key, count == null ? 1 : count + 1);
+        }
+
+        Map<String, List<Tuple<Layout, Collection<XmlScope>>>> byKey = new LinkedHashMap<>();
+        for (Tuple<Layout, Collection<XmlScope>> layout : layouts) {
+            String key = variantKey(layout.getFirst());
+            List<Tuple<Layout, Collection<XmlScope>>> named = byKey.get(key);
+            if (named == null) {
+                named = new ArrayList<>(1);
+                byKey.put(key, named);
+            }
+            named.add(layout);
+        }
+
+        List<Tuple<Layout, Collection<XmlScope>>> merged = new ArrayList<>(byKey.size());
+        for (Map.Entry<String, List<Tuple<Layout, Collection<XmlScope>>>> named : byKey.entrySet()) {
+            Integer count = variants.get(named.getKey());
+            int variantCount = Math.max(count == null ? 0 : count, named.getValue().size());
+            if (variantCount == 1) {
+                merged.add(named.getValue().get(0));
+            } else {
+                merged.add(merge(named.getValue(), variantCount));
+            }
+        }
+        return merged;
+    }
+
+    private Tuple<Layout, Collection<XmlScope>> merge(List<Tuple<Layout, Collection<XmlScope>>> variants, int variantCount) {
+        variants = new ArrayList<>(variants);
+        Collections.sort(variants, new Comparator<Tuple<Layout, Collection<XmlScope>>>() {
+            @Override
+            public int compare(Tuple<Layout, Collection<XmlScope>> lhs, Tuple<Layout, Collection<XmlScope>> rhs) {
+                boolean lhsDefault = isDefault(lhs.getFirst()), rhsDefault = isDefault(rhs.getFirst());
+                if (lhsDefault != rhsDefault)
+                    return lhsDefault ? -1 : 1;
+                return lhs.getFirst().getPath().compareTo(rhs.getFirst().getPath());
+            }
+        });
+
+        Map<String, Map<String, XmlView>> viewsByScope = new LinkedHashMap<>();
+        Map<XmlView, Layout> origins = new HashMap<>();
+        Map<XmlView, Integer> counts = new HashMap<>();
+        for (Tuple<Layout, Collection<XmlScope>> variant : variants) {
+            for (XmlScope scope : variant.getSecond()) {
+                Map<String, XmlView> views = viewsByScope.get(scope.getScopeName());
+                if (views == null) {
+                    views = new LinkedHashMap<>();
+                    viewsByScope.put(scope.getScopeName(), views);
+                }
+                Set<String> seen = new HashSet<>();
+                for (XmlView view : scope.getViews()) {
+                    if (!seen.add(view.getId()))
+                        continue;
+                    XmlView existing = views.get(view.getId());
+                    if (existing == null) {
+                        views.put(view.getId(), view);
+                        origins.put(view, variant.getFirst());
+                        counts.put(view, 1);
+                        continue;
+                    }
+                    if (!isBoundTheSame(existing, view)) {
+                        messageUtils.error(Option.<Element>absent(), "View '%s' is bound differently in '%s' and '%s', every variant of a layout must bind a view the same way",
+                            view.getId(), origins.get(existing).getPath(), variant.getFirst().getPath());
+                    }
+                    counts.put(existing, counts.get(existing) + 1);
+                }
+            }
+        }
+
+        List<XmlScope> scopes = new ArrayList<>(viewsByScope.size());
+        for (Map.Entry<String, Map<String, XmlView>> views : viewsByScope.entrySet()) {
+            List<XmlView> merged = new ArrayList<>(views.getValue().size());
+            for (XmlView view : views.getValue().values()) {
+                merged.add(counts.get(view) < variantCount ? view.asOptional() : view);
+            }
+            scopes.add(new XmlScope(views.getKey()).addViews(merged));
+        }
+        return Tuple.of(variants.get(0).getFirst(), (Collection<XmlScope>) scopes);
+    }
+
+    /**
+     * the res directory of a layout, the parent of its layout or layout-* directory, followed by its name
+     */
+    private static String variantKey(Layout layout) {
+        File dir = new File(layout.getPath()).getAbsoluteFile().getParentFile();
+        File res = dir == null ? null : dir.getParentFile();
+        return res == null ? layout.getFileName() : res.getPath() + File.separator + layout.getFileName();
+    }
+
+    private static boolean isDefault(Layout layout) {
+        File dir = new File(layout.getPath()).getParentFile();
+        return dir != null && dir.getName().equals(DEFAULT_VARIANT);
+    }
+
+    private static boolean isBoundTheSame(XmlView lhs, XmlView rhs) {
+        if (!lhs.getElementType().equals(rhs.getElementType()) || lhs.getAttributes().size() != rhs.getAttributes().size())
+            return false;
+        Map<String, String> values = new HashMap<>();
+        for (XmlAttribute attr : lhs.getAttributes()) {
+            values.put(attr.getName(), attr.getValue());
+        }
+        for (XmlAttribute attr : rhs.getAttributes()) {
+            if (!attr.getValue().equals(values.get(attr.getName())))
+                return false;
+        }
+        return true;
+    }
+}
@@ -24,10 +24,12 @@ import com.github.davityle.ngprocessor.util.Option;
 public class XmlAttribute {
     private final Attribute attr;
     private final Option<String> viewId;
+    private final String value;
     private Source source;
 
-    XmlAttribute(Attribute attr, Source source, Option<String> viewId) throws ParseException {
+    XmlAttribute(Attribute attr, String value, Source source, Option<String> viewId) throws ParseException {
         this.attr = attr;
+        this.value = value;
         this.viewId = viewId;
         this.source = source;
     }
@@ -45,6 +47,10 @@ public class XmlAttribute {
         return '(' + attr.getAttrName() + ',' + source.getGetterSource("", "") + ')';
     }
 
+    public String getValue() {
+        return value;
+    }
+
     public Source getSource() {
         return source;
     }
@@ -57,10 +63,36 @@ public class XmlAttribute {
         return attr.getAttachSource();
     }
 
+    public String getClassTemplate() {
+        return attr.getClassTemplate();
+    }
+
+    public String getAttachTemplate() {
+        return attr.getAttachTemplate();
+    }
+
+    /**
+     * whether the attribute is set once in attach rather than observed, see {@link Source#isStatic()}
+     */
+    public boolean isStaticBinding() {
+        return attr.hasStaticBinding() && source.isStatic();
+    }
+
+    public String getStaticTemplate() {
+        return attr.getStaticTemplate();
+    }
+
     public String getClassName() {
         return getId() + getName();
     }
 
+    /**
+     * the class name of the attribute itself, for example NgText
+     */
+    public String getAttributeClassName() {
+        return attr.getClassName();
+    }
+
     public void setSource(Source source) {
         this.source = source;
     }
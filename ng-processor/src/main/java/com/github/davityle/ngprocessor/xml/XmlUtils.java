@@ -23,36 +23,68 @@ import com.github.davityle.ngprocessor.attributes.Attributes;
 import com.github.davityle.ngprocessor.attributes.ScopeAttrNameResolver;
 import com.github.davityle.ngprocessor.finders.LayoutsFinder;
 import com.github.davityle.ngprocessor.finders.NamespaceFinder;
+import com.github.davityle.ngprocessor.finders.OptionsHelper;
 import com.github.davityle.ngprocessor.model.Layout;
 import com.github.davityle.ngprocessor.util.CollectionUtils;
 import com.github.davityle.ngprocessor.util.MessageUtils;
 import com.github.davityle.ngprocessor.util.Option;
+import com.github.davityle.ngprocessor.util.ProcessorTimings;
 import com.github.davityle.ngprocessor.util.Tuple;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.inject.Inject;
 import javax.lang.model.element.Element;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 public class XmlUtils {
 
     private static final Pattern ID_ATTR_PATTERN = Pattern.compile("android:id=\"@\\+id/(.+)\"");
     private static final String NAMESPACE_ATTRIBUTE_REG = "%s:(.+)=\"(.+)\"";
+    private static final String RES_AUTO_NAMESPACE = "http://schemas.android.com/apk/res-auto";
+    private static final String ID_ATTR_NAME = "android:id";
+    private static final String NEW_ID_PREFIX = "@+id/";
+    private static final byte[] RES_AUTO_NAMESPACE_BYTES = RES_AUTO_NAMESPACE.getBytes(StandardCharsets.US_ASCII);
+
+    private static final ThreadLocal<XMLInputFactory> INPUT_FACTORY = new ThreadLocal<XMLInputFactory>() {
+        @Override
+        protected XMLInputFactory initialValue() {
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+            return factory;
+        }
+    };
 
     private final MessageUtils messageUtils;
     private final CollectionUtils collectionUtils;
@@ -61,10 +93,12 @@ public class XmlUtils {
     private final NamespaceFinder namespaceFinder;
     private final Attributes attributes;
     private final Visitors visitors;
-    private Pattern attrPattern;
+    private final LayoutIndex layoutIndex;
+    private final OptionsHelper optionsHelper;
+    private final ProcessorTimings timings;
 
     @Inject
-    public XmlUtils(MessageUtils messageUtils, CollectionUtils collectionUtils, ScopeAttrNameResolver scopeAttrNameResolver, LayoutsFinder layoutsFinder, NamespaceFinder namespaceFinder, Attributes attributes, Visitors visitors){
+    public XmlUtils(MessageUtils messageUtils, CollectionUtils collectionUtils, ScopeAttrNameResolver scopeAttrNameResolver, LayoutsFinder layoutsFinder, NamespaceFinder namespaceFinder, Attributes attributes, Visitors visitors, LayoutIndex layoutIndex, OptionsHelper optionsHelper, ProcessorTimings timings){
         this.messageUtils = messageUtils;
         this.collectionUtils = collectionUtils;
         this.scopeAttrNameResolver = scopeAttrNameResolver;
@@ -72,10 +106,17 @@ public class XmlUtils {
         this.namespaceFinder = namespaceFinder;
         this.attributes = attributes;
         this.visitors = visitors;
+        this.layoutIndex = layoutIndex;
+        this.optionsHelper = optionsHelper;
+        this.timings = timings;
     }
 
     /**
-     * maps all of the layouts to their scopes, could be optimized
+     * maps all of the layouts to their scopes, layouts that have not changed since the last build
+     * are read from the {@link LayoutIndex} instead of being parsed. Layouts are parsed concurrently,
+     * each on its own {@link LayoutParser}, and their errors are reported in layout order once
+     * every layout has been parsed. The variants of a layout in qualified directories are merged by
+     * {@link LayoutVariants}.
      * @return
      */
     public Map<Layout, Collection<XmlScope>> getXmlScopes() {
@@ -93,145 +134,471 @@ public class XmlUtils {
             }
         });
 
-        Collection<Document> docs = collectionUtils.flatMapOpt(layoutFiles, new CollectionUtils.Function<File, Option<Document>>() {
+        final boolean streaming = optionsHelper.useStreamingLayoutParser();
+        final boolean compact = optionsHelper.useCompactExpressions();
+        final byte[] scopeAttrBytes = scopeAttrNameResolver.getScopeAttrName().getBytes(StandardCharsets.US_ASCII);
+        List<LayoutParser> parsers = new ArrayList<>(collectionUtils.map(layoutFiles, new CollectionUtils.Function<File, LayoutParser>() {
             @Override
-            public Option<Document> apply(File file) {
-                return getDocumentFromFile(file);
+            public LayoutParser apply(File file) {
+                return new LayoutParser(file, layoutIndex.lookup(file), streaming, compact, scopeAttrBytes);
             }
-        });
+        }));
 
-        return collectionUtils.toMap(collectionUtils.flatMapOpt(docs, new CollectionUtils.Function<Document, Option<Tuple<Layout, Collection<XmlScope>>>>() {
-            @Override
-            public Option<Tuple<Layout, Collection<XmlScope>>> apply(Document doc) {
-                Option<String> optNameSpace = namespaceFinder.getNameSpace(doc);
-                if (optNameSpace.isPresent()) {
-                    attrPattern = Pattern.compile(String.format(NAMESPACE_ATTRIBUTE_REG, optNameSpace.get()));
-                    Collection<XmlScope> scopes = getScopes(doc);
-                    return Option.of(Tuple.of(new Layout(doc.getDocumentURI()), scopes));
-                } else {
-                    return Option.absent();
-                }
+        List<Option<Collection<XmlScope>>> results = parse(parsers);
+
+        List<Tuple<Layout, Collection<XmlScope>>> xmlScopes = new ArrayList<>();
+        int skipped = 0;
+        for (int i = 0; i < parsers.size(); i++) {
+            LayoutParser parser = parsers.get(i);
+            if (parser.skipped) {
+                skipped++;
             }
-        }));
-    }
+            Option<Collection<XmlScope>> scopes = results.get(i);
+            for (String error : parser.errors) {
+                messageUtils.error(Option.<Element>absent(), error);
+            }
+            if (!parser.lookup.isHit() && parser.errors.isEmpty()) {
+                layoutIndex.store(parser.lookup, scopes);
+            }
+            if (scopes.isPresent()) {
+                xmlScopes.add(Tuple.of(new Layout(parser.file.getAbsolutePath()), scopes.get()));
+            }
+        }
 
-    private Collection<XmlScope> getScopes(Node scopeNode) {
+        layoutIndex.save();
+        messageUtils.note(Option.<Element>absent(), ":NgAndroid:skipped parsing %d of %d layouts without bindings", skipped, parsers.size());
+        return collectionUtils.toMap(new LayoutVariants(messageUtils).merge(layoutFiles, xmlScopes));
+    }
 
-        NodeListCollection nodeList = new NodeListCollection(scopeNode.getChildNodes());
+    /**
+     * runs the parsers on a pool bounded by the ngLayoutParseThreads option, the results are in the
+     * same order as the parsers
+     */
+    private List<Option<Collection<XmlScope>>> parse(List<LayoutParser> parsers) {
+        List<Option<Collection<XmlScope>>> results = new ArrayList<>(parsers.size());
+        int threads = Math.min(optionsHelper.getLayoutParseThreads(), parsers.size());
+        if (threads <= 1) {
+            for (LayoutParser parser : parsers) {
+                results.add(parser.call());
+            }
+            return results;
+        }
 
-        Collection<XmlScope> scopes = collectionUtils.flatMapOpt(nodeList, new CollectionUtils.Function<Node, Option<XmlScope>>() {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
             @Override
-            public Option<XmlScope> apply(final Node node) {
-                return getScopeAttr(node).map(new Option.Map<XmlScope, XmlScope>() {
-                    @Override
-                    public XmlScope map(XmlScope xmlScope) {
-                        return xmlScope.addViews(collectionUtils.flatMap(new NodeListCollection(node.getChildNodes()), new CollectionUtils.Function<Node, Collection<XmlView>>() {
-                            @Override
-                            public Collection<XmlView> apply(Node node) {
-                                return getAttributes(node);
-                            }
-                        }));
-                    }
-                });
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "ngandroid-layout-parser-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
             }
         });
+        try {
+            for (Future<Option<Collection<XmlScope>>> future : executor.invokeAll(parsers)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while parsing layouts", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
-        scopes.addAll(collectionUtils.flatMap(nodeList, new CollectionUtils.Function<Node, Collection<XmlScope>>() {
-            @Override
-            public Collection<XmlScope> apply(Node node) {
-                return getScopes(node);
+    /**
+     * extracts the scopes of a single layout, everything that depends on the document (the namespace
+     * pattern and any errors) is kept here so that layouts can be parsed on separate threads
+     */
+    private class LayoutParser implements Callable<Option<Collection<XmlScope>>> {
+
+        private final File file;
+        private final LayoutIndex.Lookup lookup;
+        private final boolean streaming;
+        private final boolean compact;
+        private final byte[] scopeAttrBytes;
+        private final List<String> errors = new ArrayList<>();
+        private Pattern attrPattern;
+        private boolean skipped;
+
+        private LayoutParser(File file, LayoutIndex.Lookup lookup, boolean streaming, boolean compact, byte[] scopeAttrBytes) {
+            this.file = file;
+            this.lookup = lookup;
+            this.streaming = streaming;
+            this.compact = compact;
+            this.scopeAttrBytes = scopeAttrBytes;
+        }
+
+        @Override
+        public Option<Collection<XmlScope>> call() {
+            ProcessorTimings.Sample start = timings.isDetailed() ? timings.start() : null;
+            try {
+                return parse();
+            } finally {
+                timings.unit(ProcessorTimings.LAYOUTS, ProcessorTimings.layoutName(file), ProcessorTimings.PARSE, start);
             }
-        }));
+        }
 
-        return scopes;
-    }
+        private Option<Collection<XmlScope>> parse() {
+            if (lookup.isHit())
+                return getIndexedScopes();
 
-    private Option<XmlScope> getScopeAttr(Node node) {
-        return Option.of(node.getAttributes()).fold(new Option.OptionCB<NamedNodeMap, Option<XmlScope>>() {
-            @Override
-            public Option<XmlScope> absent() {
+            byte[] content;
+            try {
+                content = lookup.getContent();
+            } catch (IOException e) {
+                errors.add(String.valueOf(e.getMessage()));
                 return Option.absent();
             }
-            @Override
-            public Option<XmlScope> present(NamedNodeMap namedNodeMap) {
-                for (Node attr : new NamedNodeMapCollection(namedNodeMap)) {
-                    Matcher matcher = attrPattern.matcher(attr.toString());
-                    if(matcher.matches() && scopeAttrNameResolver.getScopeAttrName().equals(matcher.group(1))) {
-                        return Option.of(new XmlScope(matcher.group(2)));
-                    }
-                }
+
+            // a layout that never mentions the res-auto namespace is dropped by the parse anyway, and
+            // one that never mentions the scope attribute has no scopes, so neither needs to be parsed
+            if (!mayContain(content, RES_AUTO_NAMESPACE_BYTES)) {
+                skipped = true;
                 return Option.absent();
             }
-        });
-    }
+            if (!mayContain(content, scopeAttrBytes)) {
+                skipped = true;
+                return Option.<Collection<XmlScope>>of(new ArrayList<XmlScope>());
+            }
 
-    private Collection<XmlView> getAttributes(final Node node) {
-        // TODO add sub scopes
-        if(getScopeAttr(node).isPresent())
-            return Collections.emptyList();
+            if (streaming)
+                return scanScopes(content);
 
-        final Option<String> nodeId = Option.of(node.getAttributes()).map(new Option.Map<NamedNodeMap, String>() {
-            @Override
-            public String map(NamedNodeMap namedNodeMap) {
-                return getNodeId(namedNodeMap).getOrElse(null);
+            Option<Document> doc = getDocument(content);
+            if (doc.isAbsent())
+                return Option.absent();
+
+            return getScopes(doc.get());
+        }
+
+        private void error(String message, Object... args) {
+            errors.add(String.format(message, args));
+        }
+
+        private Option<Collection<XmlScope>> getIndexedScopes() {
+            try {
+                return lookup.getScopes();
+            } catch (ParseException | RuntimeException e) {
+                error("Unable to read indexed layout '%s' because '%s'", file.getAbsolutePath(), e.getMessage());
+                return Option.absent();
             }
-        });
+        }
 
-        final Collection<XmlAttribute> nodeAttrs = Option.of(node.getAttributes()).fold(new Option.OptionCB<NamedNodeMap, Collection<XmlAttribute>>() {
-            @Override
-            public Collection<XmlAttribute> absent() {
-                return Collections.emptyList();
+        private Option<Document> getDocument(byte[] content) {
+            try {
+                Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new ByteArrayInputStream(content), file.toURI().toString());
+                document.setDocumentURI(file.getAbsolutePath());
+                return Option.of(document);
+            } catch (Exception e) {
+                errors.add(String.valueOf(e.getMessage()));
+                return Option.absent();
             }
+        }
 
-            @Override
-            public Collection<XmlAttribute> present(NamedNodeMap namedNodeMap) {
-                List<XmlAttribute> attributeList = new ArrayList<>();
-                for (Node node : new NamedNodeMapCollection(namedNodeMap)) {
-                    Matcher matcher = attrPattern.matcher(node.toString());
-                    if(matcher.matches() && attributes.containsKey(matcher.group(1))) {
-                        String attr = matcher.group(1);
-                        String value = matcher.group(2);
-                        try {
-                            XmlAttribute xmlAttribute = new XmlAttribute(attributes.get(attr), new Source(value, visitors) , nodeId);
-                            attributeList.add(xmlAttribute);
-                        } catch (ParseException | RuntimeException e) {
-                            StringWriter sw = new StringWriter();
-                            e.printStackTrace(new PrintWriter(sw));
-                            Object[] params = new Object[]{node.getBaseURI(), attr, nodeId.getOrElse("no id available"), value, sw.toString()};
-                            messageUtils.error(Option.<Element>absent(), "Layout file '%s' has an invalid attribute '%s' in view '%s' with value '%s' because '%s'", params);
+        private Option<Collection<XmlScope>> getScopes(Document doc) {
+            Option<String> optNameSpace = namespaceFinder.getNameSpace(doc);
+            if (optNameSpace.isPresent()) {
+                attrPattern = Pattern.compile(String.format(NAMESPACE_ATTRIBUTE_REG, optNameSpace.get()));
+                return Option.of(getScopes((Node) doc));
+            } else {
+                return Option.absent();
+            }
+        }
+
+        private Collection<XmlScope> getScopes(Node scopeNode) {
+
+            NodeListCollection nodeList = new NodeListCollection(scopeNode.getChildNodes());
+
+            Collection<XmlScope> scopes = collectionUtils.flatMapOpt(nodeList, new CollectionUtils.Function<Node, Option<XmlScope>>() {
+                @Override
+                public Option<XmlScope> apply(final Node node) {
+                    return getScopeAttr(node).map(new Option.Map<XmlScope, XmlScope>() {
+                        @Override
+                        public XmlScope map(XmlScope xmlScope) {
+                            return xmlScope.addViews(collectionUtils.flatMap(new NodeListCollection(node.getChildNodes()), new CollectionUtils.Function<Node, Collection<XmlView>>() {
+                                @Override
+                                public Collection<XmlView> apply(Node node) {
+                                    return getAttributes(node);
+                                }
+                            }));
+                        }
+                    });
+                }
+            });
+
+            scopes.addAll(collectionUtils.flatMap(nodeList, new CollectionUtils.Function<Node, Collection<XmlScope>>() {
+                @Override
+                public Collection<XmlScope> apply(Node node) {
+                    return getScopes(node);
+                }
+            }));
+
+            return scopes;
+        }
+
+        private Option<XmlScope> getScopeAttr(Node node) {
+            return Option.of(node.getAttributes()).fold(new Option.OptionCB<NamedNodeMap, Option<XmlScope>>() {
+                @Override
+                public Option<XmlScope> absent() {
+                    return Option.absent();
+                }
+                @Override
+                public Option<XmlScope> present(NamedNodeMap namedNodeMap) {
+                    for (Node attr : new NamedNodeMapCollection(namedNodeMap)) {
+                        Matcher matcher = attrPattern.matcher(attr.toString());
+                        if(matcher.matches() && scopeAttrNameResolver.getScopeAttrName().equals(matcher.group(1))) {
+                            return Option.of(new XmlScope(matcher.group(2)));
+                        }
+                    }
+                    return Option.absent();
+                }
+            });
+        }
+
+        private Collection<XmlView> getAttributes(final Node node) {
+            // TODO add sub scopes
+            if(getScopeAttr(node).isPresent())
+                return Collections.emptyList();
+
+            final Option<String> nodeId = Option.of(node.getAttributes()).map(new Option.Map<NamedNodeMap, String>() {
+                @Override
+                public String map(NamedNodeMap namedNodeMap) {
+                    return getNodeId(namedNodeMap).getOrElse(null);
+                }
+            });
+
+            final Collection<XmlAttribute> nodeAttrs = Option.of(node.getAttributes()).fold(new Option.OptionCB<NamedNodeMap, Collection<XmlAttribute>>() {
+                @Override
+                public Collection<XmlAttribute> absent() {
+                    return Collections.emptyList();
+                }
+
+                @Override
+                public Collection<XmlAttribute> present(NamedNodeMap namedNodeMap) {
+                    List<XmlAttribute> attributeList = new ArrayList<>();
+                    for (Node node : new NamedNodeMapCollection(namedNodeMap)) {
+                        Matcher matcher = attrPattern.matcher(node.toString());
+                        if(matcher.matches() && attributes.containsKey(matcher.group(1))) {
+                            Option<XmlAttribute> xmlAttribute = getAttribute(node.getBaseURI(), matcher.group(1), matcher.group(2), nodeId);
+                            if (xmlAttribute.isPresent()) {
+                                attributeList.add(xmlAttribute.get());
+                            }
                         }
                     }
+
+                    return attributeList;
                 }
+            });
+            Collection<XmlView> views = new ArrayList<>();
+            if(!nodeAttrs.isEmpty()) {
+                Option<XmlView> view = nodeId.fold(new Option.OptionCB<String, Option<XmlView>>() {
+                    @Override
+                    public Option<XmlView> absent() {
+                        error("View '%s' must have an id in order for ngAndroid to use its attributes.", node);
+                        return Option.absent();
+                    }
 
-                return attributeList;
+                    @Override
+                    public Option<XmlView> present(String s) {
+                        return Option.of(new XmlView(s, nodeAttrs, node.getNodeName()));
+                    }
+                });
+                if(view.isPresent()) {
+                    views.add(view.get());
+                }
             }
-        });
-        Collection<XmlView> views = new ArrayList<>();
-        if(!nodeAttrs.isEmpty()) {
-            Option<XmlView> view = nodeId.fold(new Option.OptionCB<String, Option<XmlView>>() {
+            views.addAll(collectionUtils.flatMap(new NodeListCollection(node.getChildNodes()), new CollectionUtils.Function<Node, Collection<XmlView>>() {
                 @Override
-                public Option<XmlView> absent() {
-                    messageUtils.error(Option.<Element>absent(), "View '%s' must have an id in order for ngAndroid to use its attributes.", node);
-                    return Option.absent();
+                public Collection<XmlView> apply(Node node) {
+                    return getAttributes(node);
                 }
+            }));
+
+            return views;
+        }
+
+        private Option<XmlAttribute> getAttribute(String layoutFile, String attr, String value, Option<String> nodeId) {
+            try {
+                return Option.of(new XmlAttribute(attributes.get(attr), value, new Source(value, visitors, compact), nodeId));
+            } catch (ParseException | RuntimeException e) {
+                StringWriter sw = new StringWriter();
+                e.printStackTrace(new PrintWriter(sw));
+                error("Layout file '%s' has an invalid attribute '%s' in view '%s' with value '%s' because '%s'", layoutFile, attr, nodeId.getOrElse("no id available"), value, sw.toString());
+                return Option.absent();
+            }
+        }
 
+        /**
+         * extracts the same scopes as the DOM walk in a single forward pass over the layout. Each open
+         * element keeps the views and scopes found below it and hands them to its parent when it is
+         * closed, which reproduces the order that the DOM walk produces them in.
+         */
+        private Option<Collection<XmlScope>> scanScopes(byte[] content) {
+            XMLStreamReader reader = null;
+            try {
+                reader = INPUT_FACTORY.get().createXMLStreamReader(file.toURI().toString(), new ByteArrayInputStream(content));
+                Deque<ScanFrame> frames = new ArrayDeque<>();
+                ScanFrame document = new ScanFrame(Option.<XmlScope>absent(), false);
+                frames.push(document);
+                String prefix = null;
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        if (prefix == null) {
+                            prefix = findNamespacePrefix(reader);
+                        }
+                        frames.push(startElement(reader, prefix, frames.peek()));
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        frames.pop().close(frames.peek());
+                    }
+                }
+                return prefix == null ? Option.<Collection<XmlScope>>absent() : Option.of((Collection<XmlScope>) document.getScopes());
+            } catch (XMLStreamException e) {
+                errors.add(String.valueOf(e.getMessage()));
+                return Option.absent();
+            } finally {
+                if (reader != null) {
+                    try {
+                        reader.close();
+                    } catch (XMLStreamException ignored) {
+                    }
+                }
+            }
+        }
+
+        private String findNamespacePrefix(XMLStreamReader reader) {
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                String name = getQualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i));
+                if (name.startsWith("xmlns:") && RES_AUTO_NAMESPACE.equals(reader.getAttributeValue(i))) {
+                    return name.substring("xmlns:".length());
+                }
+            }
+            return null;
+        }
+
+        private ScanFrame startElement(XMLStreamReader reader, String prefix, ScanFrame parent) {
+            boolean inScope = parent.scope.isPresent() || parent.collectsViews;
+            if (prefix == null)
+                return new ScanFrame(Option.<XmlScope>absent(), inScope);
+
+            String attrPrefix = prefix + ':';
+            Option<String> nodeId = Option.absent();
+            Option<XmlScope> scope = Option.absent();
+            List<Tuple<String, String>> bindings = new ArrayList<>();
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                String name = getQualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i));
+                String value = reader.getAttributeValue(i);
+                if (value.isEmpty())
+                    continue;
+
+                if (ID_ATTR_NAME.equals(name)) {
+                    if (value.startsWith(NEW_ID_PREFIX) && value.length() > NEW_ID_PREFIX.length()) {
+                        nodeId = Option.of(value.substring(NEW_ID_PREFIX.length()));
+                    }
+                } else if (name.startsWith(attrPrefix) && name.length() > attrPrefix.length()) {
+                    String attr = name.substring(attrPrefix.length());
+                    if (scopeAttrNameResolver.getScopeAttrName().equals(attr)) {
+                        scope = Option.of(new XmlScope(value));
+                    } else if (attributes.containsKey(attr)) {
+                        bindings.add(Tuple.of(attr, value));
+                    }
+                }
+            }
+
+            ScanFrame frame = new ScanFrame(scope, inScope && scope.isAbsent());
+            if (frame.collectsViews && !bindings.isEmpty()) {
+                addView(frame, getQualifiedName(reader.getPrefix(), reader.getLocalName()), nodeId, bindings);
+            }
+            return frame;
+        }
+
+        private void addView(ScanFrame frame, String elementName, Option<String> nodeId, List<Tuple<String, String>> bindings) {
+            // the DOM keeps attributes sorted by name, keep the same order here
+            Collections.sort(bindings, new Comparator<Tuple<String, String>>() {
                 @Override
-                public Option<XmlView> present(String s) {
-                    return Option.of(new XmlView(s, nodeAttrs, node.getNodeName()));
+                public int compare(Tuple<String, String> a, Tuple<String, String> b) {
+                    return a.getFirst().compareTo(b.getFirst());
                 }
             });
-            if(view.isPresent()) {
-                views.add(view.get());
+
+            List<XmlAttribute> nodeAttrs = new ArrayList<>();
+            for (Tuple<String, String> binding : bindings) {
+                Option<XmlAttribute> xmlAttribute = getAttribute(file.getAbsolutePath(), binding.getFirst(), binding.getSecond(), nodeId);
+                if (xmlAttribute.isPresent()) {
+                    nodeAttrs.add(xmlAttribute.get());
+                }
+            }
+
+            if (nodeAttrs.isEmpty())
+                return;
+
+            if (nodeId.isPresent()) {
+                frame.views.add(new XmlView(nodeId.get(), nodeAttrs, elementName));
+            } else {
+                error("View '[%s: null]' must have an id in order for ngAndroid to use its attributes.", elementName);
             }
         }
-        views.addAll(collectionUtils.flatMap(new NodeListCollection(node.getChildNodes()), new CollectionUtils.Function<Node, Collection<XmlView>>() {
-            @Override
-            public Collection<XmlView> apply(Node node) {
-                return getAttributes(node);
+    }
+
+    /**
+     * checks the raw bytes of a layout for an ascii pattern. Layouts that are not encoded with an
+     * ascii compatible charset can't be checked this way and are always reported as a possible match.
+     */
+    static boolean mayContain(byte[] content, byte[] pattern) {
+        if (content.length >= 2 && (content[0] == 0 || content[1] == 0 || (content[0] & 0xFF) == 0xFE || (content[0] & 0xFF) == 0xFF))
+            return true;
+
+        outer:
+        for (int i = 0, last = content.length - pattern.length; i <= last; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (content[i + j] != pattern[j])
+                    continue outer;
             }
-        }));
+            return true;
+        }
+        return false;
+    }
+
+    private static String getQualifiedName(String prefix, String localName) {
+        return prefix == null || prefix.isEmpty() ? localName : prefix + ':' + localName;
+    }
+
+    /**
+     * the state of an open element while a layout is being scanned
+     */
+    private static class ScanFrame {
+        private final Option<XmlScope> scope;
+        private final boolean collectsViews;
+        private final List<XmlView> views = new ArrayList<>();
+        private final List<XmlScope> scopes = new ArrayList<>();
+        private final List<XmlScope> nestedScopes = new ArrayList<>();
+
+        private ScanFrame(Option<XmlScope> scope, boolean collectsViews) {
+            this.scope = scope;
+            this.collectsViews = collectsViews;
+        }
 
-        return views;
+        private void close(ScanFrame parent) {
+            if (scope.isPresent()) {
+                parent.scopes.add(scope.get().addViews(views));
+            } else if (collectsViews) {
+                parent.views.addAll(views);
+            }
+            parent.nestedScopes.addAll(getScopes());
+        }
+
+        private List<XmlScope> getScopes() {
+            List<XmlScope> all = new ArrayList<>(scopes);
+            all.addAll(nestedScopes);
+            return all;
+        }
     }
 
     private Option<String> getNodeId(NamedNodeMap nodeMap) {
@@ -24,11 +24,31 @@ public class XmlView {
     private final String id;
     private final Collection<XmlAttribute> attributes;
     private final String elementType;
+    private final boolean optional;
 
     public XmlView(String id, Collection<XmlAttribute> attributes, String elementType) {
+        this(id, attributes, elementType, false);
+    }
+
+    private XmlView(String id, Collection<XmlAttribute> attributes, String elementType, boolean optional) {
         this.id = id;
         this.attributes = attributes;
         this.elementType = elementType;
+        this.optional = optional;
+    }
+
+    /**
+     * the same view, for a layout where some variants don't have it
+     */
+    XmlView asOptional() {
+        return optional ? this : new XmlView(id, attributes, elementType, true);
+    }
+
+    /**
+     * whether findViewById can return null for the view, because some variants of its layout don't have it
+     */
+    public boolean isOptional() {
+        return optional;
     }
 
     public String getElementType(){
@@ -1,2 +1 @@
-
-
+## nothing is attached to the view
@@ -1 +1 @@
-
+## nothing is attached to the view
@@ -12,7 +12,7 @@ public final class $attrClassName implements com.ngandroid.lib.ng.ModelObserver
     }
 
     @Override public void invoke(Object disabled) {
-        if($attrSource.getGetterSource("${scope.javaName}$$NgScope.this.scope.", "${packageName}.")){
+        if($sharedPaths.getGetterSource($attr, "${scope.javaName}$$NgScope.this.scope.", "${packageName}.")){
             view_.requestFocus();
         } else {
             view_.clearFocus();
@@ -12,7 +12,7 @@ public final class $attrClassName implements com.ngandroid.lib.ng.ModelObserver
     }
 
     @Override public void invoke(Object hide) {
-        if($attrSource.getGetterSource("${scope.javaName}$$NgScope.this.scope.", "${packageName}.")) {
+        if($sharedPaths.getGetterSource($attr, "${scope.javaName}$$NgScope.this.scope.", "${packageName}.")) {
             view_.setVisibility(android.view.View.INVISIBLE);
         } else {
             view_.setVisibility(android.view.View.VISIBLE);
@@ -1,4 +1,4 @@
-public final class $attrClassName implements#if(!$isBoolType) android.text.TextWatcher, #else android.widget.CompoundButton.OnCheckedChangeListener, #end com.ngandroid.lib.ng.ModelObserver<$type> {
+public final class $attrClassName implements#if(!$isBoolType) android.text.TextWatcher,#else android.widget.CompoundButton.OnCheckedChangeListener,#end com.ngandroid.lib.ng.ModelObserver<$type> {
 
     private final $viewType view_;
     private boolean fromSelf;
@@ -6,7 +6,7 @@ public final class $attrClassName implements#if(!$isBoolType) android.text.TextW
     private $attrClassName($viewType view_) {
         this.view_ = view_;
         try {
-            this.invoke($attrSource.getGetterSource("${scope.javaName}$$NgScope.this.scope.", "${packageName}."));
+            this.invoke($sharedPaths.getGetterSource($attr, "${scope.javaName}$$NgScope.this.scope.", "${packageName}."));
         } catch(NullPointerException ignored){
             android.util.Log.w("NgAndroid", "Unable to get initial value for view '${view.id}' because of null pointer");
         }
@@ -44,4 +44,4 @@ public final class $attrClassName implements#if(!$isBoolType) android.text.TextW
         fromSelf = false;
     }
     #end
-}
\ No newline at end of file
+}
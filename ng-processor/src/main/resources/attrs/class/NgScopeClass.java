@@ -1 +1 @@
-
+## no class is nested in the scope
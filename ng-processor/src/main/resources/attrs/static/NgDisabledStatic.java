@@ -0,0 +1 @@
+${viewName}.setEnabled(!$attrSource.getGetterSource("", "${packageName}."));
@@ -0,0 +1 @@
+${viewName}.setVisibility($attrSource.getGetterSource("", "${packageName}.") ? android.view.View.GONE : android.view.View.VISIBLE);
@@ -0,0 +1 @@
+${viewName}.setVisibility($attrSource.getGetterSource("", "${packageName}.") ? android.view.View.INVISIBLE : android.view.View.VISIBLE);
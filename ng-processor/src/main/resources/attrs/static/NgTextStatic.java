@@ -0,0 +1 @@
+${viewName}.setText(ngOptions_.getValueFormatter().format($attrSource.getGetterSource("", "${packageName}."), ${viewName}.getText().toString()));
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor;
+
+import com.github.davityle.ngprocessor.util.Option;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RoundsTest {
+
+    private static final JavaFileObject LOGIN = JavaFileObjects.forSourceLines("com.yella.LoginScope",
+        "package com.yella;",
+        "",
+        "import com.ngandroid.lib.annotations.NgModel;",
+        "import com.ngandroid.lib.annotations.NgScope;",
+        "",
+        "@NgScope(name=\"Login\")",
+        "public class LoginScope {",
+        "    @NgModel Account user;",
+        "    void onSubmit(android.view.View view) {}",
+        "    void takesIntArgument(int arg) {}",
+        "}",
+        "class Account {",
+        "    private String username = \"\", password = \"\";",
+        "    public String getUsername() { return username; }",
+        "    public void setUsername(String username) { this.username = username; }",
+        "    public String getPassword() { return password; }",
+        "    public void setPassword(String password) { this.password = password; }",
+        "}");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testTimingsPerRound() throws IOException {
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> options = Arrays.asList(
+            "-proc:only",
+            "-classpath", System.getProperty("java.class.path"),
+            "-s", folder.getRoot().getPath(),
+            "-AandroidManifestFile=ng-processor/src/main/AndroidManifest.xml",
+            "-AngDaemonCache=false",
+            "-AngLayoutIndex=false");
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null, Collections.singletonList(LOGIN));
+        task.setProcessors(Arrays.<Processor>asList(new NgProcessor(Option.of("ng-processor/src/test/resources/test_login")), new LaterScopeProcessor()));
+        assertTrue(task.call());
+
+        List<String> timings = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            String message = diagnostic.getMessage(null);
+            if (diagnostic.getKind() == Diagnostic.Kind.NOTE && message.startsWith(":NgAndroid:timings")) {
+                timings.add(message);
+            }
+        }
+
+        // the manifest and the layouts are only looked at by the first round, the second reports
+        // its own phases rather than a running total
+        assertEquals(2, timings.size());
+        assertTrue(timings.get(0), timings.get(0).contains(" manifest ") && timings.get(0).contains(" layouts "));
+        assertTrue(timings.get(1), timings.get(1).contains(" scopes "));
+        assertFalse(timings.get(1), timings.get(1).contains(" manifest ") || timings.get(1).contains(" layouts "));
+    }
+
+    /**
+     * generates a scope in the first round, so that there is a second round with our annotations
+     */
+    private static class LaterScopeProcessor extends AbstractProcessor {
+        private boolean generated;
+
+        @Override
+        public Set<String> getSupportedAnnotationTypes() {
+            return Collections.singleton("*");
+        }
+
+        @Override
+        public SourceVersion getSupportedSourceVersion() {
+            return SourceVersion.latestSupported();
+        }
+
+        @Override
+        public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+            if (generated)
+                return false;
+            generated = true;
+            try (Writer writer = processingEnv.getFiler().createSourceFile("com.yella.LaterScope").openWriter()) {
+                writer.write("package com.yella;\n"
+                    + "@com.ngandroid.lib.annotations.NgScope(name=\"Later\")\n"
+                    + "public class LaterScope {\n"
+                    + "    @com.ngandroid.lib.annotations.NgModel Later later;\n"
+                    + "}\n"
+                    + "class Later {\n"
+                    + "    public String getName() { return null; }\n"
+                    + "    public void setName(String name) {}\n"
+                    + "}\n");
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor;
+
+import com.github.davityle.ngprocessor.deps.DaggerDependencyComponent;
+import com.github.davityle.ngprocessor.deps.DependencyComponent;
+import com.github.davityle.ngprocessor.deps.LayoutModule;
+import com.github.davityle.ngprocessor.finders.DefaultLayoutDirProvider;
+import com.github.davityle.ngprocessor.util.Option;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A processing environment without a compiler behind it, for testing the parts of the processor that
+ * only look at files. Errors are recorded, the element and type utilities are mocks and there is no
+ * filer unless a test mocks one.
+ */
+public class TestEnvironment implements NgProcessor.EnvironmentResolver {
+
+    private final Map<String, String> options = new HashMap<>();
+    private final List<String> errors = new ArrayList<>();
+    private final ProcessingEnvironment processingEnvironment = mock(ProcessingEnvironment.class);
+
+    public TestEnvironment() {
+        options.put("ngDaemonCache", "false");
+        options.put("ngLayoutIndex", "false");
+        when(processingEnvironment.getOptions()).thenReturn(options);
+        when(processingEnvironment.getElementUtils()).thenReturn(mock(Elements.class));
+        when(processingEnvironment.getTypeUtils()).thenReturn(mock(Types.class));
+        when(processingEnvironment.getMessager()).thenReturn(new Messager() {
+            @Override
+            public void printMessage(Diagnostic.Kind kind, CharSequence msg) {
+                if (kind == Diagnostic.Kind.ERROR) {
+                    errors.add(msg.toString());
+                }
+            }
+
+            @Override
+            public void printMessage(Diagnostic.Kind kind, CharSequence msg, Element e) {
+                printMessage(kind, msg);
+            }
+
+            @Override
+            public void printMessage(Diagnostic.Kind kind, CharSequence msg, Element e, AnnotationMirror a) {
+                printMessage(kind, msg);
+            }
+
+            @Override
+            public void printMessage(Diagnostic.Kind kind, CharSequence msg, Element e, AnnotationMirror a, AnnotationValue v) {
+                printMessage(kind, msg);
+            }
+        });
+    }
+
+    /**
+     * the options the processor is given, the daemon cache and the layout index are off by default
+     */
+    public Map<String, String> getOptions() {
+        return options;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    /**
+     * @param layoutDir the layout directory given to the processor directly, or null to have it look for one
+     */
+    public DependencyComponent component(final String layoutDir) {
+        return DaggerDependencyComponent.builder()
+            .layoutModule(new LayoutModule(new DefaultLayoutDirProvider() {
+                @Override
+                public Option<String> getDefaultLayoutDir() {
+                    return Option.of(layoutDir);
+                }
+            }))
+            .environmentModule(new NgProcessor.EnvironmentModule(this))
+            .build();
+    }
+
+    @Override
+    public ProcessingEnvironment getProcessingEnvironment() {
+        return processingEnvironment;
+    }
+
+    @Override
+    public Filer getFiler() {
+        return processingEnvironment.getFiler();
+    }
+
+    @Override
+    public Types getTypeUtils() {
+        return processingEnvironment.getTypeUtils();
+    }
+
+    @Override
+    public Elements getElementUtils() {
+        return processingEnvironment.getElementUtils();
+    }
+
+    @Override
+    public RoundEnvironment getRoundEnv() {
+        return null;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.attrcompiler;
+
+import com.github.davityle.ngprocessor.attrcompiler.node.Node;
+import com.github.davityle.ngprocessor.attrcompiler.parse.ParseException;
+import com.github.davityle.ngprocessor.attrcompiler.parse.Parser;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConstantFoldVisitorTest {
+
+    @Test
+    public void testFoldedExpressions() throws ParseException {
+        assertEquals("3", fold("(3 + (2)) - 10/5"));
+        assertEquals("(-3)", fold("-(4) + 1"));
+        assertEquals("\"a16\"", fold("'a' + 1 + 2 * 3"));
+        assertEquals("\"a\\tb0.5\"", fold("'a\\tb' + 1 / 2.0"));
+        assertEquals("1.0", fold("1 > 0 ? 1 : 2.0"));
+        assertEquals("false", fold("!(1 == 1) || 2 < 1"));
+    }
+
+    @Test
+    public void testPartiallyFoldedExpressions() throws ParseException {
+        assertEquals("(scope.modelName.getNum()-12)", fold("modelName.num - (2*(7-1))"));
+        assertEquals("scope.xyz(\"ab\",2)", fold("xyz('a' + 'b', 5 / 2)"));
+    }
+
+    @Test
+    public void testUnfoldedExpressions() throws ParseException {
+        assertEquals("(10/0)", fold("10 / 0"));
+        assertEquals("(\"a\"==\"a\")", fold("'a' == 'a'"));
+        assertEquals("(1.0/0)", fold("1.0 / 0"));
+    }
+
+    @Test
+    public void testStaticExpressions() throws ParseException {
+        assertTrue(ConstantFoldVisitor.fold(Parser.parse("'a' + 1")).isStatic());
+        assertTrue(ConstantFoldVisitor.fold(Parser.parse("@bool/flag")).isStatic());
+        assertFalse(ConstantFoldVisitor.fold(Parser.parse("'a' + modelName.num")).isStatic());
+        assertFalse(ConstantFoldVisitor.fold(Parser.parse("$view")).isStatic());
+    }
+
+    private static String fold(String expression) throws ParseException {
+        Node node = Parser.parse(expression);
+        return GetExpressionVisitor.generateGetExpression(node, ConstantFoldVisitor.fold(node), "scope.", "");
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.attrcompiler;
+
+import com.github.davityle.ngprocessor.attrcompiler.parse.ParseException;
+import com.github.davityle.ngprocessor.attrcompiler.parse.Parser;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ObserveExpressionVisitorTest {
+
+    @Test
+    public void testObservations() throws ParseException {
+        assertEquals(Arrays.asList("user.name"), describe("user.name"));
+        assertEquals(Arrays.asList("user.username", "user.password"), describe("user.username.length() < 6 || user.password.length() < 6"));
+        assertEquals(Arrays.asList("user.name", "settings.count"), describe("user.name + settings.count"));
+        assertEquals(Arrays.asList("user.name", "settings.count"), describe("onSubmit(user.name, settings.count)"));
+        assertEquals(Arrays.asList("user.a.b"), describe("user.a.b"));
+    }
+
+    @Test
+    public void testUnobservedModels() throws ParseException {
+        // the target of a function call is read but not observed
+        List<ObserveExpressionVisitor.Observation> observations = ObserveExpressionVisitor.getObservations(Parser.parse("onSubmit()"));
+        assertEquals(1, observations.size());
+        assertEquals("onSubmit", observations.get(0).getModel());
+        assertEquals(false, observations.get(0).isObserved());
+        assertEquals(0, ObserveExpressionVisitor.getObservations(Parser.parse("1 + 2")).size());
+    }
+
+    @Test
+    public void testObserveExpression() throws ParseException {
+        assertEquals("scope.getuser().addusernameObserver(observer);\nscope.getuser().addpasswordObserver(observer)",
+            ObserveExpressionVisitor.generateObserveExpression(Parser.parse("user.username + user.password"), "observer", "scope."));
+    }
+
+    /**
+     * the observed paths of the expression in the order they're read
+     */
+    private static List<String> describe(String expression) throws ParseException {
+        List<String> paths = new ArrayList<>();
+        for (ObserveExpressionVisitor.Observation observation : ObserveExpressionVisitor.getObservations(Parser.parse(expression))) {
+            if (observation.isObserved()) {
+                StringBuilder path = new StringBuilder(observation.getModel());
+                for (String field : observation.getFields()) {
+                    path.append('.').append(field);
+                }
+                paths.add(path.toString());
+            }
+        }
+        return paths;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.attrcompiler.parse;
+
+import com.github.davityle.ngprocessor.attrcompiler.GetExpressionVisitor;
+import com.github.davityle.ngprocessor.attrcompiler.ObserveExpressionVisitor;
+import com.github.davityle.ngprocessor.attrcompiler.node.Node;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class CompactExpressionTest {
+
+    private static final String[] EXPRESSIONS = {
+        "modelName.num",
+        "!modelName.visible",
+        "modelName.title.length() < 3 || !modelName.enabled",
+        "modelName.enabled ? modelName.title : 'none \\'quoted\\''",
+        "format(modelName.title, modelName.count) + ' of ' + 2.5",
+        "onSelect(modelName.count, @id/viewA, $view)",
+        "(3 + (2)) - 10/5",
+        "-modelName.count * 2 >= modelName.amount"
+    };
+
+    @Test
+    public void testInflatedExpressions() throws ParseException {
+        for (String expression : EXPRESSIONS) {
+            Node node = Parser.parse(expression);
+            CompactExpression compact = CompactExpression.compact(expression, node);
+            assertNotNull(expression, compact);
+
+            Node inflated = compact.inflate();
+            assertEquals(expression, getSource(node), getSource(inflated));
+            assertEquals(expression, ObserveExpressionVisitor.generateObserveExpression(node, "observer", "scope."),
+                ObserveExpressionVisitor.generateObserveExpression(inflated, "observer", "scope."));
+        }
+    }
+
+    private static String getSource(Node node) {
+        return GetExpressionVisitor.generateGetExpression(node, "scope.", "com.example.");
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.attrcompiler.sources;
+
+import com.github.davityle.ngprocessor.attrcompiler.Visitors;
+import com.github.davityle.ngprocessor.attrcompiler.node.Node;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CompiledExpressionTest {
+
+    @Test
+    public void testCompiledOnce() throws Exception {
+        CompiledExpression compiled = CompiledExpression.compile("model.name + model.count", false);
+        assertSame(compiled, CompiledExpression.compile("model.name + model.count", false));
+        assertEquals(Arrays.asList("model.name", "model.count"), compiled.getPathNames());
+        assertFalse(compiled.isStatic());
+
+        // compact and tree expressions are cached apart
+        CompiledExpression compact = CompiledExpression.compile("model.name + model.count", true);
+        assertNotSame(compiled, compact);
+        assertSame(compact, CompiledExpression.compile("model.name + model.count", true));
+        assertEquals(compiled.getPathNames(), compact.getPathNames());
+        assertNotNull(compact.getPath("model.count"));
+        assertNull(compact.getPath("model.other"));
+
+        CompiledExpression constant = CompiledExpression.compile("1 + 2", false);
+        assertTrue(constant.isStatic());
+        assertEquals(Collections.<String>emptyList(), constant.getPathNames());
+    }
+
+    @Test
+    public void testGeneratedCodeCached() throws Exception {
+        Visitors visitors = mock(Visitors.class);
+        when(visitors.getSetterSource(any(Node.class), anyString())).thenReturn("setter");
+        when(visitors.getObserverSource(any(Node.class), anyString(), anyString())).thenReturn("observer");
+        CompiledExpression compiled = CompiledExpression.compile("model.cached", false);
+
+        assertEquals("setter", compiled.getSetterSource(visitors, "value"));
+        assertEquals("setter", compiled.getSetterSource(visitors, "value"));
+        verify(visitors, times(1)).getSetterSource(any(Node.class), eq("value"));
+
+        // the observer source is cached by both of its arguments
+        compiled.getObserverSource(visitors, "observer", "scope.");
+        compiled.getObserverSource(visitors, "observer", "scope.");
+        compiled.getObserverSource(visitors, "observer", "other.");
+        verify(visitors, times(1)).getObserverSource(any(Node.class), eq("observer"), eq("scope."));
+        verify(visitors, times(1)).getObserverSource(any(Node.class), eq("observer"), eq("other."));
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        CompiledExpression first = CompiledExpression.compile("model.first", false);
+        CompiledExpression compact = CompiledExpression.compile("model.first", true);
+        CompiledExpression last = null;
+        for (int i = 0; i < CompiledExpression.MAX_EXPRESSIONS; i++) {
+            last = CompiledExpression.compile("model.field" + i, false);
+        }
+
+        // the cache was cleared once it was full, and started over with what came after
+        assertNotSame(first, CompiledExpression.compile("model.first", false));
+        assertSame(last, CompiledExpression.compile("model.field" + (CompiledExpression.MAX_EXPRESSIONS - 1), false));
+
+        // filling the tree cache leaves the compact cache alone
+        assertSame(compact, CompiledExpression.compile("model.first", true));
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.finders;
+
+import com.github.davityle.ngprocessor.TestEnvironment;
+import com.github.davityle.ngprocessor.util.DaemonCache;
+import com.github.davityle.ngprocessor.util.MessageUtils;
+import com.github.davityle.ngprocessor.util.Option;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LayoutsFinderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final TestEnvironment environment = new TestEnvironment();
+
+    @Test
+    public void testResourceRoots() throws IOException {
+        File app = module("app");
+        File lib = module("lib");
+        mkdirs(app, "src/main/res/layout", "src/main/res/layout-land", "src/debug/res/layout");
+        mkdirs(lib, "src/main/res/layout");
+
+        // in the order of the roots, a directory under more than one of them is only found once
+        environment.getOptions().put("ngLayoutParseThreads", "1");
+        environment.getOptions().put("ngResourceRoots", lib.getPath() + "," + app.getPath() + File.pathSeparator + folder.getRoot().getPath());
+        assertEquals(Arrays.asList(
+            "lib/src/main/res/layout",
+            "app/src/debug/res/layout",
+            "app/src/main/res/layout",
+            "app/src/main/res/layout-land"), find(finder()));
+        assertEquals(Collections.<String>emptyList(), environment.getErrors());
+    }
+
+    @Test
+    public void testConcurrentResourceRoots() throws IOException {
+        File app = module("app");
+        File lib = module("lib");
+        mkdirs(app, "src/main/res/layout", "src/main/res/layout-land");
+        mkdirs(lib, "src/main/res/layout");
+
+        environment.getOptions().put("ngLayoutParseThreads", "4");
+        environment.getOptions().put("ngResourceRoots", app.getPath() + "," + lib.getPath() + "," + app.getPath());
+        assertEquals(Arrays.asList(
+            "app/src/main/res/layout",
+            "app/src/main/res/layout-land",
+            "lib/src/main/res/layout"), find(finder()));
+    }
+
+    @Test
+    public void testMissingResourceRoot() throws IOException {
+        File app = module("app");
+        mkdirs(app, "src/main/res/layout");
+
+        environment.getOptions().put("ngResourceRoots", new File(folder.getRoot(), "missing").getPath() + "," + app.getPath());
+        assertEquals(Collections.singletonList("app/src/main/res/layout"), find(finder()));
+        assertEquals(1, environment.getErrors().size());
+    }
+
+    @Test
+    public void testPrunedDirectories() throws IOException {
+        File app = module("app");
+        mkdirs(app, "src/main/res/layout", "build/intermediates/res/layout", "out/res/layout", "bin/res/layout",
+            "compile/res/layout", "node_modules/res/layout", ".git/res/layout", ".gradle/res/layout");
+
+        environment.getOptions().put("ngResourceRoots", app.getPath());
+        assertEquals(Collections.singletonList("app/src/main/res/layout"), find(finder()));
+    }
+
+    @Test
+    public void testModuleOfSourceOutput() throws IOException {
+        File app = module("app");
+        File lib = module("lib");
+        mkdirs(app, "src/main/res/layout", "build/generated/source/apt/debug/com");
+        mkdirs(lib, "src/main/res/layout");
+
+        // the module that has the source output, not the first one under the working directory
+        File sourceOutput = new File(app, "build/generated/source/apt/debug");
+        final FileHelper.FileHolder holder = new FileHelper.FileHolder(new File(sourceOutput, "com/dummy").toURI().toString(), new File(sourceOutput, "com"), sourceOutput);
+        FileHelper fileHelper = new FileHelper(environment.getProcessingEnvironment()) {
+            @Override
+            public Option<FileHolder> findRootProjectHolder() {
+                return Option.of(holder);
+            }
+        };
+
+        String layoutPath = System.clearProperty("LAYOUT_PATH");
+        try {
+            assertEquals(Collections.singletonList("app/src/main/res/layout"), find(finder(fileHelper)));
+        } finally {
+            if (layoutPath != null) {
+                System.setProperty("LAYOUT_PATH", layoutPath);
+            }
+        }
+    }
+
+    @Test
+    public void testCachedListings() throws IOException {
+        File app = module("app");
+        mkdirs(app, "src/main/res/layout");
+        environment.getOptions().put("ngDaemonCache", "true");
+        environment.getOptions().put("ngResourceRoots", app.getPath());
+        assertEquals(Collections.singletonList("app/src/main/res/layout"), find(finder()));
+
+        // a later build finds the listing of an unchanged directory in the cache instead of listing it
+        File res = new File(app, "src/main/res");
+        DaemonCache cache = new DaemonCache(new OptionsHelper(environment.getProcessingEnvironment()));
+        File[] listing = cache.get(DaemonCache.LISTINGS, res, res.length(), res.lastModified(), File[].class).get();
+        assertEquals(1, listing.length);
+        cache.put(DaemonCache.LISTINGS, res, res.length(), res.lastModified(), new File[]{listing[0], new File(res, "layout-cached")});
+        assertEquals(Arrays.asList("app/src/main/res/layout", "app/src/main/res/layout-cached"), find(finder()));
+
+        // and lists it again once it changes
+        assertTrue(res.setLastModified(res.lastModified() - 60000));
+        assertEquals(Collections.singletonList("app/src/main/res/layout"), find(finder()));
+    }
+
+    private File module(String name) throws IOException {
+        return folder.newFolder(name);
+    }
+
+    private static void mkdirs(File module, String... paths) {
+        for (String path : paths) {
+            assertTrue(path, new File(module, path).mkdirs());
+        }
+    }
+
+    private LayoutsFinder finder() {
+        return finder(new FileHelper(environment.getProcessingEnvironment()));
+    }
+
+    private LayoutsFinder finder(FileHelper fileHelper) {
+        OptionsHelper optionsHelper = new OptionsHelper(environment.getProcessingEnvironment());
+        return new LayoutsFinder(new MessageUtils(environment.getProcessingEnvironment()), new DefaultLayoutDirProvider() {
+            @Override
+            public Option<String> getDefaultLayoutDir() {
+                return Option.absent();
+            }
+        }, optionsHelper, fileHelper, new DaemonCache(optionsHelper));
+    }
+
+    /**
+     * the layout directories found, relative to the temporary folder
+     */
+    private List<String> find(LayoutsFinder finder) {
+        String root = folder.getRoot().getAbsolutePath() + File.separator;
+        List<String> dirs = new ArrayList<>();
+        for (File dir : finder.findLayoutDirs()) {
+            dirs.add(dir.getAbsolutePath().substring(root.length()).replace(File.separatorChar, '/'));
+        }
+        return dirs;
+    }
+}
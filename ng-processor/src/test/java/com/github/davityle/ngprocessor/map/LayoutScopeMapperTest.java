@@ -0,0 +1,119 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.map;
+
+import com.github.davityle.ngprocessor.TestEnvironment;
+import com.github.davityle.ngprocessor.model.Layout;
+import com.github.davityle.ngprocessor.model.Model;
+import com.github.davityle.ngprocessor.model.Scope;
+import com.github.davityle.ngprocessor.util.CollectionUtils;
+import com.github.davityle.ngprocessor.util.MessageUtils;
+import com.github.davityle.ngprocessor.xml.XmlScope;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LayoutScopeMapperTest {
+
+    @Test
+    public void testMapLayoutsToScopes() {
+        Scope a = scope("A", "com.yella.A");
+        Scope b = scope("B", "com.yella.B");
+        Scope otherA = scope("A", "com.yella.OtherA");
+        Set<Scope> scopes = new LinkedHashSet<>(Arrays.asList(a, b, otherA));
+
+        XmlScope firstA = new XmlScope("A"), nestedA = new XmlScope("A");
+        Map<Layout, Collection<XmlScope>> layouts = new LinkedHashMap<>();
+        layouts.put(new Layout("layout/both.xml"), Arrays.asList(new XmlScope("B"), firstA));
+        layouts.put(new Layout("layout/nested.xml"), Arrays.asList(nestedA, new XmlScope("A")));
+        layouts.put(new Layout("layout/unknown.xml"), Collections.singletonList(new XmlScope("Unknown")));
+
+        TestEnvironment environment = new TestEnvironment();
+        Map<Layout, Collection<Scope>> mapped = mapper(environment, scopes, layouts).mapLayoutsToScopes();
+
+        // scopes keep the order of the scope set and every scope of a name is mapped
+        assertEquals(Arrays.asList("com.yella.A", "com.yella.B", "com.yella.OtherA"), names(mapped.get(new Layout("layout/both.xml"))));
+        assertEquals(Arrays.asList("com.yella.A", "com.yella.OtherA"), names(mapped.get(new Layout("layout/nested.xml"))));
+        assertEquals(Collections.<String>emptyList(), names(mapped.get(new Layout("layout/unknown.xml"))));
+
+        // the first xml scope of a name is the one the scope gets
+        assertSame(firstA, a.getXmlScopes().get(new Layout("layout/both.xml")));
+        assertSame(nestedA, a.getXmlScopes().get(new Layout("layout/nested.xml")));
+        assertEquals(2, otherA.getLayouts().size());
+        assertEquals(1, b.getLayouts().size());
+        assertEquals(Collections.<String>emptyList(), environment.getErrors());
+    }
+
+    @Test
+    public void testInaccessibleScopeReportedOnce() {
+        Scope hidden = scope("Hidden", "com.yella.Hidden", Modifier.PRIVATE);
+        Scope inner = scope("Inner", "com.yella.Inner", Modifier.PROTECTED);
+        Map<Layout, Collection<XmlScope>> layouts = new LinkedHashMap<>();
+        for (int i = 0; i < 3; i++) {
+            layouts.put(new Layout("layout/layout" + i + ".xml"), Arrays.asList(new XmlScope("Hidden"), new XmlScope("Inner")));
+        }
+
+        TestEnvironment environment = new TestEnvironment();
+        mapper(environment, new LinkedHashSet<>(Arrays.asList(hidden, inner)), layouts).mapLayoutsToScopes();
+
+        List<String> expected = new ArrayList<>();
+        expected.add("Unable to access Scope 'com.yella.Hidden'. Must have default or public access");
+        expected.add("Unable to access Scope 'com.yella.Inner'. Must have default or public access");
+        assertEquals(expected, environment.getErrors());
+    }
+
+    private static LayoutScopeMapper mapper(TestEnvironment environment, Set<Scope> scopes, Map<Layout, Collection<XmlScope>> layouts) {
+        LayoutScopeMapper mapper = new LayoutScopeMapper(scopes, layouts);
+        mapper.messageUtils = new MessageUtils(environment.getProcessingEnvironment());
+        mapper.collectionUtils = new CollectionUtils();
+        return mapper;
+    }
+
+    private static List<String> names(Collection<Scope> scopes) {
+        List<String> names = new ArrayList<>();
+        for (Scope scope : scopes) {
+            names.add(scope.toString());
+        }
+        return names;
+    }
+
+    private static Scope scope(String name, String type, Modifier... modifiers) {
+        Element element = mock(Element.class, type);
+        Set<Modifier> elementModifiers = EnumSet.noneOf(Modifier.class);
+        elementModifiers.addAll(Arrays.asList(modifiers));
+        when(element.getModifiers()).thenReturn(elementModifiers);
+        return new Scope(element, Collections.<Model>emptyList(), name, type, type.substring(type.lastIndexOf('.') + 1));
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.model;
+
+import com.github.davityle.ngprocessor.NgProcessor;
+import com.github.davityle.ngprocessor.util.Option;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.ASSERT;
+import static com.google.testing.compile.JavaSourceSubjectFactory.javaSource;
+
+public class SharedPathsTest {
+
+    private static final JavaFileObject LOGIN = JavaFileObjects.forSourceLines("com.ngandroid.demo.scope.LoginScope",
+        "package com.ngandroid.demo.scope;",
+        "",
+        "import com.ngandroid.lib.annotations.NgModel;",
+        "import com.ngandroid.lib.annotations.NgScope;",
+        "",
+        "@NgScope(name=\"Login\")",
+        "public class LoginScope {",
+        "    @NgModel User user;",
+        "    void onSubmit(android.view.View view) {}",
+        "    void takesIntArgument(int arg) {}",
+        "}",
+        "class User {",
+        "    private String username = \"\", password = \"\";",
+        "    public String getUsername() { return username; }",
+        "    public void setUsername(String username) { this.username = username; }",
+        "    public String getPassword() { return password; }",
+        "    public void setPassword(String password) { this.password = password; }",
+        "}");
+
+    private static final JavaFileObject LOGIN_CONTROLLER = JavaFileObjects.forSourceLines("ng.layout.LoginController",
+        "package ng.layout;",
+        "",
+        "import android.view.View;",
+        "import android.widget.*;",
+        "import com.ngandroid.demo.scope.LoginScope$$NgScope;",
+        "",
+        "public class LoginController implements com.ngandroid.lib.ng.Controller {",
+        "    private final com.ngandroid.lib.NgOptions ngOptions_;",
+        "    private final LoginScope$$NgScope Login;",
+        "",
+        "    public LoginController(com.ngandroid.lib.NgOptions ngOptions, com.ngandroid.demo.scope.LoginScope Login){",
+        "        this.ngOptions_ = ngOptions;",
+        "        this.Login = new LoginScope$$NgScope(Login, ngOptions_);",
+        "    }",
+        "",
+        "    public int getId() {",
+        "        return com.github.davityle.ngprocessor.R.layout.login;",
+        "    }",
+        "",
+        "    public void attach(android.view.View __view__){",
+        "        Login.Login.passObserver_.invoke(null);",
+        "        Login.getuser().addusernameObserver(Login.Login.passObserver_);",
+        "        Login.getuser().addpasswordObserver(Login.Login.passObserver_);",
+        "",
+        "        EditText username = (EditText) __view__.findViewById(com.github.davityle.ngprocessor.R.id.username);",
+        "        LoginScope$$NgScope.Login.usernamengModel usernamengModel = Login.Login.getusernamengModel(username);",
+        "        username.addTextChangedListener(usernamengModel);",
+        "        Login.getuser().addusernameObserver(usernamengModel);",
+        "",
+        "        EditText password = (EditText) __view__.findViewById(com.github.davityle.ngprocessor.R.id.password);",
+        "        LoginScope$$NgScope.Login.passwordngModel passwordngModel = Login.Login.getpasswordngModel(password);",
+        "        password.addTextChangedListener(passwordngModel);",
+        "        Login.getuser().addpasswordObserver(passwordngModel);",
+        "",
+        "        Button submit = (Button) __view__.findViewById(com.github.davityle.ngprocessor.R.id.submit);",
+        "        LoginScope$$NgScope.Login.submitngDisabled submitngDisabled = Login.Login.getsubmitngDisabled(submit);",
+        "        Login.getuser().addusernameObserver(submitngDisabled);",
+        "        Login.getuser().addpasswordObserver(submitngDisabled);",
+        "",
+        "        Button testAnd = (Button) __view__.findViewById(com.github.davityle.ngprocessor.R.id.testAnd);",
+        "        LoginScope$$NgScope.Login.testAndngClick testAndngClick = Login.Login.gettestAndngClick(testAnd);",
+        "        testAnd.setOnClickListener(testAndngClick);",
+        "        LoginScope$$NgScope.Login.testAndngDisabled testAndngDisabled = Login.Login.gettestAndngDisabled(testAnd);",
+        "        Login.getuser().addusernameObserver(testAndngDisabled);",
+        "        Login.getuser().addpasswordObserver(testAndngDisabled);",
+        "",
+        "        Button testAnd2 = (Button) __view__.findViewById(com.github.davityle.ngprocessor.R.id.testAnd2);",
+        "        LoginScope$$NgScope.Login.testAnd2ngClick testAnd2ngClick = Login.Login.gettestAnd2ngClick(testAnd2);",
+        "        testAnd2.setOnClickListener(testAnd2ngClick);",
+        "    }",
+        "}");
+
+    private static final JavaFileObject LOGIN_SCOPE = JavaFileObjects.forSourceLines("com.ngandroid.demo.scope.LoginScope$$NgScope",
+        "package com.ngandroid.demo.scope;",
+        "",
+        "import android.view.View;",
+        "import android.widget.*;",
+        "",
+        "public class LoginScope$$NgScope {",
+        "    private LoginScope scope;",
+        "    private final com.ngandroid.lib.NgOptions ngOptions_;",
+        "",
+        "    public LoginScope$$NgScope(LoginScope scope, com.ngandroid.lib.NgOptions ngOptions_){",
+        "        this.scope = scope;",
+        "        this.ngOptions_ = ngOptions_;",
+        "        if(this.scope.user == null || !(this.scope.user instanceof com.ngandroid.demo.scope.User$$NgModel)){",
+        "            this.scope.user = new com.ngandroid.demo.scope.User$$NgModel();",
+        "        }",
+        "    }",
+        "",
+        "    public com.ngandroid.demo.scope.User$$NgModel getuser() {",
+        "        return (com.ngandroid.demo.scope.User$$NgModel) this.scope.user;",
+        "    }",
+        "",
+        "    public Login Login = new Login();",
+        "",
+        "    public class Login {",
+        "        private int pass_;",
+        "        public final com.ngandroid.lib.ng.ModelObserver passObserver_ = new com.ngandroid.lib.ng.ModelObserver() {",
+        "            @Override public void invoke(Object arg) {",
+        "                pass_++;",
+        "            }",
+        "        };",
+        "",
+        "        private java.lang.String shared0Value_;",
+        "        private int shared0Pass_ = -1;",
+        "        private java.lang.String shared0_() {",
+        "            if(shared0Pass_ != pass_){",
+        "                shared0Value_ = LoginScope$$NgScope.this.scope.user.getUsername();",
+        "                shared0Pass_ = pass_;",
+        "            }",
+        "            return shared0Value_;",
+        "        }",
+        "",
+        "        private java.lang.String shared1Value_;",
+        "        private int shared1Pass_ = -1;",
+        "        private java.lang.String shared1_() {",
+        "            if(shared1Pass_ != pass_){",
+        "                shared1Value_ = LoginScope$$NgScope.this.scope.user.getPassword();",
+        "                shared1Pass_ = pass_;",
+        "            }",
+        "            return shared1Value_;",
+        "        }",
+        "",
+        "        public usernamengModel getusernamengModel(EditText view) {",
+        "            return new Login.usernamengModel(view);",
+        "        }",
+        "",
+        "        public final class usernamengModel implements android.text.TextWatcher, com.ngandroid.lib.ng.ModelObserver<java.lang.String> {",
+        "            private final EditText view_;",
+        "            private boolean fromSelf;",
+        "",
+        "            private usernamengModel(EditText view_) {",
+        "                this.view_ = view_;",
+        "                try {",
+        "                    this.invoke(shared0_());",
+        "                } catch(NullPointerException ignored){",
+        "                    android.util.Log.w(\"NgAndroid\", \"Unable to get initial value for view 'username' because of null pointer\");",
+        "                }",
+        "            }",
+        "",
+        "            @Override public void invoke(java.lang.String arg) {",
+        "                if(!fromSelf){",
+        "                    fromSelf = true;",
+        "                    view_.setText(ngOptions_.getValueFormatter().format(arg, view_.getText().toString()));",
+        "                }",
+        "                fromSelf = false;",
+        "            }",
+        "            @Override public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) {}",
+        "            @Override public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {}",
+        "            @Override public void afterTextChanged(android.text.Editable editable) {",
+        "                if(!fromSelf){",
+        "                    fromSelf = true;",
+        "                    LoginScope$$NgScope.this.scope.user.setUsername(ngOptions_.getValueFormatter().getValue(LoginScope$$NgScope.this.scope.user.getUsername(), editable.toString()));",
+        "                }",
+        "                fromSelf = false;",
+        "            }",
+        "        }",
+        "        public passwordngModel getpasswordngModel(EditText view) {",
+        "            return new Login.passwordngModel(view);",
+        "        }",
+        "",
+        "        public final class passwordngModel implements android.text.TextWatcher, com.ngandroid.lib.ng.ModelObserver<java.lang.String> {",
+        "            private final EditText view_;",
+        "            private boolean fromSelf;",
+        "",
+        "            private passwordngModel(EditText view_) {",
+        "                this.view_ = view_;",
+        "                try {",
+        "                    this.invoke(shared1_());",
+        "                } catch(NullPointerException ignored){",
+        "                    android.util.Log.w(\"NgAndroid\", \"Unable to get initial value for view 'password' because of null pointer\");",
+        "                }",
+        "            }",
+        "",
+        "            @Override public void invoke(java.lang.String arg) {",
+        "                if(!fromSelf){",
+        "                    fromSelf = true;",
+        "                    view_.setText(ngOptions_.getValueFormatter().format(arg, view_.getText().toString()));",
+        "                }",
+        "                fromSelf = false;",
+        "            }",
+        "            @Override public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) {}",
+        "            @Override public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {}",
+        "            @Override public void afterTextChanged(android.text.Editable editable) {",
+        "                if(!fromSelf){",
+        "                    fromSelf = true;",
+        "                    LoginScope$$NgScope.this.scope.user.setPassword(ngOptions_.getValueFormatter().getValue(LoginScope$$NgScope.this.scope.user.getPassword(), editable.toString()));",
+        "                }",
+        "                fromSelf = false;",
+        "            }",
+        "        }",
+        "        public submitngDisabled getsubmitngDisabled(Button view) {",
+        "            return new Login.submitngDisabled(view);",
+        "        }",
+        "",
+        "        public final class submitngDisabled implements com.ngandroid.lib.ng.ModelObserver {",
+        "            private final Button view_;",
+        "",
+        "            private submitngDisabled(Button view_) {",
+        "                this.view_ = view_;",
+        "                try {",
+        "                    this.invoke(null);",
+        "                } catch(NullPointerException ignored){",
+        "                    android.util.Log.w(\"NgAndroid\", \"Unable to get initial value for view 'submit' because of null pointer\");",
+        "                }",
+        "            }",
+        "",
+        "            @Override public void invoke(Object val) {",
+        "                view_.setEnabled(!((shared0_().length()<6)||(shared1_().length()<6)));",
+        "            }",
+        "        }",
+        "        public testAndngClick gettestAndngClick(Button view) {",
+        "            return new Login.testAndngClick(view);",
+        "        }",
+        "        public testAndngDisabled gettestAndngDisabled(Button view) {",
+        "            return new Login.testAndngDisabled(view);",
+        "        }",
+        "",
+        "        public final class testAndngClick implements android.view.View.OnClickListener {",
+        "            private testAndngClick(Button view_) {}",
+        "",
+        "            @Override public void onClick(android.view.View view) {",
+        "                LoginScope$$NgScope.this.scope.onSubmit(view);",
+        "            }",
+        "        }",
+        "        public final class testAndngDisabled implements com.ngandroid.lib.ng.ModelObserver {",
+        "            private final Button view_;",
+        "",
+        "            private testAndngDisabled(Button view_) {",
+        "                this.view_ = view_;",
+        "                try {",
+        "                    this.invoke(null);",
+        "                } catch(NullPointerException ignored){",
+        "                    android.util.Log.w(\"NgAndroid\", \"Unable to get initial value for view 'testAnd' because of null pointer\");",
+        "                }",
+        "            }",
+        "",
+        "            @Override public void invoke(Object val) {",
+        "                view_.setEnabled(!((shared0_().length()<6)&&(shared1_().length()<6)));",
+        "            }",
+        "        }",
+        "        public testAnd2ngClick gettestAnd2ngClick(Button view) {",
+        "            return new Login.testAnd2ngClick(view);",
+        "        }",
+        "",
+        "        public final class testAnd2ngClick implements android.view.View.OnClickListener {",
+        "            private testAnd2ngClick(Button view_) {}",
+        "",
+        "            @Override public void onClick(android.view.View view) {",
+        "                LoginScope$$NgScope.this.scope.takesIntArgument(com.github.davityle.ngprocessor.R.id.testAnd);",
+        "            }",
+        "        }",
+        "    }",
+        "}");
+
+    private static final String LAYOUT_DIR = "ng-processor/src/test/resources/test_login";
+
+    /**
+     * the pass observer is registered with every shared path before any of the bindings, in the order
+     * the paths are first read
+     */
+    @Test
+    public void testSharedPaths() {
+        ASSERT.about(javaSource())
+            .that(LOGIN)
+            .processedWith(Collections.singletonList(new NgProcessor(Option.of(LAYOUT_DIR))))
+            .compilesWithoutError()
+            .and()
+            .generatesSources(LOGIN_CONTROLLER, LOGIN_SCOPE);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.source;
+
+import com.github.davityle.ngprocessor.NgProcessor;
+import com.github.davityle.ngprocessor.util.Option;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import static org.junit.Assert.assertEquals;
+
+public class SourceCreatorTest {
+
+    private static final String[] LAYOUTS = {
+        "ng-processor/src/test/resources/emitter_layouts/emitter.xml",
+        "ng-processor/src/test/resources/test_login/login.xml"
+    };
+
+    private static final List<JavaFileObject> SOURCES = Arrays.asList(
+        JavaFileObjects.forSourceLines("com.yella.EmitterScope",
+            "package com.yella;",
+            "",
+            "import com.ngandroid.lib.annotations.NgModel;",
+            "import com.ngandroid.lib.annotations.NgScope;",
+            "",
+            "@NgScope(name=\"Emitter\")",
+            "public class EmitterScope {",
+            "    @NgModel User user;",
+            "    @NgModel Settings settings;",
+            "    void onBlur() {}",
+            "    void onSubmit(String name) {}",
+            "    void onLongClick() {}",
+            "}",
+            "class User {",
+            "    private String name;",
+            "    private boolean locked;",
+            "    public String getName() { return name; }",
+            "    public void setName(String name) { this.name = name; }",
+            "    public boolean getLocked() { return locked; }",
+            "    public void setLocked(boolean locked) { this.locked = locked; }",
+            "}",
+            "class Settings {",
+            "    private int count;",
+            "    public int getCount() { return count; }",
+            "    public void setCount(int count) { this.count = count; }",
+            "}"),
+        JavaFileObjects.forSourceLines("com.yella.LoginScope",
+            "package com.yella;",
+            "",
+            "import com.ngandroid.lib.annotations.NgModel;",
+            "import com.ngandroid.lib.annotations.NgScope;",
+            "",
+            "@NgScope(name=\"Login\")",
+            "public class LoginScope {",
+            "    @NgModel Account user;",
+            "    void onSubmit(android.view.View view) {}",
+            "    void takesIntArgument(int arg) {}",
+            "}",
+            "class Account {",
+            "    private String username = \"\", password = \"\";",
+            "    public String getUsername() { return username; }",
+            "    public void setUsername(String username) { this.username = username; }",
+            "    public String getPassword() { return password; }",
+            "    public void setPassword(String password) { this.password = password; }",
+            "}"));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testConcurrentRenderingMatchesSerial() throws IOException {
+        // a few copies of each layout so that there are more sources than threads
+        File layoutDir = folder.newFolder("layout");
+        for (String layout : LAYOUTS) {
+            byte[] content = Files.readAllBytes(new File(layout).toPath());
+            String name = new File(layout).getName().replace(".xml", "");
+            for (int i = 0; i < 3; i++) {
+                Files.write(new File(layoutDir, name + i + ".xml").toPath(), content);
+            }
+        }
+
+        for (String emitter : Arrays.asList("velocity", "direct")) {
+            List<String> serial = generate(layoutDir, emitter, 1);
+            List<String> concurrent = generate(layoutDir, emitter, 4);
+
+            assertEquals(emitter, 2 * (2 + 3 * LAYOUTS.length + 3), serial.size());
+            assertEquals(emitter, serial, concurrent);
+        }
+    }
+
+    /**
+     * runs the processor and returns every generated source's name followed by its content, in the
+     * order the files were created
+     */
+    private List<String> generate(File layoutDir, String emitter, int threads) throws IOException {
+        File out = folder.newFolder();
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final List<String> created = new ArrayList<>();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8);
+        ForwardingJavaFileManager<StandardJavaFileManager> recording = new ForwardingJavaFileManager<StandardJavaFileManager>(fileManager) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) throws IOException {
+                if (location == StandardLocation.SOURCE_OUTPUT) {
+                    created.add(className);
+                }
+                return super.getJavaFileForOutput(location, className, kind, sibling);
+            }
+        };
+        List<String> options = Arrays.asList(
+            "-proc:only",
+            "-classpath", System.getProperty("java.class.path"),
+            "-s", out.getPath(),
+            "-AandroidManifestFile=ng-processor/src/main/AndroidManifest.xml",
+            "-AngDaemonCache=false",
+            "-AngLayoutIndex=false",
+            "-AngSourceEmitter=" + emitter,
+            "-AngRenderThreads=" + threads);
+        JavaCompiler.CompilationTask task = compiler.getTask(null, recording, null, options, null, SOURCES);
+        task.setProcessors(Collections.singletonList(new NgProcessor(Option.of(layoutDir.getPath()))));
+        task.call();
+        fileManager.close();
+
+        List<String> generated = new ArrayList<>();
+        for (String className : created) {
+            generated.add(className);
+            File source = new File(out, className.replace('.', File.separatorChar) + ".java");
+            generated.add(new String(Files.readAllBytes(source.toPath()), StandardCharsets.UTF_8));
+        }
+        return generated;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.source.emitters;
+
+import com.github.davityle.ngprocessor.NgProcessor;
+import com.github.davityle.ngprocessor.util.Option;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SourceEmitterTest {
+
+    private static final String[] LAYOUT_DIRS = {
+        "ng-processor/src/test/resources/emitter_layouts",
+        "ng-processor/src/test/resources/test_login"
+    };
+
+    private static final JavaFileObject EMITTER_SCOPE = JavaFileObjects.forSourceLines("com.yella.EmitterScope",
+        "package com.yella;",
+        "",
+        "import com.ngandroid.lib.annotations.NgModel;",
+        "import com.ngandroid.lib.annotations.NgScope;",
+        "",
+        "@NgScope(name=\"Emitter\")",
+        "public class EmitterScope {",
+        "    @NgModel User user;",
+        "    @NgModel Settings settings;",
+        "    void onBlur() {}",
+        "    void onSubmit(String name) {}",
+        "    void onLongClick() {}",
+        "}",
+        "class User {",
+        "    private String name;",
+        "    private boolean locked;",
+        "    public String getName() { return name; }",
+        "    public void setName(String name) { this.name = name; }",
+        "    public boolean getLocked() { return locked; }",
+        "    public void setLocked(boolean locked) { this.locked = locked; }",
+        "}",
+        "class Settings {",
+        "    private int count;",
+        "    public int getCount() { return count; }",
+        "    public void setCount(int count) { this.count = count; }",
+        "}");
+
+    private static final JavaFileObject LOGIN_SCOPE = JavaFileObjects.forSourceLines("com.yella.LoginScope",
+        "package com.yella;",
+        "",
+        "import com.ngandroid.lib.annotations.NgModel;",
+        "import com.ngandroid.lib.annotations.NgScope;",
+        "",
+        "@NgScope(name=\"Login\")",
+        "public class LoginScope {",
+        "    @NgModel Account user;",
+        "    void onSubmit(android.view.View view) {}",
+        "    void takesIntArgument(int arg) {}",
+        "}",
+        "class Account {",
+        "    private String username = \"\", password = \"\";",
+        "    public String getUsername() { return username; }",
+        "    public void setUsername(String username) { this.username = username; }",
+        "    public String getPassword() { return password; }",
+        "    public void setPassword(String password) { this.password = password; }",
+        "}");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testDirectEmitterMatchesVelocity() throws IOException {
+        List<JavaFileObject> sources = Arrays.asList(EMITTER_SCOPE, LOGIN_SCOPE);
+        for (String layoutDir : LAYOUT_DIRS) {
+            Map<String, String> velocity = generate(layoutDir, sources, "velocity");
+            Map<String, String> direct = generate(layoutDir, sources, "direct");
+
+            assertTrue(layoutDir, velocity.containsKey("ng/layout/" + controllerName(layoutDir)));
+            assertEquals(layoutDir, velocity.keySet(), direct.keySet());
+            for (Map.Entry<String, String> source : velocity.entrySet()) {
+                assertEquals(source.getKey(), source.getValue(), direct.get(source.getKey()));
+            }
+        }
+    }
+
+    private static String controllerName(String layoutDir) {
+        return layoutDir.endsWith("test_login") ? "LoginController.java" : "EmitterController.java";
+    }
+
+    /**
+     * runs the processor over the sources and returns every generated source by its path
+     */
+    private Map<String, String> generate(String layoutDir, List<JavaFileObject> sources, String emitter) throws IOException {
+        File out = folder.newFolder();
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        List<String> options = Arrays.asList(
+            "-proc:only",
+            "-classpath", System.getProperty("java.class.path"),
+            "-s", out.getPath(),
+            "-AandroidManifestFile=ng-processor/src/main/AndroidManifest.xml",
+            "-AngDaemonCache=false",
+            "-AngLayoutIndex=false",
+            "-AngSourceEmitter=" + emitter);
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null, sources);
+        task.setProcessors(Collections.singletonList(new NgProcessor(Option.of(layoutDir))));
+        task.call();
+
+        // only the processor's own errors, ngBlur's generated getter doesn't compile with either emitter
+        List<String> errors = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR && !isGenerated(diagnostic.getSource(), out)) {
+                errors.add(diagnostic.getMessage(null));
+            }
+        }
+        assertEquals(Collections.<String>emptyList(), errors);
+
+        Map<String, String> generated = new TreeMap<>();
+        collect(out, "", generated);
+        return generated;
+    }
+
+    private static boolean isGenerated(JavaFileObject source, File out) {
+        return source != null && new File(source.toUri()).getAbsolutePath().startsWith(out.getAbsolutePath());
+    }
+
+    private static void collect(File dir, String path, Map<String, String> generated) throws IOException {
+        File[] files = dir.listFiles();
+        if (files == null)
+            return;
+        for (File file : files) {
+            if (file.isDirectory()) {
+                collect(file, path + file.getName() + "/", generated);
+            } else if (file.getName().endsWith(".java")) {
+                generated.put(path + file.getName(), new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+            }
+        }
+    }
+}
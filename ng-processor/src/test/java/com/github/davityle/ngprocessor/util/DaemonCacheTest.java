@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.util;
+
+import com.github.davityle.ngprocessor.finders.OptionsHelper;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.processing.ProcessingEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DaemonCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testHit() {
+        File file = new File(folder.getRoot(), "main.xml");
+        cache(true).put(DaemonCache.LAYOUTS, file, 10, 1000, "value");
+
+        // a new cache, as a later compilation in the same daemon would have
+        assertEquals("value", cache(true).get(DaemonCache.LAYOUTS, file, 10, 1000, String.class).get());
+    }
+
+    @Test
+    public void testMiss() {
+        File file = new File(folder.getRoot(), "main.xml");
+        DaemonCache cache = cache(true);
+        cache.put(DaemonCache.LAYOUTS, file, 10, 1000, "value");
+
+        assertFalse(cache.get(DaemonCache.LAYOUTS, file, 11, 1000, String.class).isPresent());
+        assertFalse(cache.get(DaemonCache.LAYOUTS, file, 10, 1001, String.class).isPresent());
+        assertFalse(cache.get(DaemonCache.LISTINGS, file, 10, 1000, String.class).isPresent());
+        assertFalse(cache.get(DaemonCache.LAYOUTS, file, 10, 1000, Integer.class).isPresent());
+        assertFalse(cache.get(DaemonCache.LAYOUTS, new File(folder.getRoot(), "other.xml"), 10, 1000, String.class).isPresent());
+
+        // the entry changed along with the file
+        cache.put(DaemonCache.LAYOUTS, file, 11, 1001, "changed");
+        assertFalse(cache.get(DaemonCache.LAYOUTS, file, 10, 1000, String.class).isPresent());
+        assertEquals("changed", cache.get(DaemonCache.LAYOUTS, file, 11, 1001, String.class).get());
+    }
+
+    @Test
+    public void testEviction() {
+        DaemonCache cache = cache(true);
+        File used = new File(folder.getRoot(), "used.xml");
+        cache.put(DaemonCache.LAYOUTS, used, 1, 1, "used");
+        for (int i = 0; i < DaemonCache.MAX_ENTRIES - 1; i++) {
+            cache.put(DaemonCache.LAYOUTS, new File(folder.getRoot(), i + ".xml"), 1, 1, i);
+        }
+
+        // reading an entry makes it the most recently used, so the oldest of the others goes first
+        assertTrue(cache.get(DaemonCache.LAYOUTS, used, 1, 1, String.class).isPresent());
+        cache.put(DaemonCache.LAYOUTS, new File(folder.getRoot(), "last.xml"), 1, 1, "last");
+
+        assertTrue(cache.get(DaemonCache.LAYOUTS, used, 1, 1, String.class).isPresent());
+        assertFalse(cache.get(DaemonCache.LAYOUTS, new File(folder.getRoot(), "0.xml"), 1, 1, Integer.class).isPresent());
+        assertTrue(cache.get(DaemonCache.LAYOUTS, new File(folder.getRoot(), "1.xml"), 1, 1, Integer.class).isPresent());
+        assertTrue(cache.get(DaemonCache.LAYOUTS, new File(folder.getRoot(), "last.xml"), 1, 1, String.class).isPresent());
+    }
+
+    @Test
+    public void testDisabled() {
+        File file = new File(folder.getRoot(), "main.xml");
+        DaemonCache disabled = cache(false);
+        assertFalse(disabled.isEnabled());
+        disabled.put(DaemonCache.LAYOUTS, file, 10, 1000, "value");
+        assertFalse(disabled.get(DaemonCache.LAYOUTS, file, 10, 1000, String.class).isPresent());
+        assertFalse(cache(true).get(DaemonCache.LAYOUTS, file, 10, 1000, String.class).isPresent());
+
+        // nor does it return what an enabled cache stored
+        cache(true).put(DaemonCache.LAYOUTS, file, 10, 1000, "value");
+        assertFalse(disabled.get(DaemonCache.LAYOUTS, file, 10, 1000, String.class).isPresent());
+    }
+
+    private static DaemonCache cache(boolean enabled) {
+        Map<String, String> options = new HashMap<>();
+        options.put("ngDaemonCache", Boolean.toString(enabled));
+        ProcessingEnvironment environment = mock(ProcessingEnvironment.class);
+        when(environment.getOptions()).thenReturn(options);
+        return new DaemonCache(new OptionsHelper(environment));
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.util;
+
+import com.github.davityle.ngprocessor.TestEnvironment;
+import com.google.testing.compile.CompilationRule;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ElementUtilsTest {
+
+    @SuppressWarnings("unused")
+    static class Model {
+        private String name;
+        static final String NAME = "name";
+        private int count;
+
+        public String getName() { return name; }
+        public String getname() { return name; }
+        public void setName(String name) { this.name = name; }
+        public int getCount() { return count; }
+        public void setCount(long count) { this.count = (int) count; }
+        public String getTitle() { return name; }
+    }
+
+    @Rule
+    public CompilationRule compilation = new CompilationRule();
+
+    private TestEnvironment environment;
+    private ElementUtils elementUtils;
+    private TypeElement model;
+
+    @Before
+    public void setUp() {
+        environment = new TestEnvironment();
+        MessageUtils messageUtils = new MessageUtils(environment.getProcessingEnvironment());
+        elementUtils = new ElementUtils(compilation.getElements(), messageUtils, new TypeUtils(compilation.getTypes(), messageUtils), new CollectionUtils());
+        model = compilation.getElements().getTypeElement(Model.class.getCanonicalName());
+    }
+
+    @Test
+    public void testMembersIgnoreCase() {
+        assertEquals(Arrays.asList("name", "NAME"), names(elementUtils.getMembers(model, "Name")));
+        assertEquals(Arrays.asList("name", "NAME"), names(elementUtils.getMembers(model, "nAmE")));
+        assertEquals(Arrays.asList("getName", "getname"), names(elementUtils.getMembers(model, "GETNAME")));
+        assertEquals("count", elementUtils.findMember(model, "COUNT").get().getSimpleName().toString());
+
+        assertEquals(Collections.<String>emptyList(), names(elementUtils.getMembers(model, "missing")));
+        assertFalse(elementUtils.findMember(model, "missing").isPresent());
+
+        // the index of a type is built once
+        assertSame(elementUtils.getMembers(model, "name"), elementUtils.getMembers(model, "NAME"));
+    }
+
+    @Test
+    public void testAccessors() {
+        Tuple<String, String> accessors = elementUtils.getGetAndSetMethodNames(model, "NAME");
+        assertEquals("getName", accessors.getFirst());
+        assertEquals("setName", accessors.getSecond());
+        assertTrue(elementUtils.hasGetterAndSetter(model, "name"));
+        assertTrue(elementUtils.hasGetterAndSetter(model, "Count"));
+        assertFalse(elementUtils.hasGetterAndSetter(model, "title"));
+        assertFalse(elementUtils.hasGetterAndSetter(model, "missing"));
+
+        // getname isn't a getter, so it doesn't conflict with getName
+        assertEquals("java.lang.String", elementUtils.getElementType(model, "name").toString());
+        assertEquals(Collections.<String>emptyList(), environment.getErrors());
+
+        assertEquals("int", elementUtils.getElementType(model, "count").toString());
+        assertEquals(Collections.singletonList("Getter and Setter for field 'count' do not match"), environment.getErrors());
+    }
+
+    private static List<String> names(List<Element> elements) {
+        List<String> names = new ArrayList<>();
+        for (Element element : elements) {
+            names.add(element.getSimpleName().toString());
+        }
+        return names;
+    }
+}
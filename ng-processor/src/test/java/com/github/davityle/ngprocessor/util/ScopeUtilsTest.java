@@ -0,0 +1,108 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.util;
+
+import com.github.davityle.ngprocessor.model.Model;
+import com.github.davityle.ngprocessor.model.Scope;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.JavaFileObject;
+
+import static com.google.common.truth.Truth.ASSERT;
+import static com.google.testing.compile.JavaSourceSubjectFactory.javaSource;
+import static org.junit.Assert.assertEquals;
+
+public class ScopeUtilsTest {
+
+    private static final JavaFileObject SCOPES = JavaFileObjects.forSourceLines("com.yella.Scopes",
+        "package com.yella;",
+        "",
+        "import com.ngandroid.lib.annotations.NgModel;",
+        "import com.ngandroid.lib.annotations.NgScope;",
+        "",
+        "@NgScope(name=\"First\")",
+        "class Scopes {",
+        "    @NgModel User user;",
+        "    @NgModel Item item;",
+        "}",
+        "@NgScope(name=\"Second\")",
+        "class Second {",
+        "    @NgModel Item item;",
+        "}",
+        "@NgScope(name=\"Empty\")",
+        "class Empty {",
+        "}",
+        "class NotAScope {",
+        "    @NgModel User user;",
+        "}",
+        "class User {}",
+        "class Item {}");
+
+    @Test
+    public void testModelsGroupedByScope() {
+        final List<String> scopes = new ArrayList<>();
+        ASSERT.about(javaSource())
+            .that(SCOPES)
+            .processedWith(new AbstractProcessor() {
+                @Override
+                public Set<String> getSupportedAnnotationTypes() {
+                    return Collections.singleton("*");
+                }
+
+                @Override
+                public SourceVersion getSupportedSourceVersion() {
+                    return SourceVersion.latestSupported();
+                }
+
+                @Override
+                public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+                    MessageUtils messageUtils = new MessageUtils(processingEnv);
+                    TypeUtils typeUtils = new TypeUtils(processingEnv.getTypeUtils(), messageUtils);
+                    CollectionUtils collectionUtils = new CollectionUtils();
+                    ElementUtils elementUtils = new ElementUtils(processingEnv.getElementUtils(), messageUtils, typeUtils, collectionUtils);
+                    ScopeUtils scopeUtils = new ScopeUtils(elementUtils, roundEnv, messageUtils, collectionUtils, typeUtils);
+                    for (Scope scope : scopeUtils.getScopes(annotations)) {
+                        StringBuilder description = new StringBuilder(scope.getName()).append(' ').append(scope.getTypeName());
+                        for (Model model : scope.getNgModels()) {
+                            description.append(' ').append(model.getName()).append(':').append(model.getTypeName());
+                        }
+                        scopes.add(description.toString());
+                    }
+                    return false;
+                }
+            })
+            .compilesWithoutError();
+
+        Collections.sort(scopes);
+        List<String> expected = new ArrayList<>();
+        expected.add("Empty com.yella.Empty");
+        expected.add("First com.yella.Scopes user:com.yella.User item:com.yella.Item");
+        expected.add("Second com.yella.Second item:com.yella.Item");
+        assertEquals(expected, scopes);
+    }
+}
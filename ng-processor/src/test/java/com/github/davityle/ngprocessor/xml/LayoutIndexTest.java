@@ -0,0 +1,149 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.xml;
+
+import com.github.davityle.ngprocessor.attrcompiler.sources.Source;
+import com.github.davityle.ngprocessor.attributes.Attributes;
+import com.github.davityle.ngprocessor.deps.AttrModule;
+import com.github.davityle.ngprocessor.finders.FileHelper;
+import com.github.davityle.ngprocessor.finders.OptionsHelper;
+import com.github.davityle.ngprocessor.util.DaemonCache;
+import com.github.davityle.ngprocessor.util.MessageUtils;
+import com.github.davityle.ngprocessor.util.Option;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.processing.ProcessingEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LayoutIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ProcessingEnvironment environment;
+    private File layout;
+
+    @Before
+    public void setUp() throws Exception {
+        Map<String, String> options = new HashMap<>();
+        options.put("ngDaemonCache", "false");
+        options.put("ngLayoutIndexFile", new File(folder.getRoot(), "index.bin").getPath());
+        environment = mock(ProcessingEnvironment.class);
+        when(environment.getOptions()).thenReturn(options);
+
+        layout = folder.newFile("main.xml");
+        write(layout, "<layout>first</layout>");
+        LayoutIndex index = index(attributes(), "processor");
+        LayoutIndex.Lookup lookup = index.lookup(layout);
+        assertFalse(lookup.isHit());
+        index.store(lookup, Option.of(scopes()));
+        index.save();
+    }
+
+    @Test
+    public void testUnchangedLayout() throws Exception {
+        LayoutIndex.Lookup lookup = index(attributes(), "processor").lookup(layout);
+        assertTrue(lookup.isHit());
+        XmlScope scope = lookup.getScopes().get().iterator().next();
+        assertEquals("Scope", scope.getScopeName());
+        XmlView view = scope.getViews().get(0);
+        assertEquals("name", view.getId());
+        assertEquals("EditText", view.getElementType());
+        XmlAttribute attribute = view.getAttributes().iterator().next();
+        assertEquals("ngModel", attribute.getName());
+        assertEquals("user.name", attribute.getValue());
+    }
+
+    @Test
+    public void testTouchedLayout() throws Exception {
+        // same size and content, only the hash tells it apart from a changed layout
+        assertTrue(layout.setLastModified(layout.lastModified() - 60000));
+        LayoutIndex.Lookup lookup = index(attributes(), "processor").lookup(layout);
+        assertTrue(lookup.isHit());
+        assertEquals("Scope", lookup.getScopes().get().iterator().next().getScopeName());
+    }
+
+    @Test
+    public void testChangedLayout() throws IOException {
+        long lastModified = layout.lastModified();
+        write(layout, "<layout>other</layout>");
+        assertTrue(layout.setLastModified(lastModified - 60000));
+        assertFalse(index(attributes(), "processor").lookup(layout).isHit());
+
+        write(layout, "<layout>first</layout>\n");
+        assertFalse(index(attributes(), "processor").lookup(layout).isHit());
+    }
+
+    @Test
+    public void testChangedAttributes() {
+        Attributes attributes = attributes();
+        attributes.remove(attributes.get("NgLongClick").getAttrName());
+        attributes.remove("NgLongClick");
+        assertFalse(index(attributes, "processor").lookup(layout).isHit());
+    }
+
+    @Test
+    public void testChangedProcessor() {
+        assertFalse(index(attributes(), "other processor").lookup(layout).isHit());
+    }
+
+    private LayoutIndex index(Attributes attributes, final String processorVersion) {
+        OptionsHelper optionsHelper = new OptionsHelper(environment);
+        return new LayoutIndex(new MessageUtils(environment), attributes, null, optionsHelper, new FileHelper(environment), new DaemonCache(optionsHelper)) {
+            @Override
+            String getProcessorVersion() {
+                return processorVersion;
+            }
+        };
+    }
+
+    private static Attributes attributes() {
+        return new Attributes(new AttrModule().scopeAttrNameResolver());
+    }
+
+    private static Collection<XmlScope> scopes() throws Exception {
+        Attributes attributes = attributes();
+        XmlAttribute model = new XmlAttribute(attributes.get("ngModel"), "user.name", new Source("user.name", null), Option.of("name"));
+        XmlView view = new XmlView("name", Collections.singletonList(model), "EditText");
+        return Collections.singletonList(new XmlScope("Scope").addViews(Collections.singletonList(view)));
+    }
+
+    private static void write(File file, String content) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.xml;
+
+import com.github.davityle.ngprocessor.TestEnvironment;
+import com.github.davityle.ngprocessor.attributes.Attributes;
+import com.github.davityle.ngprocessor.attrcompiler.parse.ParseException;
+import com.github.davityle.ngprocessor.attrcompiler.sources.Source;
+import com.github.davityle.ngprocessor.deps.AttrModule;
+import com.github.davityle.ngprocessor.model.Layout;
+import com.github.davityle.ngprocessor.util.MessageUtils;
+import com.github.davityle.ngprocessor.util.Option;
+import com.github.davityle.ngprocessor.util.Tuple;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LayoutVariantsTest {
+
+    private static final String RES = File.separator + "res" + File.separator;
+
+    @Test
+    public void testMergedVariants() {
+        List<File> files = Arrays.asList(file("layout-land", "main"), file("layout", "main"), file("layout", "other"), file("layout-land", "other"));
+        List<Tuple<Layout, Collection<XmlScope>>> layouts = new ArrayList<>();
+        layouts.add(layout("layout-land", "main", "Scope", "first", "landOnly"));
+        layouts.add(layout("layout", "main", "Scope", "first", "portraitOnly"));
+        layouts.add(layout("layout", "other", "Other", "view"));
+
+        List<Tuple<Layout, Collection<XmlScope>>> merged = new LayoutVariants(new MessageUtils(null)).merge(files, layouts);
+        assertEquals(2, merged.size());
+
+        Tuple<Layout, Collection<XmlScope>> main = merged.get(0);
+        assertEquals(file("layout", "main").getAbsolutePath(), main.getFirst().getPath());
+        List<XmlView> views = main.getSecond().iterator().next().getViews();
+        assertEquals(3, views.size());
+        assertEquals("first", views.get(0).getId());
+        assertFalse(views.get(0).isOptional());
+        assertEquals("portraitOnly", views.get(1).getId());
+        assertTrue(views.get(1).isOptional());
+        assertEquals("landOnly", views.get(2).getId());
+        assertTrue(views.get(2).isOptional());
+
+        // the landscape variant has no bindings, but it doesn't have the view either
+        assertTrue(merged.get(1).getSecond().iterator().next().getViews().get(0).isOptional());
+    }
+
+    @Test
+    public void testLayoutWithoutVariants() {
+        Tuple<Layout, Collection<XmlScope>> layout = layout("layout", "main", "Scope", "first");
+        List<Tuple<Layout, Collection<XmlScope>>> merged = new LayoutVariants(new MessageUtils(null))
+            .merge(Collections.singletonList(file("layout", "main")), Collections.singletonList(layout));
+        assertEquals(1, merged.size());
+        assertTrue(layout == merged.get(0));
+    }
+
+    @Test
+    public void testDifferentlyBoundView() throws ParseException {
+        TestEnvironment environment = new TestEnvironment();
+        List<File> files = Arrays.asList(file("layout", "main"), file("layout-land", "main"));
+        List<Tuple<Layout, Collection<XmlScope>>> layouts = new ArrayList<>();
+        layouts.add(variant(RES, "layout", "main", "Scope", view("title", "user.name")));
+        layouts.add(variant(RES, "layout-land", "main", "Scope", view("title", "user.title")));
+
+        List<Tuple<Layout, Collection<XmlScope>>> merged = new LayoutVariants(new MessageUtils(environment.getProcessingEnvironment())).merge(files, layouts);
+        assertEquals(1, merged.size());
+        assertEquals(Collections.singletonList("View 'title' is bound differently in '" + file("layout", "main").getAbsolutePath() + "' and '"
+            + file("layout-land", "main").getAbsolutePath() + "', every variant of a layout must bind a view the same way"), environment.getErrors());
+    }
+
+    @Test
+    public void testSameNameUnderTwoResDirectories() throws ParseException {
+        String app = File.separator + "app" + RES, lib = File.separator + "lib" + RES;
+        TestEnvironment environment = new TestEnvironment();
+        List<File> files = Arrays.asList(file(app, "layout", "main"), file(app, "layout-land", "main"), file(lib, "layout", "main"));
+        List<Tuple<Layout, Collection<XmlScope>>> layouts = new ArrayList<>();
+        layouts.add(variant(app, "layout", "main", "Scope", view("title", "user.name")));
+        layouts.add(variant(app, "layout-land", "main", "Scope", view("title", "user.name")));
+        layouts.add(variant(lib, "layout", "main", "Scope", view("title", "user.title"), view("other", "user.other")));
+
+        // the library's layout isn't a variant of the app's, it is kept apart and may bind its views differently
+        List<Tuple<Layout, Collection<XmlScope>>> merged = new LayoutVariants(new MessageUtils(environment.getProcessingEnvironment())).merge(files, layouts);
+        assertEquals(Collections.<String>emptyList(), environment.getErrors());
+        assertEquals(2, merged.size());
+        assertEquals(file(app, "layout", "main").getAbsolutePath(), merged.get(0).getFirst().getPath());
+        List<XmlView> appViews = merged.get(0).getSecond().iterator().next().getViews();
+        assertEquals(1, appViews.size());
+        assertFalse(appViews.get(0).isOptional());
+
+        assertTrue(layouts.get(2) == merged.get(1));
+    }
+
+    private static File file(String dir, String name) {
+        return file(RES, dir, name);
+    }
+
+    private static File file(String res, String dir, String name) {
+        return new File(res + dir + File.separator + name + ".xml");
+    }
+
+    private static Tuple<Layout, Collection<XmlScope>> layout(String dir, String name, String scopeName, String... ids) {
+        List<XmlView> views = new ArrayList<>();
+        for (String id : ids) {
+            views.add(new XmlView(id, new ArrayList<XmlAttribute>(), "TextView"));
+        }
+        return variant(RES, dir, name, scopeName, views.toArray(new XmlView[views.size()]));
+    }
+
+    private static Tuple<Layout, Collection<XmlScope>> variant(String res, String dir, String name, String scopeName, XmlView... views) {
+        return Tuple.of(new Layout(file(res, dir, name).getAbsolutePath()), (Collection<XmlScope>) Collections.singletonList(new XmlScope(scopeName).addViews(Arrays.asList(views))));
+    }
+
+    private static XmlView view(String id, String text) throws ParseException {
+        Attributes attributes = new Attributes(new AttrModule().scopeAttrNameResolver());
+        XmlAttribute attr = new XmlAttribute(attributes.get("ngText"), text, new Source(text, null), Option.of(id));
+        return new XmlView(id, Collections.singletonList(attr), "TextView");
+    }
+}
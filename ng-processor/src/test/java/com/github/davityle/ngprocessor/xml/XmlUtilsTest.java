@@ -0,0 +1,198 @@
+/*
+ * Copyright 2015 Tyler Davis
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.github.davityle.ngprocessor.xml;
+
+import com.github.davityle.ngprocessor.TestEnvironment;
+import com.github.davityle.ngprocessor.model.Layout;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class XmlUtilsTest {
+
+    private static final String[] LAYOUT_DIRS = {
+        "ng-processor/src/test/resources/parser_layouts",
+        "ng-processor/src/test/resources/layouts",
+        "ng-processor/src/test/resources/case_layouts",
+        "ng-processor/src/test/resources/test_login",
+        "ng-processor/src/test/resources/test_private_method",
+        "app/src/main/res/layout"
+    };
+
+    private static final byte[] RES_AUTO = "http://schemas.android.com/apk/res-auto".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SCOPE_ATTR = "ngScope".getBytes(StandardCharsets.US_ASCII);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testStreamingParserMatchesDom() {
+        for (String layoutDir : LAYOUT_DIRS) {
+            TestEnvironment dom = new TestEnvironment();
+            dom.getOptions().put("ngLayoutParser", "dom");
+            TestEnvironment stream = new TestEnvironment();
+            stream.getOptions().put("ngLayoutParser", "stream");
+
+            assertEquals(layoutDir, describe(dom, layoutDir), describe(stream, layoutDir));
+            assertEquals(layoutDir, dom.getErrors(), stream.getErrors());
+        }
+    }
+
+    @Test
+    public void testNestedScopes() {
+        TestEnvironment environment = new TestEnvironment();
+        environment.getOptions().put("ngLayoutParser", "stream");
+        List<String> expected = new ArrayList<>();
+        expected.add("nested");
+        expected.add("  Outer");
+        expected.add("    name EditText ngBlur=onBlur() ngDisabled=model.locked ngModel=model.name");
+        expected.add("    deep Button ngClick=onClick(model.name)");
+        expected.add("    after TextView ngInvisible=!model.visible");
+        expected.add("  Sibling");
+        expected.add("    siblingView View ngFocus=model.focused ngLongClick=onLongClick()");
+        expected.add("  Inner");
+        expected.add("    innerText TextView ngText=item.title + ' ' + item.count");
+        expected.add("  Innermost");
+        expected.add("    innermostBox CheckBox ngModel=item.checked");
+        expected.add("root_scope");
+        expected.add("  Root");
+        expected.add("    title TextView ngText=model.title");
+        expected.add("    submit Button ngClick=submit() ngDisabled=!model.valid");
+        expected.add("unscoped");
+
+        assertEquals(expected, describe(environment, LAYOUT_DIRS[0]));
+        assertEquals(Collections.singletonList("View '[TextView: null]' must have an id in order for ngAndroid to use its attributes."), environment.getErrors());
+    }
+
+    @Test
+    public void testMayContain() {
+        assertTrue(XmlUtils.mayContain(bytes("ngScope=\"Scope\"", StandardCharsets.UTF_8), SCOPE_ATTR));
+        assertTrue(XmlUtils.mayContain(bytes("<View ng:ngScope", StandardCharsets.UTF_8), SCOPE_ATTR));
+        assertTrue(XmlUtils.mayContain(bytes("ngScope", StandardCharsets.UTF_8), SCOPE_ATTR));
+        assertFalse(XmlUtils.mayContain(bytes("<View ng:ngScop", StandardCharsets.UTF_8), SCOPE_ATTR));
+        assertFalse(XmlUtils.mayContain(bytes("ngScop", StandardCharsets.UTF_8), SCOPE_ATTR));
+        assertFalse(XmlUtils.mayContain(bytes("", StandardCharsets.UTF_8), SCOPE_ATTR));
+
+        // res-auto without a scope attribute
+        byte[] unscoped = bytes("<View xmlns:ng=\"http://schemas.android.com/apk/res-auto\" ng:ngText=\"a.b\"/>", StandardCharsets.UTF_8);
+        assertTrue(XmlUtils.mayContain(unscoped, RES_AUTO));
+        assertFalse(XmlUtils.mayContain(unscoped, SCOPE_ATTR));
+    }
+
+    @Test
+    public void testMayContainOtherEncodings() {
+        // a utf-8 byte order mark doesn't get in the way of an ascii search
+        byte[] bom = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+        assertTrue(XmlUtils.mayContain(concat(bom, bytes("ngScope", StandardCharsets.UTF_8)), SCOPE_ATTR));
+        assertFalse(XmlUtils.mayContain(concat(bom, bytes("<View/>", StandardCharsets.UTF_8)), SCOPE_ATTR));
+
+        // utf-16 can't be searched byte by byte, with or without a byte order mark
+        assertTrue(XmlUtils.mayContain(bytes("<View/>", Charset.forName("UTF-16")), SCOPE_ATTR));
+        assertTrue(XmlUtils.mayContain(bytes("<View/>", StandardCharsets.UTF_16BE), SCOPE_ATTR));
+        assertTrue(XmlUtils.mayContain(bytes("<View/>", StandardCharsets.UTF_16LE), SCOPE_ATTR));
+        assertTrue(XmlUtils.mayContain(concat(new byte[]{(byte) 0xFF, (byte) 0xFE}, bytes("<View/>", StandardCharsets.UTF_16LE)), SCOPE_ATTR));
+    }
+
+    @Test
+    public void testSkippedLayouts() throws IOException {
+        File layoutDir = folder.newFolder("layout");
+        write(new File(layoutDir, "unbound.xml"), "<LinearLayout xmlns:android=\"http://schemas.android.com/apk/res/android\"><View");
+        write(new File(layoutDir, "unscoped.xml"), "<LinearLayout xmlns:ng=\"http://schemas.android.com/apk/res-auto\"><View");
+        TestEnvironment environment = new TestEnvironment();
+
+        // neither is parsed, so the malformed xml isn't reported by the processor
+        Map<Layout, Collection<XmlScope>> scopes = environment.component(layoutDir.getPath()).createXmlUtils().getXmlScopes();
+        assertEquals(1, scopes.size());
+        Map.Entry<Layout, Collection<XmlScope>> unscoped = scopes.entrySet().iterator().next();
+        assertEquals("unscoped", unscoped.getKey().getFileName());
+        assertTrue(unscoped.getValue().isEmpty());
+        assertEquals(Collections.<String>emptyList(), environment.getErrors());
+
+        // a layout that may have bindings is still parsed and its errors reported
+        write(new File(layoutDir, "scoped.xml"), "<LinearLayout xmlns:ng=\"http://schemas.android.com/apk/res-auto\" ng:ngScope=\"Scope\"><View");
+        environment.component(layoutDir.getPath()).createXmlUtils().getXmlScopes();
+        assertEquals(1, environment.getErrors().size());
+    }
+
+    private static byte[] bytes(String content, Charset charset) {
+        return content.getBytes(charset);
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] bytes = new byte[first.length + second.length];
+        System.arraycopy(first, 0, bytes, 0, first.length);
+        System.arraycopy(second, 0, bytes, first.length, second.length);
+        return bytes;
+    }
+
+    private static void write(File file, String content) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * every layout in file name order with its scopes, views and attributes in the order they were extracted
+     */
+    private static List<String> describe(TestEnvironment environment, String layoutDir) {
+        Map<Layout, Collection<XmlScope>> scopes = environment.component(layoutDir).createXmlUtils().getXmlScopes();
+        List<Layout> layouts = new ArrayList<>(scopes.keySet());
+        Collections.sort(layouts, new Comparator<Layout>() {
+            @Override
+            public int compare(Layout a, Layout b) {
+                return a.getFileName().compareTo(b.getFileName());
+            }
+        });
+
+        List<String> lines = new ArrayList<>();
+        for (Layout layout : layouts) {
+            lines.add(layout.getFileName());
+            for (XmlScope scope : scopes.get(layout)) {
+                lines.add("  " + scope.getScopeName());
+                for (XmlView view : scope.getViews()) {
+                    StringBuilder line = new StringBuilder("    ").append(view.getId()).append(' ').append(view.getElementType());
+                    if (view.isOptional()) {
+                        line.append(" optional");
+                    }
+                    for (XmlAttribute attribute : view.getAttributes()) {
+                        line.append(' ').append(attribute.getName()).append('=').append(attribute.getValue());
+                    }
+                    lines.add(line.toString());
+                }
+            }
+        }
+        return lines;
+    }
+}